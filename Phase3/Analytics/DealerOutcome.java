@@ -0,0 +1,37 @@
+package Analytics;
+
+/**
+ * Probability distribution of the dealer's final hand: a total of 17 to 21,
+ * or bust. Immutable, so cached instances are shared between callers.
+ */
+public final class DealerOutcome {
+    private final double[] probabilities; // 17, 18, 19, 20, 21, bust
+
+    DealerOutcome(double[] probabilities) {
+        this.probabilities = probabilities;
+    }
+
+    /** Chance the dealer finishes on total (17 to 21); 0 for any other total. */
+    public double probabilityOf(int total) {
+        return total >= 17 && total <= 21 ? probabilities[total - 17] : 0;
+    }
+
+    public double bust() {
+        return probabilities[5];
+    }
+
+    /** Chance the dealer finishes below total without busting, i.e. a standing total beats them. */
+    public double below(int total) {
+        double p = 0;
+        for (int t = 17; t < Math.min(total, 22); t++) {
+            p += probabilities[t - 17];
+        }
+        return p;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("17:%.4f 18:%.4f 19:%.4f 20:%.4f 21:%.4f bust:%.4f",
+                probabilities[0], probabilities[1], probabilities[2], probabilities[3], probabilities[4], probabilities[5]);
+    }
+}
@@ -0,0 +1,171 @@
+package Analytics;
+
+import Enums.Rank;
+import Server.Dealer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact distribution of the dealer's final total for an upcard and the
+ * cards still unseen, by walking every way the hole card and the draws can
+ * come out of that composition. The dealer draws by Dealer.mustHit on the
+ * hand value, as GameTable.playDealerTurn does, and never peeks, so dealer
+ * blackjacks are part of the 21s.
+ *
+ * Answers are cached by (upcard, composition) in a bounded LRU, so the
+ * same question asked again during a round costs a map lookup. The size is
+ * set with -Dblackjack.dealerCache.size (default 100000 entries).
+ */
+public class DealerProbabilities {
+    private static final int DEFAULT_CACHE_SIZE = Integer.getInteger("blackjack.dealerCache.size", 100_000);
+
+    private final Dealer dealer = new Dealer("analytics", "");
+    private final Map<Key, DealerOutcome> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DealerProbabilities() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public DealerProbabilities(int cacheSize) {
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, DealerOutcome> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /** Outcome distribution for upcard, the hole card and all draws coming from unseen. */
+    public DealerOutcome forUpcard(Rank upcard, ShoeComposition unseen) {
+        int up = ShoeComposition.indexOf(upcard);
+        Key key = new Key(up, unseen.countsCopy());
+        synchronized (cache) {
+            DealerOutcome cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        // Worked out outside the lock: two threads may both compute a new key, which is harmless
+        DealerOutcome outcome = new DealerOutcome(new Walk(key.counts.clone()).from(up));
+        synchronized (cache) {
+            cache.put(key, outcome);
+        }
+        return outcome;
+    }
+
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    private static final class Key {
+        final int upcard;
+        final int[] counts;
+        final int hash;
+
+        Key(int upcard, int[] counts) {
+            this.upcard = upcard;
+            this.counts = counts;
+            this.hash = 31 * Arrays.hashCode(counts) + upcard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).upcard == upcard && Arrays.equals(((Key) o).counts, counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // One query's search. Orders of the same cards end in the same state, so states already
+    // worked out are remembered by (cards left, hard total, ace held) for the rest of the query.
+    private final class Walk {
+        private final int[] counts;
+        private int left;
+        private final long[] radix = new long[ShoeComposition.VALUES];
+        private final boolean packable;
+        private final Map<Long, double[]> seen = new HashMap<>();
+
+        Walk(int[] counts) {
+            this.counts = counts;
+            long r = 1;
+            boolean fits = true;
+            for (int i = 0; i < counts.length; i++) {
+                left += counts[i];
+                radix[i] = r;
+                if (r > Long.MAX_VALUE / 64 / (counts[i] + 1)) {
+                    fits = false; // enormous shoe: skip the memo rather than collide
+                    break;
+                }
+                r *= counts[i] + 1;
+            }
+            this.packable = fits;
+        }
+
+        double[] from(int upcard) {
+            return play(ShoeComposition.hardValue(upcard), upcard == 0);
+        }
+
+        private double[] play(int hard, boolean ace) {
+            int value = ace && hard + 10 <= 21 ? hard + 10 : hard;
+            double[] out = new double[6];
+            if (value > 21) {
+                out[5] = 1;
+                return out;
+            }
+            if (!dealer.mustHit(value)) {
+                out[value - 17] = 1;
+                return out;
+            }
+            if (left == 0) {
+                throw new IllegalStateException("Shoe ran out while the dealer must draw");
+            }
+
+            long key = 0;
+            if (packable) {
+                for (int i = 0; i < counts.length; i++) {
+                    key += counts[i] * radix[i];
+                }
+                key = key * 64 + hard * 2 + (ace ? 1 : 0);
+                double[] known = seen.get(key);
+                if (known != null) {
+                    return known;
+                }
+            }
+
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                double p = (double) counts[i] / left;
+                counts[i]--;
+                left--;
+                double[] next = play(hard + ShoeComposition.hardValue(i), ace || i == 0);
+                counts[i]++;
+                left++;
+                for (int k = 0; k < 6; k++) {
+                    out[k] += p * next[k];
+                }
+            }
+            if (packable) {
+                seen.put(key, out);
+            }
+            return out;
+        }
+    }
+}
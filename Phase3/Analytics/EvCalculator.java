@@ -0,0 +1,308 @@
+package Analytics;
+
+import Enums.PlayerAction;
+import Enums.Rank;
+import Server.Dealer;
+import Server.Hand;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exact expected value of STAND, HIT and DOUBLE for a hand, given the
+ * dealer's upcard and the cards still unseen: every card the player could
+ * draw is taken out of the composition in turn, and every standing total is
+ * scored, per Bet.outcome, against the dealer playing out (by
+ * Dealer.mustHit, hole card included) from what is left at that point.
+ * After a hit the player is assumed to go on playing the best of hit and
+ * stand.
+ *
+ * Different orders of the same cards reach the same state, for the player
+ * and the dealer alike, so results are kept in bounded transposition
+ * tables keyed by a Zobrist hash of the composition and the hand: one XOR
+ * per card drawn or put back. The tables persist across queries, so asking
+ * again mid-round, or about the next hand from the same shoe, mostly reuses
+ * earlier work. Calls are serialized; an instance per table keeps them from
+ * queueing.
+ */
+public class EvCalculator {
+    private static final int MAX_COUNT = 512;           // per value; 32 decks of tens
+    private static final long[][] ZOBRIST = new long[ShoeComposition.VALUES][MAX_COUNT + 1];
+    private static final long[][] STATE = new long[ShoeComposition.VALUES][64]; // player: [upcard][hard * 2 + ace]
+    private static final long[] DEALER_STATE = new long[64];                   // dealer: [hard * 2 + ace]
+    private static final long FROZEN = 0x2545F4914F6CDD1DL;
+    private static final int MAX_DEALER_CARDS = 32;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x426C61636B6A61L);
+        for (long[] row : ZOBRIST) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextLong();
+            }
+        }
+        for (long[] row : STATE) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < DEALER_STATE.length; i++) {
+            DEALER_STATE[i] = random.nextLong();
+        }
+    }
+
+    /** EVs in units of the original bet; NaN for an action the hand cannot take. */
+    public static final class Evaluation {
+        private final double stand;
+        private final double hit;
+        private final double doubleDown;
+
+        Evaluation(double stand, double hit, double doubleDown) {
+            this.stand = stand;
+            this.hit = hit;
+            this.doubleDown = doubleDown;
+        }
+
+        public double getStand() { return stand; }
+        public double getHit() { return hit; }
+        public double getDouble() { return doubleDown; }
+
+        public double get(PlayerAction action) {
+            switch (action) {
+                case STAND:  return stand;
+                case HIT:    return hit;
+                default:     return doubleDown;
+            }
+        }
+
+        public PlayerAction best() {
+            PlayerAction best = hit > stand ? PlayerAction.HIT : PlayerAction.STAND;
+            return doubleDown > Math.max(hit, stand) ? PlayerAction.DOUBLE : best;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("stand %+.4f  hit %+.4f  double %+.4f", stand, hit, doubleDown);
+        }
+    }
+
+    private final Dealer rules = new Dealer("analytics", "");
+    private final TranspositionTable playerTable;
+    private final TranspositionTable dealerTable;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int exactDraws;
+
+    // State of the query in progress
+    private int[] counts;
+    private int left;
+    private long hash;
+    private int up;
+    private final double[] dealer = new double[6];
+    private final double[][] dealerScratch = new double[MAX_DEALER_CARDS][6]; // one per dealer draw depth
+    private int drawn;                              // cards the player has drawn below the hand asked about
+    private final double[] frozen = new double[6];  // dealer distribution used once drawn > exactDraws
+    private long frozenHash;
+
+    /**
+     * For live play: 2^18 player and 2^18 dealer entries (about 16 MB) and
+     * exactDraws 1, which keeps an 8 deck query to a few milliseconds with
+     * EVs within about 0.001 of the fully exact ones.
+     */
+    public EvCalculator() {
+        this(1 << 18, 1 << 18, 1);
+    }
+
+    /**
+     * exactDraws bounds the work: once the player has drawn more than that
+     * many cards below the hand asked about, standing is scored against the
+     * dealer distribution from that point rather than redone for every
+     * deeper composition; the player's own draw odds stay exact.
+     * Integer.MAX_VALUE is fully exact, for offline analysis.
+     */
+    public EvCalculator(int playerSlots, int dealerSlots, int exactDraws) {
+        if (exactDraws < 0) {
+            throw new IllegalArgumentException("exactDraws must be at least 0: " + exactDraws);
+        }
+        this.playerTable = new TranspositionTable(playerSlots, 1);
+        this.dealerTable = new TranspositionTable(dealerSlots, 6);
+        this.exactDraws = exactDraws;
+    }
+
+    /**
+     * EVs for hand against upcard. unseen must already exclude the hand's
+     * cards and the upcard; the hole card is unseen, so it stays in.
+     */
+    public Evaluation evaluate(Hand hand, Rank upcard, ShoeComposition unseen) {
+        lock.lock();
+        try {
+            counts = unseen.countsCopy();
+            left = unseen.total();
+            hash = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > MAX_COUNT) {
+                    throw new IllegalArgumentException("Too many cards of one value: " + counts[i]);
+                }
+                hash ^= ZOBRIST[i][counts[i]];
+            }
+            up = ShoeComposition.indexOf(upcard);
+            drawn = 0;
+
+            int hard = hand.getHardTotal();
+            boolean ace = hand.isSoft(); // an Ace already stuck at 1 plays like none
+            boolean bust = hand.isBust();
+            double stand = stand(hand.getValue());
+            double hit = bust ? Double.NaN : hit(hard, ace);
+            double dbl = hand.size() == 2 ? doubleDown(hard, ace) : Double.NaN;
+            return new Evaluation(stand, hit, dbl);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCacheHits() {
+        return playerTable.getHits() + dealerTable.getHits();
+    }
+
+    public long getCacheMisses() {
+        return playerTable.getMisses() + dealerTable.getMisses();
+    }
+
+    private static int value(int hard, boolean ace) {
+        return ace && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+
+    private void take(int i) {
+        hash ^= ZOBRIST[i][counts[i]] ^ ZOBRIST[i][counts[i] - 1];
+        counts[i]--;
+        left--;
+    }
+
+    private void putBack(int i) {
+        hash ^= ZOBRIST[i][counts[i]] ^ ZOBRIST[i][counts[i] + 1];
+        counts[i]++;
+        left++;
+    }
+
+    // Standing on value against what is unseen right now
+    private double stand(int value) {
+        if (value > 21) {
+            return -1;
+        }
+        double[] dealer = this.dealer;
+        if (drawn > exactDraws) {
+            dealer = frozen;
+        } else {
+            dealerFrom(ShoeComposition.hardValue(up), up == 0, 0, dealer);
+        }
+        if (value == 21) {
+            return 1.5 * (1 - dealer[4]); // a 21 the dealer does not match pays as blackjack
+        }
+        double ev = dealer[5];
+        for (int t = 17; t <= 21; t++) {
+            ev += t < value ? dealer[t - 17] : t > value ? -dealer[t - 17] : 0;
+        }
+        return ev;
+    }
+
+    // Distribution of the dealer's final hand (17-21, bust) from hard/ace with the unseen cards left
+    private void dealerFrom(int hard, boolean ace, int depth, double[] out) {
+        int value = value(hard, ace);
+        if (value > 21 || !rules.mustHit(value)) {
+            Arrays.fill(out, 0);
+            out[value > 21 ? 5 : value - 17] = 1;
+            return;
+        }
+        boolean liveAce = ace && hard + 10 <= 21;
+        long key = hash ^ DEALER_STATE[hard * 2 + (liveAce ? 1 : 0)];
+        if (dealerTable.get(key, out)) {
+            return;
+        }
+        if (left == 0 || depth == MAX_DEALER_CARDS) {
+            throw new IllegalStateException("Shoe ran out while the dealer must draw");
+        }
+
+        double[] next = dealerScratch[depth];
+        Arrays.fill(out, 0);
+        int total = left;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double p = (double) counts[i] / total;
+            take(i);
+            dealerFrom(hard + ShoeComposition.hardValue(i), liveAce || i == 0, depth + 1, next);
+            putBack(i);
+            for (int k = 0; k < 6; k++) {
+                out[k] += p * next[k];
+            }
+        }
+        dealerTable.put(key, out);
+    }
+
+    // Draws below this node go past exactDraws: fix the dealer distribution at this composition
+    private void freezeIfDeepEnough() {
+        if (drawn == exactDraws) {
+            dealerFrom(ShoeComposition.hardValue(up), up == 0, 0, frozen);
+            frozenHash = hash;
+        }
+    }
+
+    private double hit(int hard, boolean ace) {
+        double ev = 0;
+        int total = left;
+        freezeIfDeepEnough();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double p = (double) counts[i] / total;
+            take(i);
+            drawn++;
+            ev += p * best(hard + ShoeComposition.hardValue(i), ace || i == 0);
+            drawn--;
+            putBack(i);
+        }
+        return ev;
+    }
+
+    private double doubleDown(int hard, boolean ace) {
+        double ev = 0;
+        int total = left;
+        freezeIfDeepEnough();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double p = (double) counts[i] / total;
+            take(i);
+            drawn++;
+            ev += p * stand(value(hard + ShoeComposition.hardValue(i), ace || i == 0));
+            drawn--;
+            putBack(i);
+        }
+        return 2 * ev;
+    }
+
+    // Best of standing and hitting on, from here
+    private double best(int hard, boolean ace) {
+        if (hard > 21) {
+            return -1;
+        }
+        int value = value(hard, ace);
+        if (value == 21) {
+            return stand(21); // nothing beats standing on 21
+        }
+        boolean liveAce = ace && hard + 10 <= 21; // an Ace stuck at 1 plays like none
+        long key = hash ^ STATE[up][hard * 2 + (liveAce ? 1 : 0)];
+        if (drawn > exactDraws) {
+            key ^= FROZEN ^ Long.rotateLeft(frozenHash, 29); // scored against another composition's dealer
+        }
+        double cached = playerTable.get(key);
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+        double ev = Math.max(stand(value), hit(hard, liveAce));
+        playerTable.put(key, ev);
+        return ev;
+    }
+}
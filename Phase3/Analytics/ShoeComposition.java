@@ -0,0 +1,122 @@
+package Analytics;
+
+import Enums.Rank;
+import Server.Card;
+import Server.Shoe;
+
+import java.util.Arrays;
+
+/**
+ * How many cards of each value are left in a shoe, which is all that
+ * matters for blackjack odds: suits are ignored and the four ten-valued
+ * ranks count together. Index 0 is the Ace, 1 to 8 the twos to nines and 9
+ * the tens (see indexOf).
+ */
+public class ShoeComposition {
+    public static final int VALUES = 10;
+
+    private final int[] counts;
+    private int total;
+
+    private ShoeComposition(int[] counts) {
+        this.counts = counts;
+        for (int c : counts) {
+            total += c;
+        }
+    }
+
+    /** A full shoe of numDecks decks. */
+    public static ShoeComposition ofDecks(int numDecks) {
+        int[] counts = new int[VALUES];
+        Arrays.fill(counts, 4 * numDecks);
+        counts[9] = 16 * numDecks;
+        return new ShoeComposition(counts);
+    }
+
+    /** The cards shoe has not dealt yet. */
+    public static ShoeComposition remainingIn(Shoe shoe) {
+        int[] byCode = new int[Card.DISTINCT];
+        shoe.countRemaining(byCode);
+        int[] counts = new int[VALUES];
+        for (int code = 0; code < byCode.length; code++) {
+            counts[indexOf(Card.fromCode(code).getRank())] += byCode[code];
+        }
+        return new ShoeComposition(counts);
+    }
+
+    /** Counts by value index, Ace first and tens last. */
+    public static ShoeComposition of(int... counts) {
+        if (counts.length != VALUES) {
+            throw new IllegalArgumentException("Need " + VALUES + " counts, got " + counts.length);
+        }
+        for (int c : counts) {
+            if (c < 0) {
+                throw new IllegalArgumentException("Negative count: " + Arrays.toString(counts));
+            }
+        }
+        return new ShoeComposition(counts.clone());
+    }
+
+    public static int indexOf(Rank rank) {
+        if (rank == Rank.ACE) {
+            return 0;
+        }
+        return Math.min(rank.ordinal() + 1, 9); // TWO is ordinal 0; TEN to KING share the last index
+    }
+
+    /** A rank with this value index (TEN for the tens). */
+    public static Rank rankOf(int index) {
+        return index == 0 ? Rank.ACE : Rank.values()[index - 1];
+    }
+
+    /** Blackjack value of a value index, with the Ace as 1. */
+    public static int hardValue(int index) {
+        return index + 1;
+    }
+
+    /** Takes a card that has been seen out of the unseen cards. */
+    public void remove(Card card) {
+        int i = indexOf(card.getRank());
+        if (counts[i] == 0) {
+            throw new IllegalStateException("No " + card.getRank() + " left to remove");
+        }
+        counts[i]--;
+        total--;
+    }
+
+    public void add(Card card) {
+        counts[indexOf(card.getRank())]++;
+        total++;
+    }
+
+    public int count(int index) {
+        return counts[index];
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public ShoeComposition copy() {
+        return new ShoeComposition(counts.clone());
+    }
+
+    int[] countsCopy() {
+        return counts.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ShoeComposition && Arrays.equals(counts, ((ShoeComposition) o).counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "ShoeComposition" + Arrays.toString(counts);
+    }
+}
@@ -0,0 +1,211 @@
+package Analytics;
+
+import Enums.PlayerAction;
+import Enums.Rank;
+import Server.Hand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Basic strategy for this game's rules (HIT, STAND and DOUBLE on the first
+ * two cards only; dealer stands on soft 17 and never peeks; any 21 the
+ * dealer does not match pays 3:2), as one byte per situation: first two
+ * cards or not, soft or hard, hand value and dealer upcard. bestAction is
+ * a single array read.
+ *
+ * generate() derives it from expected values: the dealer's final totals
+ * come from DealerProbabilities for a full shoe less the upcard, and each
+ * card the player draws is taken with the full shoe's odds, the usual
+ * total-dependent basic strategy approximation.
+ */
+public class StrategyTable {
+    private static final int MAGIC = 0x424A5354; // "BJST"
+    private static final int VERSION = 1;
+    private static final int VALUES = 22;        // hand values 0-21
+    private static final PlayerAction[] ACTIONS = PlayerAction.values();
+
+    private final int numDecks;
+    private final byte[] actions;                // [first two][soft][value][upcard] -> PlayerAction ordinal
+
+    private StrategyTable(int numDecks, byte[] actions) {
+        this.numDecks = numDecks;
+        this.actions = actions;
+    }
+
+    private static int index(boolean firstTwo, boolean soft, int value, int upcard) {
+        return (((firstTwo ? 1 : 0) * 2 + (soft ? 1 : 0)) * VALUES + value) * ShoeComposition.VALUES + upcard;
+    }
+
+    /** What to do with hand against upcard; STAND once the hand is over 21. */
+    public PlayerAction bestAction(Hand hand, Rank upcard) {
+        int value = hand.getValue();
+        if (value > 21) {
+            return PlayerAction.STAND;
+        }
+        return ACTIONS[actions[index(hand.size() == 2, hand.isSoft(), value, ShoeComposition.indexOf(upcard))]];
+    }
+
+    public int getNumDecks() {
+        return numDecks;
+    }
+
+    public static StrategyTable generate(int numDecks) {
+        DealerProbabilities dealerOdds = new DealerProbabilities();
+        byte[] actions = new byte[2 * 2 * VALUES * ShoeComposition.VALUES];
+        ShoeComposition full = ShoeComposition.ofDecks(numDecks);
+
+        for (int up = 0; up < ShoeComposition.VALUES; up++) {
+            int[] counts = new int[ShoeComposition.VALUES];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = full.count(i);
+            }
+            counts[up]--;
+            ShoeComposition unseen = ShoeComposition.of(counts);
+            DealerOutcome dealer = dealerOdds.forUpcard(ShoeComposition.rankOf(up), unseen);
+            double[] draw = new double[ShoeComposition.VALUES];
+            for (int i = 0; i < draw.length; i++) {
+                draw[i] = (double) unseen.count(i) / unseen.total();
+            }
+
+            Expectation ev = new Expectation(dealer, draw);
+            for (int hard = 2; hard <= 21; hard++) {
+                for (int ace = 0; ace < 2; ace++) {
+                    boolean soft = ace == 1 && hard + 10 <= 21;
+                    if (ace == 1 && !soft) {
+                        continue; // an Ace stuck at 1 plays exactly like the same hard total
+                    }
+                    int value = soft ? hard + 10 : hard;
+                    double stand = ev.stand(value);
+                    double hit = ev.hit(hard, ace == 1);
+                    double dbl = ev.doubleDown(hard, ace == 1);
+
+                    PlayerAction later = hit > stand ? PlayerAction.HIT : PlayerAction.STAND;
+                    PlayerAction first = dbl > Math.max(hit, stand) ? PlayerAction.DOUBLE : later;
+                    actions[index(false, soft, value, up)] = (byte) later.ordinal();
+                    actions[index(true, soft, value, up)] = (byte) first.ordinal();
+                }
+            }
+        }
+        return new StrategyTable(numDecks, actions);
+    }
+
+    // Expected values of one situation against one upcard, best play after every card
+    private static final class Expectation {
+        private final DealerOutcome dealer;
+        private final double[] draw;
+        private final double[][] best = new double[32][2]; // by hard total and ace held; NaN until known
+
+        Expectation(DealerOutcome dealer, double[] draw) {
+            this.dealer = dealer;
+            this.draw = draw;
+            for (double[] row : best) {
+                row[0] = Double.NaN;
+                row[1] = Double.NaN;
+            }
+        }
+
+        // Standing on value, per Bet.outcome: a 21 the dealer does not match pays 1.5
+        double stand(int value) {
+            if (value > 21) {
+                return -1;
+            }
+            if (value == 21) {
+                return 1.5 * (1 - dealer.probabilityOf(21));
+            }
+            double lose = 0;
+            for (int t = Math.max(17, value + 1); t <= 21; t++) {
+                lose += dealer.probabilityOf(t);
+            }
+            return dealer.bust() + dealer.below(value) - lose;
+        }
+
+        double hit(int hard, boolean ace) {
+            double ev = 0;
+            for (int c = 0; c < draw.length; c++) {
+                if (draw[c] > 0) {
+                    ev += draw[c] * best(hard + ShoeComposition.hardValue(c), ace || c == 0);
+                }
+            }
+            return ev;
+        }
+
+        double doubleDown(int hard, boolean ace) {
+            double ev = 0;
+            for (int c = 0; c < draw.length; c++) {
+                if (draw[c] > 0) {
+                    ev += draw[c] * stand(value(hard + ShoeComposition.hardValue(c), ace || c == 0));
+                }
+            }
+            return 2 * ev;
+        }
+
+        private double best(int hard, boolean ace) {
+            if (hard > 21) {
+                return -1;
+            }
+            int a = ace ? 1 : 0;
+            if (Double.isNaN(best[hard][a])) {
+                best[hard][a] = Math.max(stand(value(hard, ace)), hit(hard, ace));
+            }
+            return best[hard][a];
+        }
+
+        private static int value(int hard, boolean ace) {
+            return ace && hard + 10 <= 21 ? hard + 10 : hard;
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numDecks);
+            out.writeInt(actions.length);
+            out.write(actions);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static StrategyTable read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a strategy table: " + path);
+            }
+            int numDecks = in.readInt();
+            byte[] actions = new byte[in.readInt()];
+            if (actions.length != 2 * 2 * VALUES * ShoeComposition.VALUES) {
+                throw new IOException("Strategy table has the wrong size: " + path);
+            }
+            in.readFully(actions);
+            return new StrategyTable(numDecks, actions);
+        }
+    }
+
+    /**
+     * The table stored at path if it is there and for numDecks decks;
+     * otherwise generates one and stores it for next time.
+     */
+    public static StrategyTable loadOrGenerate(Path path, int numDecks) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                StrategyTable table = read(path);
+                if (table.numDecks == numDecks) {
+                    return table;
+                }
+            } catch (IOException e) {
+                // unreadable: generate a new one over it
+            }
+        }
+        StrategyTable table = generate(numDecks);
+        table.write(path);
+        return table;
+    }
+}
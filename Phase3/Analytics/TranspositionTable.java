@@ -0,0 +1,78 @@
+package Analytics;
+
+/**
+ * Fixed size cache of results by 64-bit position hash, as in game tree
+ * search: one slot per hash bucket, a new entry simply replaces whatever
+ * was there. Lookups and stores are an array index plus a key compare, and
+ * memory never grows past what the constructor allocated. Each entry holds
+ * width doubles. Not thread safe.
+ */
+class TranspositionTable {
+    private final long[] keys;   // 0 = empty slot
+    private final double[] values;
+    private final int width;
+    private final int mask;
+    private long hits;
+    private long misses;
+
+    TranspositionTable(int slots, int width) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slots must be a power of two: " + slots);
+        }
+        this.keys = new long[slots];
+        this.values = new double[slots * width];
+        this.width = width;
+        this.mask = slots - 1;
+    }
+
+    private static long nonZero(long key) {
+        return key == 0 ? 1 : key;
+    }
+
+    /** Copies the entry for key into out and returns true, or returns false if it is not cached. */
+    boolean get(long key, double[] out) {
+        key = nonZero(key);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        if (keys[slot] != key) {
+            misses++;
+            return false;
+        }
+        System.arraycopy(values, slot * width, out, 0, width);
+        hits++;
+        return true;
+    }
+
+    /** The single cached value for key, or NaN. For width 1 tables. */
+    double get(long key) {
+        key = nonZero(key);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        if (keys[slot] != key) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        return values[slot];
+    }
+
+    void put(long key, double[] entry) {
+        key = nonZero(key);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        keys[slot] = key;
+        System.arraycopy(entry, 0, values, slot * width, width);
+    }
+
+    void put(long key, double value) {
+        key = nonZero(key);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+}
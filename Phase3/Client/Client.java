@@ -2,12 +2,19 @@ package Client;
 
 import Enums.MessageType;
 import Enums.PlayerAction;
+import Message.BinaryCodec;
+import Message.FramedChannel;
+import Message.JavaSerialCodec;
 import Message.Message;
+import Message.MessageChannel;
+import Message.MessageCodec;
+import Message.ObjectStreamChannel;
 import Server.Account;
 import Server.Dealer;
 import Shared.CardView;
 import Shared.DealerView;
 import Shared.PlayerView;
+import Shared.TableDelta;
 import Shared.TableSnapshot;
 
 import java.io.IOException;
@@ -17,36 +24,54 @@ import java.net.Socket;
 import java.time.LocalDateTime;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 public class Client {
 
     private static String clientUUID;
 
-    private final ObjectOutputStream out;
-    private final ObjectInputStream in;
+    private final MessageChannel channel;
     private boolean connected;
     private GUI gui;
     private Account account;
     
-    private TableSnapshot currentSnapshot;
+    private volatile TableSnapshot currentSnapshot;
     private String currentTableId;
 
+    // Once subscribed, pushReader owns the socket: pushes go to tableListener,
+    // replies to our requests are handed over through responses
+    private volatile Thread pushReader;
+    private volatile Consumer<TableSnapshot> tableListener;
+    private final BlockingQueue<Message> responses = new LinkedBlockingQueue<>();
+    private static final Message CONNECTION_LOST =
+            new Message(null, MessageType.ERROR, "CLIENT", null, "Connection lost", null);
+
 
     public Client(ObjectOutputStream out, ObjectInputStream in) {
-        this.out = out;
-        this.in = in;
+        this(new ObjectStreamChannel(out, in));
+    }
+
+    public Client(MessageChannel channel) {
+        this.channel = channel;
     }
 
     public boolean isLoggedIn() {
         return account != null;
     }
     public boolean isConnected() {
-        return connected && out != null;
+        return connected && channel != null;
     }
 
     public Account getAccount() {
         return account;
     }
+
+    /** The codec agreed in the HELLO handshake; object streams are Java serialization. */
+    public MessageCodec getWireCodec() {
+        return channel instanceof FramedChannel framed ? framed.getCodec() : JavaSerialCodec.INSTANCE;
+    }
     public void setGUI(GUI gui) {
         this.gui = gui;
         if (gui != null) {
@@ -76,10 +101,9 @@ public class Client {
                     LocalDateTime.now()
             );
 
-            out.writeObject(loginMsg);
-            out.flush();
+            channel.send(loginMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             System.out.println(response.toString());
 
             if (response.getPayload() instanceof Account acc) {
@@ -108,10 +132,9 @@ public class Client {
                     LocalDateTime.now()
             );
 
-            out.writeObject(registerMsg);
-            out.flush();
+            channel.send(registerMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             System.out.println(response.toString());
 
             // if server returns an Account on successful register + auto login
@@ -145,10 +168,9 @@ public class Client {
                     LocalDateTime.now()
             );
 
-            out.writeObject(logoutMsg);
-            out.flush();
+            channel.send(logoutMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             System.out.println(response.toString());
 
             account = null;
@@ -160,12 +182,11 @@ public class Client {
 
     public void sendMessage(Message msg) {
         try {
-            if (out != null) {
-                out.writeObject(msg);
-                out.flush();
+            if (channel != null) {
+                channel.send(msg);
                 System.out.println("[Client] Sent: " + msg.getMessageType());
             } else {
-                System.err.println("[Client] Cannot send message: output stream is null");
+                System.err.println("[Client] Cannot send message: channel is null");
             }
         } catch (IOException e) {
             System.err.println("[Client] Error sending message: " + e.getMessage());
@@ -184,10 +205,9 @@ public class Client {
                         LocalDateTime.now()
                 );
 
-                out.writeObject(exitMsg);
-                out.flush();
+                channel.send(exitMsg);
 
-                Message response = (Message) in.readObject();
+                Message response = receive();
                 System.out.println(response.toString());
 
             } catch (IOException | ClassNotFoundException e) {
@@ -214,10 +234,9 @@ public class Client {
                     LocalDateTime.now()
             );
 
-            out.writeObject(depositMsg);
-            out.flush();
+            channel.send(depositMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
 
             if (response.getMessageType() == MessageType.OK) {
                 System.out.println("Deposit OK: " + response.getPayload());
@@ -257,10 +276,9 @@ public class Client {
                 LocalDateTime.now()
             );
 
-            out.writeObject(createTableMsg);
-            out.flush();
+            channel.send(createTableMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             System.out.println("Response to CREATE_TABLE: " + response.getMessageType());
 
             // Handle error first
@@ -274,9 +292,7 @@ public class Client {
             // Server's handleCreateTable sends OK with a TableSnapshot payload
             if (response.getMessageType() == MessageType.OK && payload instanceof TableSnapshot snapshot) {
                 // You can also store it in a field if you want
-                this.currentTableId = snapshot.getTableId();
-                this.currentSnapshot = snapshot;
-
+                absorbTableUpdate(snapshot);
                 return snapshot;
             }
 
@@ -303,11 +319,11 @@ public TableSnapshot joinTable(String tableId) {
         LocalDateTime.now()
     );
         sendMessage(joinMsg);
-        Message response = (Message) in.readObject();
+        Message response = receive();
         System.out.println(response.getPayload());
 
         if(response.getPayload() instanceof TableSnapshot tableSnapshot){
-            currentTableId = tableId;
+            absorbTableUpdate(tableSnapshot);
             return tableSnapshot;
         }
         throw new ClassNotFoundException("No table snapshot returned from server!");
@@ -333,10 +349,9 @@ public void leaveTable() {
                 LocalDateTime.now()
         );
 
-        out.writeObject(leaveMsg);
-        out.flush();
+        channel.send(leaveMsg);
 
-        Message response = (Message) in.readObject();
+        Message response = receive();
         System.out.println(response.getPayload());
 
         if (response.getMessageType() == MessageType.OK) {
@@ -368,10 +383,9 @@ public void leaveTable() {
                     LocalDateTime.now()
             );
 
-            out.writeObject(listMsg);
-            out.flush();
+            channel.send(listMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             
             if (response.getPayload() instanceof java.util.List) {
                 @SuppressWarnings("unchecked")
@@ -402,13 +416,12 @@ public void leaveTable() {
                     LocalDateTime.now()
             );
 
-            out.writeObject(betMsg);
-            out.flush();
+            channel.send(betMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             
-            if (response.getMessageType() == MessageType.TABLE_SNAPSHOT) {
-                TableSnapshot snapshot = (TableSnapshot) response.getPayload();
+            if (response.getMessageType() == MessageType.OK) {
+                absorbTableUpdate(response.getPayload());
                 // Update GUI if needed
                 System.out.println("Bet placed: $" + amount);
             }
@@ -434,14 +447,14 @@ public void leaveTable() {
                     LocalDateTime.now()
             );
 
-            out.writeObject(actionMsg);
-            out.flush();
+            channel.send(actionMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
 
-            if (response.getMessageType() == MessageType.TABLE_SNAPSHOT &&
+            if (response.getMessageType() == MessageType.OK &&
                     response.getPayload() instanceof TableSnapshot snapshot) {
 
+                absorbTableUpdate(snapshot);
                 return snapshot;
 
             } else if (response.getMessageType() == MessageType.ERROR) {
@@ -462,9 +475,7 @@ public void leaveTable() {
 
 
     public void handleTableSnapshot(TableSnapshot snapshot) {
-        this.currentSnapshot = snapshot;
-        this.currentTableId = snapshot.getTableId();
-
+        absorbTableUpdate(snapshot);
         displaySnapshot(snapshot);
     }
 
@@ -523,10 +534,9 @@ public void leaveTable() {
                     LocalDateTime.now()
             );
 
-            out.writeObject(start);
-            out.flush();
+            channel.send(start);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
             if(!(response.getPayload() instanceof TableSnapshot)){
                 System.out.println("A TableSnapshot was expected");
                 return;
@@ -553,10 +563,9 @@ public void leaveTable() {
                     LocalDateTime.now()
             );
 
-            out.writeObject(msg);
-            out.flush();
+            channel.send(msg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
 
             if (response.getMessageType() == MessageType.OK &&
                 response.getPayload() instanceof TableSnapshot snapshot) {
@@ -585,40 +594,230 @@ public void leaveTable() {
     //Snapshot helpers
 
     public TableSnapshot requestTableState() {
+        try {
+            // Tell the server which revision we hold so it can answer with a delta
+            TableSnapshot held = currentSnapshot;
+            Message response = sendTableStateRequest(held != null ? held.getRevision() : null);
+            return absorbTableReply(response, "REQUEST_TABLE_STATE");
+
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error in requestTableState: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Asks the server what basic strategy would do with our hand; null if it has no advice. */
+    public PlayerAction requestAdvice() {
         try {
             Message req = new Message(
                     UUID.randomUUID().toString(),
-                    MessageType.REQUEST_TABLE_STATE,
+                    MessageType.REQUEST_ADVICE,
                     clientUUID,
                     "SERVER",
                     null,
                     LocalDateTime.now()
             );
+            channel.send(req);
+            Message response = receive();
 
-            out.writeObject(req);
-            out.flush();
+            if (response.getMessageType() == MessageType.OK && response.getPayload() instanceof PlayerAction advice) {
+                return advice;
+            }
+            System.out.println("No advice: " + response.getPayload());
+            return null;
 
-            Message response = (Message) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error in requestAdvice: " + e.getMessage());
+            return null;
+        }
+    }
 
-            if (response.getMessageType() == MessageType.ERROR) {
-                System.out.println("Error requesting table state: " + response.getPayload());
-                return null;
-            }
+    /**
+     * Long-poll fallback for when a push stream is not an option: blocks
+     * until the table moves past the revision we hold (or the server gives
+     * up waiting, in which case nothing changed) and returns the current view.
+     */
+    public TableSnapshot waitForTableChange() {
+        TableSnapshot held = currentSnapshot;
+        if (held == null) {
+            return requestTableState();
+        }
 
-            Object payload = response.getPayload();
-            if (response.getMessageType() == MessageType.OK && payload instanceof TableSnapshot snapshot) {
-                // You can reuse your existing helper
-                handleTableSnapshot(snapshot);
-                return snapshot;
-            }
+        try {
+            Message waitMsg = new Message(
+                    UUID.randomUUID().toString(),
+                    MessageType.WAIT_TABLE_STATE,
+                    clientUUID,
+                    "SERVER",
+                    held.getRevision(),
+                    LocalDateTime.now()
+            );
+            channel.send(waitMsg);
+            return absorbTableReply(receive(), "WAIT_TABLE_STATE");
+
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error in waitForTableChange: " + e.getMessage());
+            return null;
+        }
+    }
 
-            System.out.println("Unexpected response to REQUEST_TABLE_STATE: " + response);
+    // Folds an OK table view reply in, asking for a full snapshot if it was a delta we cannot apply
+    private TableSnapshot absorbTableReply(Message response, String request) throws IOException, ClassNotFoundException {
+        if (response.getMessageType() == MessageType.ERROR) {
+            System.out.println("Error on " + request + ": " + response.getPayload());
             return null;
+        }
 
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error in requestTableState: " + e.getMessage());
+        TableSnapshot merged = response.getMessageType() == MessageType.OK
+                ? absorbTableUpdate(response.getPayload())
+                : null;
+        if (merged == null && response.getPayload() instanceof TableDelta) {
+            // delta was not against what we hold, ask for everything
+            response = sendTableStateRequest(null);
+            merged = absorbTableUpdate(response.getPayload());
+        }
+        if (merged == null) {
+            System.out.println("Unexpected response to " + request + ": " + response);
             return null;
         }
+
+        displaySnapshot(merged);
+        return merged;
+    }
+
+    private Message sendTableStateRequest(Long heldRevision) throws IOException, ClassNotFoundException {
+        Message req = new Message(
+                UUID.randomUUID().toString(),
+                MessageType.REQUEST_TABLE_STATE,
+                clientUUID,
+                "SERVER",
+                heldRevision,
+                LocalDateTime.now()
+        );
+        channel.send(req);
+        return receive();
+    }
+
+    /**
+     * Folds a table update (full TableSnapshot or TableDelta) into currentSnapshot.
+     * Returns the resulting snapshot, or null if it was a delta against a
+     * revision we do not hold. Updates older than what we hold (a reply the
+     * push reader already folded in) leave currentSnapshot alone.
+     */
+    private synchronized TableSnapshot absorbTableUpdate(Object payload) {
+        TableSnapshot held = currentSnapshot;
+        if (payload instanceof TableSnapshot snapshot) {
+            if (held != null && held.getTableId().equals(snapshot.getTableId())
+                    && snapshot.getRevision() < held.getRevision()) {
+                return held;
+            }
+            currentSnapshot = snapshot;
+            currentTableId = snapshot.getTableId();
+            return snapshot;
+        }
+        if (payload instanceof TableDelta delta) {
+            if (held != null && held.getTableId().equals(delta.getTableId())
+                    && delta.getRevision() <= held.getRevision()) {
+                return held;
+            }
+            TableSnapshot merged = delta.applyTo(held);
+            if (merged != null) {
+                currentSnapshot = merged;
+            }
+            return merged;
+        }
+        return null;
+    }
+
+    /* =========================
+       Push subscription
+       ========================= */
+
+    /**
+     * Asks the server to push table changes instead of being polled. Starts a
+     * reader thread that owns the socket from then on: TABLE_SNAPSHOT and
+     * TABLE_DELTA pushes are folded into the current snapshot and handed to
+     * the listener (on the reader thread), everything else is passed back to
+     * the request methods as their reply.
+     */
+    public synchronized void subscribe(Consumer<TableSnapshot> listener) {
+        tableListener = listener;
+        if (pushReader == null) {
+            Thread reader = new Thread(this::readLoop, "ClientPushReader");
+            reader.setDaemon(true);
+            pushReader = reader;
+            reader.start();
+        }
+        sendSubscribe();
+    }
+
+    public boolean isSubscribed() {
+        return pushReader != null;
+    }
+
+    // No reply: the server's first push is the ack, and a repeat forces a full snapshot
+    private void sendSubscribe() {
+        sendMessage(new Message(
+                UUID.randomUUID().toString(),
+                MessageType.SUBSCRIBE,
+                clientUUID,
+                "SERVER",
+                null,
+                LocalDateTime.now()
+        ));
+    }
+
+    private void readLoop() {
+        try {
+            while (true) {
+                Message msg = channel.receive();
+                MessageType type = msg.getMessageType();
+                if (type == MessageType.TABLE_SNAPSHOT || type == MessageType.TABLE_DELTA) {
+                    onTablePush(msg.getPayload());
+                } else {
+                    // Fold table views in arrival order so the pushes behind them apply
+                    if (type == MessageType.OK) {
+                        absorbTableUpdate(msg.getPayload());
+                    }
+                    responses.add(msg);
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("[Client] Push reader stopped: " + e.getMessage());
+        } finally {
+            responses.add(CONNECTION_LOST);
+        }
+    }
+
+    private void onTablePush(Object payload) {
+        TableSnapshot merged = absorbTableUpdate(payload);
+        if (merged == null) {
+            // We missed an update; subscribing again gets a full snapshot
+            sendSubscribe();
+            return;
+        }
+        Consumer<TableSnapshot> listener = tableListener;
+        if (listener != null) {
+            listener.accept(merged);
+        }
+    }
+
+    // Next reply from the server, read directly or handed over by the push reader
+    private Message receive() throws IOException, ClassNotFoundException {
+        if (pushReader == null) {
+            return channel.receive();
+        }
+        try {
+            Message msg = responses.take();
+            if (msg == CONNECTION_LOST) {
+                responses.add(CONNECTION_LOST); // every later caller fails too
+                throw new IOException("Connection lost");
+            }
+            return msg;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for server reply");
+        }
     }
 
     public void playerHit(){
@@ -634,7 +833,7 @@ public void leaveTable() {
 
         sendMessage(playerHitMsg);
 
-        Message response = (Message) in.readObject();
+        Message response = receive();
 
         if(response.getMessageType() == MessageType.OK){
             requestTableState();
@@ -660,7 +859,7 @@ public void leaveTable() {
 
             sendMessage(listMsg);
 
-            Message response = (Message) in.readObject();
+            Message response = receive();
 
             if (response.getMessageType() == MessageType.OK &&
                 response.getPayload() instanceof java.util.List<?> rawList) {
@@ -694,6 +893,27 @@ public void leaveTable() {
     }
 
 
+    /**
+     * Opens the transport matching the server mode: frames for NIO (binary
+     * codec if the server agrees), object streams otherwise.
+     */
+    public static MessageChannel openChannel(Socket socket, boolean framed) throws IOException {
+        if (framed) {
+            FramedChannel channel = new FramedChannel(socket);
+            try {
+                MessageCodec codec = channel.handshake(BinaryCodec.INSTANCE, JavaSerialCodec.INSTANCE);
+                System.out.println("[Client] Using " + codec.getName() + " wire codec");
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Bad handshake response", e);
+            }
+            return channel;
+        }
+        ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+        out.flush();
+        ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+        return new ObjectStreamChannel(out, in);
+    }
+
     /* =========================
        Main entry point
        ========================= */
@@ -706,15 +926,14 @@ public void leaveTable() {
         // int port = sc.nextInt();
         // sc.nextLine(); // flush
 
-        try (Socket socket = new Socket("localhost", 8080)) {
+        // Pass "nio" when the server was started in NIO mode (framed protocol)
+        boolean framed = args.length > 0 && args[0].equalsIgnoreCase("nio");
 
-            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-            out.flush();
-            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+        try (Socket socket = new Socket("localhost", 8080)) {
 
             System.out.println("\nConnection successful.");
 
-            Client client = new Client(out, in);
+            Client client = new Client(openChannel(socket, framed));
             Menu menu = new Menu(client);
 
             // Hand all interaction to the menu.
@@ -22,7 +22,6 @@ public class GUI {
     
 
 
-    private javax.swing.Timer autoRefreshTimer;
 
     private JFrame frame;
     private JPanel rootPanel;
@@ -38,7 +37,6 @@ public class GUI {
         tableModel = new DefaultListModel<>();
         tableList = new JList<>(tableModel);
         initFrame();
-        startAutoRefresh();
         showLoginScreen();
     }
 
@@ -65,6 +63,7 @@ public class GUI {
     public void displayTable(TableSnapshot snapshot) {
         currentScreen = "TABLE";
         inTableMode = true;
+        listenForTableUpdates();
         rootPanel.removeAll();
         rootPanel.setLayout(new BoxLayout(rootPanel, BoxLayout.Y_AXIS));
 
@@ -546,30 +545,21 @@ public class GUI {
         System.out.println("Shutting down GUI");
     }
 
-    /** Starts a Swing timer that refreshes the table while we are on the TABLE screen. */
-    private void startAutoRefresh() {
-        // Avoid starting multiple timers
-        if (autoRefreshTimer != null && autoRefreshTimer.isRunning()) {
+    /**
+     * Has the server push table changes to us instead of polling it every
+     * second. Pushes arrive on the client's reader thread, so hop to the EDT
+     * and only redraw while we are still looking at the table.
+     */
+    private void listenForTableUpdates() {
+        if (client == null || client.isSubscribed()) {
             return;
         }
 
-        autoRefreshTimer = new javax.swing.Timer(1000, e -> {
-            // Only refresh when we are actually viewing a table
-            if (!"TABLE".equals(currentScreen)) {
-                return;
-            }
-
-            if (client == null) {
-                return;
-            }
-
-            TableSnapshot snap = client.requestTableState();
-            if (snap != null) {
+        client.subscribe(snap -> SwingUtilities.invokeLater(() -> {
+            if ("TABLE".equals(currentScreen)) {
                 displayTable(snap);
             }
-        });
-
-        autoRefreshTimer.start();
+        }));
     }
 
 
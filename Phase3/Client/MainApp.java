@@ -1,11 +1,29 @@
 package Client;
 
 import javax.swing.*;
+import java.io.IOException;
 import java.net.Socket;
 
 public class MainApp {
 
+    /**
+     * Connects to the server the way it was started: framed is for a server
+     * in NIO mode, where the codec is agreed in the HELLO handshake (see
+     * Client.openChannel); otherwise plain object streams.
+     */
+    public static Client connect(String ip, int port, boolean framed) throws IOException {
+        Socket socket = new Socket(ip, port);
+        try {
+            return new Client(Client.openChannel(socket, framed));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Usage: MainApp [nio]  (pass "nio" when the server was started in NIO mode)
     public static void main(String[] args) {
+        boolean framed = args.length > 0 && args[0].equalsIgnoreCase("nio");
 
         // Ask for mode
         String[] options = {"GUI Mode", "Console Mode"};
@@ -58,15 +76,7 @@ public class MainApp {
         if (mode == 1) {
             // ------------------ CONSOLE MODE ------------------
             try {
-                Socket socket = new Socket("192.168.56.1", port);
-
-                java.io.ObjectOutputStream out =
-                        new java.io.ObjectOutputStream(socket.getOutputStream());
-                out.flush();
-                java.io.ObjectInputStream in =
-                        new java.io.ObjectInputStream(socket.getInputStream());
-
-                Client client = new Client(out, in);
+                Client client = connect(ip, port, framed);
                 Menu menu = new Menu(client);
                 menu.displayMainMenu();
 
@@ -79,16 +89,10 @@ public class MainApp {
 
         // ------------------ GUI MODE ------------------
         try {
-            Socket socket = new Socket(ip, port);
-
-            java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(socket.getOutputStream());
-            out.flush();
-            java.io.ObjectInputStream in = new java.io.ObjectInputStream(socket.getInputStream());
-
-            System.out.println("Connected to server on port " + port);
-
             // Create client for GUI
-            Client client = new Client(out, in);
+            Client client = connect(ip, port, framed);
+            System.out.println("Connected to server on port " + port
+                    + " (" + client.getWireCodec().getName() + " codec)");
 
             // Launch GUI
             GUI gui = new GUI(client);
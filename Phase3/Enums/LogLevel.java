@@ -0,0 +1,11 @@
+package Enums;
+
+// Severity of a server log line; a category logs its level and everything above it
+public enum LogLevel {
+    TRACE,
+    DEBUG,  // per-message traffic (received/sent), off by default
+    INFO,   // connections, logins, table lifecycle
+    WARN,
+    ERROR,
+    OFF
+}
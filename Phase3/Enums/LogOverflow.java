@@ -0,0 +1,7 @@
+package Enums;
+
+// What UserLogger.log does when its ring buffer is full (blackjack.userLog.overflow)
+public enum LogOverflow {
+    BLOCK,  // wait for the writer to make room; nothing is lost
+    DROP    // discard the event and count it; the caller never waits
+}
@@ -22,4 +22,9 @@ public enum MessageType {
     REQUEST_TABLE_STATE,
     START,
     NEXT_ROUND,   
+    HELLO,          // framed connections only: negotiate the wire codec
+    TABLE_DELTA,    // pushed TableDelta against the last table view sent
+    SUBSCRIBE,      // start pushing table views to this connection
+    WAIT_TABLE_STATE, // long-poll: reply once the table moves past the given revision
+    REQUEST_ADVICE,   // basic strategy action for the sender's hand at their table
 }
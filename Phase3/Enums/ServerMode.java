@@ -0,0 +1,8 @@
+package Enums;
+
+// How the server accepts and runs client connections (first command line argument)
+public enum ServerMode {
+    THREADS,    // blocking ClientHandler per connection on a fixed pool
+    VIRTUAL,    // blocking ClientHandler per connection on its own virtual thread
+    NIO         // selector based reactor, length-prefixed frames
+}
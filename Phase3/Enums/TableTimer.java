@@ -0,0 +1,7 @@
+package Enums;
+
+// Per-table deadlines kept by TableScheduler; at most one of each kind per table
+public enum TableTimer {
+    AUTO_START,     // start the round once the first player has waited long enough
+    TURN_TIMEOUT    // stand the current player if they have not acted in time
+}
@@ -0,0 +1,470 @@
+package Message;
+
+import Enums.GameState;
+import Enums.MessageType;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Shared.CardView;
+import Shared.DealerView;
+import Shared.PlayerView;
+import Shared.TableDelta;
+import Shared.TableSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact hand-written layout for Message and the payloads the game sends
+ * on every round trip (credentials, bets, actions, table snapshots and deltas).
+ * Anything else falls back to Java serialization inside the frame.
+ *
+ * Layout: version, type, id, sender, recipient, timestamp, payload tag + payload.
+ * Strings are a presence byte plus modified UTF-8. A UUID message id is
+ * sent as two longs, the timestamp as UTC epoch seconds plus nanos.
+ *
+ * Decoding trusts nothing read off the wire: enum indexes, timestamps and
+ * every count or length are checked (lengths against the bytes left in the
+ * frame) and a bad value is an IOException, never a runtime exception or a
+ * huge allocation.
+ */
+public class BinaryCodec implements MessageCodec {
+    public static final BinaryCodec INSTANCE = new BinaryCodec();
+    public static final String NAME = "binary";
+
+    private static final byte VERSION = 2;
+
+    // message id kinds
+    private static final byte ID_NULL = 0;
+    private static final byte ID_UUID = 1;
+    private static final byte ID_STRING = 2;
+
+    // payload tags
+    private static final byte P_NULL = 0;
+    private static final byte P_STRING = 1;
+    private static final byte P_STRING_ARRAY = 2;
+    private static final byte P_DOUBLE = 3;
+    private static final byte P_PLAYER_ACTION = 4;
+    private static final byte P_TABLE_SNAPSHOT = 5;
+    private static final byte P_STRING_LIST = 6;
+    private static final byte P_LONG = 7;
+    private static final byte P_TABLE_DELTA = 8;
+    private static final byte P_JAVA = 127;
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final PlayerAction[] ACTIONS = PlayerAction.values();
+    private static final GameState[] STATES = GameState.values();
+    private static final Rank[] RANKS = Rank.values();
+    private static final Suit[] SUITS = Suit.values();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Message msg) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buf);
+
+        out.writeByte(VERSION);
+        out.writeByte(msg.getMessageType() == null ? -1 : msg.getMessageType().ordinal());
+        writeId(out, msg.getMessageID());
+        writeString(out, msg.getSender());
+        writeString(out, msg.getRecipient());
+
+        LocalDateTime time = msg.getTimestamp();
+        if (time == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+
+        writePayload(out, msg.getPayload());
+        out.flush();
+        return buf.toByteArray();
+    }
+
+    @Override
+    public Message decode(byte[] body, int offset, int length) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, offset, length));
+
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary message version " + version);
+        }
+        byte typeIndex = in.readByte();
+        MessageType type = typeIndex < 0 ? null : valueAt(MESSAGE_TYPES, typeIndex, "message type");
+        String id = readId(in);
+        String sender = readString(in);
+        String recipient = readString(in);
+
+        LocalDateTime time = null;
+        if (in.readBoolean()) {
+            long seconds = in.readLong();
+            int nanos = in.readInt();
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw new IOException("Bad timestamp nanos " + nanos);
+            }
+            try {
+                time = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            } catch (DateTimeException e) {
+                throw new IOException("Bad timestamp seconds " + seconds, e);
+            }
+        }
+
+        Object payload = readPayload(in);
+        return new Message(id, type, sender, recipient, payload, time);
+    }
+
+    /* =========================
+       Envelope helpers
+       ========================= */
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        if (id == null) {
+            out.writeByte(ID_NULL);
+            return;
+        }
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            out.writeUTF(id);
+        }
+    }
+
+    private static String readId(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case ID_NULL:
+                return null;
+            case ID_UUID:
+                return new UUID(in.readLong(), in.readLong()).toString();
+            case ID_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown message id kind " + kind);
+        }
+    }
+
+    // Only ids that round trip exactly are packed, anything else is sent as text
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /* =========================
+       Payloads
+       ========================= */
+
+    private static void writePayload(DataOutputStream out, Object payload) throws IOException {
+        if (payload == null) {
+            out.writeByte(P_NULL);
+        } else if (payload instanceof String s) {
+            out.writeByte(P_STRING);
+            out.writeUTF(s);
+        } else if (payload instanceof String[] arr && arr.length <= 0xFFFF) {
+            out.writeByte(P_STRING_ARRAY);
+            out.writeShort(arr.length);
+            for (String s : arr) {
+                writeString(out, s);
+            }
+        } else if (payload instanceof Double d) {
+            out.writeByte(P_DOUBLE);
+            out.writeDouble(d);
+        } else if (payload instanceof Long l) {
+            out.writeByte(P_LONG);
+            out.writeLong(l);
+        } else if (payload instanceof PlayerAction action) {
+            out.writeByte(P_PLAYER_ACTION);
+            out.writeByte(action.ordinal());
+        } else if (payload instanceof TableSnapshot snap) {
+            out.writeByte(P_TABLE_SNAPSHOT);
+            writeSnapshot(out, snap);
+        } else if (payload instanceof TableDelta delta) {
+            out.writeByte(P_TABLE_DELTA);
+            writeDelta(out, delta);
+        } else if (payload instanceof List<?> list && isStringList(list)) {
+            out.writeByte(P_STRING_LIST);
+            out.writeShort(list.size());
+            for (Object o : list) {
+                out.writeUTF((String) o);
+            }
+        } else if (payload instanceof Serializable) {
+            out.writeByte(P_JAVA);
+            byte[] blob = serialize(payload);
+            out.writeInt(blob.length);
+            out.write(blob);
+        } else {
+            throw new IOException("Payload is not encodable: " + payload.getClass().getName());
+        }
+    }
+
+    private static Object readPayload(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case P_NULL:
+                return null;
+            case P_STRING:
+                return in.readUTF();
+            case P_STRING_ARRAY: {
+                String[] arr = new String[checkCount(in, in.readUnsignedShort(), 1)];
+                for (int i = 0; i < arr.length; i++) {
+                    arr[i] = readString(in);
+                }
+                return arr;
+            }
+            case P_DOUBLE:
+                return in.readDouble();
+            case P_LONG:
+                return in.readLong();
+            case P_PLAYER_ACTION:
+                return valueAt(ACTIONS, in.readByte(), "player action");
+            case P_TABLE_SNAPSHOT:
+                return readSnapshot(in);
+            case P_TABLE_DELTA:
+                return readDelta(in);
+            case P_STRING_LIST: {
+                int size = checkCount(in, in.readUnsignedShort(), 2);
+                List<String> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(in.readUTF());
+                }
+                return list;
+            }
+            case P_JAVA: {
+                byte[] blob = new byte[checkCount(in, in.readInt(), 1)];
+                in.readFully(blob);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(blob))) {
+                    return ois.readObject();
+                }
+            }
+            default:
+                throw new IOException("Unknown payload tag " + tag);
+        }
+    }
+
+    /*
+     * A count or length read off the wire, checked against what is left of the
+     * frame given that each item takes at least minBytes: a bad one fails here
+     * instead of allocating for it.
+     */
+    private static int checkCount(DataInputStream in, int count, int minBytes) throws IOException {
+        if (count < 0 || (long) count * minBytes > in.available()) {
+            throw new IOException("Bad length " + count + " with " + in.available() + " bytes left");
+        }
+        return count;
+    }
+
+    private static <T> T valueAt(T[] values, int index, String what) throws IOException {
+        if (index < 0 || index >= values.length) {
+            throw new IOException("Unknown " + what + " " + index);
+        }
+        return values[index];
+    }
+
+    private static boolean isStringList(List<?> list) {
+        if (list.size() > 0xFFFF) {
+            return false;
+        }
+        for (Object o : list) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] serialize(Object payload) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(buf)) {
+            oos.writeObject(payload);
+        }
+        return buf.toByteArray();
+    }
+
+    /* =========================
+       Table views
+       ========================= */
+
+    private static void writeSnapshot(DataOutputStream out, TableSnapshot snap) throws IOException {
+        writeString(out, snap.getTableId());
+        out.writeLong(snap.getRevision());
+        writeState(out, snap.getState());
+        writeString(out, snap.getCurrentPlayerUsername());
+        writeDealer(out, snap.getDealerView());
+        writePlayers(out, snap.getPlayers());
+    }
+
+    private static TableSnapshot readSnapshot(DataInputStream in) throws IOException {
+        String tableId = readString(in);
+        long revision = in.readLong();
+        GameState state = readState(in);
+        String currentPlayer = readString(in);
+        DealerView dealer = readDealer(in);
+        List<PlayerView> players = readPlayers(in);
+        return new TableSnapshot(tableId, state, currentPlayer, dealer, players, revision);
+    }
+
+    private static void writeDelta(DataOutputStream out, TableDelta delta) throws IOException {
+        writeString(out, delta.getTableId());
+        out.writeLong(delta.getBaseRevision());
+        out.writeLong(delta.getRevision());
+        writeState(out, delta.getState());
+        out.writeBoolean(delta.isTurnChanged());
+        writeString(out, delta.getCurrentPlayerUsername());
+        writeDealer(out, delta.getDealerView());
+        writePlayers(out, delta.getChangedPlayers());
+        out.writeByte(delta.getRemovedPlayers().size());
+        for (String username : delta.getRemovedPlayers()) {
+            writeString(out, username);
+        }
+    }
+
+    private static TableDelta readDelta(DataInputStream in) throws IOException {
+        String tableId = readString(in);
+        long baseRevision = in.readLong();
+        long revision = in.readLong();
+        GameState state = readState(in);
+        boolean turnChanged = in.readBoolean();
+        String currentPlayer = readString(in);
+        DealerView dealer = readDealer(in);
+        List<PlayerView> changed = readPlayers(in);
+        int removedCount = checkCount(in, in.readByte(), 1);
+        List<String> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(readString(in));
+        }
+        return new TableDelta(tableId, baseRevision, revision, state, turnChanged, currentPlayer,
+                dealer, changed, removed);
+    }
+
+    private static void writeState(DataOutputStream out, GameState state) throws IOException {
+        out.writeByte(state == null ? -1 : state.ordinal());
+    }
+
+    private static GameState readState(DataInputStream in) throws IOException {
+        byte index = in.readByte();
+        return index < 0 ? null : valueAt(STATES, index, "game state");
+    }
+
+    private static void writeDealer(DataOutputStream out, DealerView dealer) throws IOException {
+        out.writeBoolean(dealer != null);
+        if (dealer != null) {
+            out.writeBoolean(dealer.hasHiddenCard());
+            writeCards(out, dealer.getCards());
+        }
+    }
+
+    private static DealerView readDealer(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        boolean hasHidden = in.readBoolean();
+        return new DealerView(readCards(in), hasHidden);
+    }
+
+    private static void writePlayers(DataOutputStream out, List<PlayerView> players) throws IOException {
+        out.writeByte(players == null ? -1 : players.size());
+        if (players == null) {
+            return;
+        }
+        for (PlayerView pv : players) {
+            writeString(out, pv.getUsername());
+            out.writeDouble(pv.getBetAmount());
+            out.writeShort(pv.getHandValue());
+            int flags = (pv.isActive() ? 1 : 0) | (pv.isYou() ? 2 : 0) | (pv.isYourTurn() ? 4 : 0);
+            out.writeByte(flags);
+            out.writeDouble(pv.getBalance());
+            writeCards(out, pv.getCards());
+        }
+    }
+
+    private static List<PlayerView> readPlayers(DataInputStream in) throws IOException {
+        int count = in.readByte();
+        if (count < 0) {
+            return null;
+        }
+        List<PlayerView> players = new ArrayList<>(checkCount(in, count, 21));
+        for (int i = 0; i < count; i++) {
+            String username = readString(in);
+            double bet = in.readDouble();
+            int handValue = in.readShort();
+            int flags = in.readByte();
+            double balance = in.readDouble();
+            List<CardView> cards = readCards(in);
+            players.add(new PlayerView(username, bet, handValue,
+                    (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, cards, balance));
+        }
+        return players;
+    }
+
+    // One byte per card: rank (4 bits), suit (2 bits), hidden (1 bit). 0xFF = unknown card
+    private static void writeCards(DataOutputStream out, List<CardView> cards) throws IOException {
+        out.writeByte(cards == null ? -1 : cards.size());
+        if (cards == null) {
+            return;
+        }
+        for (CardView cv : cards) {
+            if (cv.getRank() == null || cv.getSuit() == null) {
+                out.writeByte(0xFF);
+            } else {
+                out.writeByte((cv.getRank().ordinal() << 3) | (cv.getSuit().ordinal() << 1) | (cv.isHidden() ? 1 : 0));
+            }
+        }
+    }
+
+    private static List<CardView> readCards(DataInputStream in) throws IOException {
+        int count = in.readByte();
+        if (count < 0) {
+            return null;
+        }
+        List<CardView> cards = new ArrayList<>(checkCount(in, count, 1));
+        for (int i = 0; i < count; i++) {
+            int b = in.readUnsignedByte();
+            if (b == 0xFF) {
+                cards.add(new CardView(null, null, false));
+            } else {
+                cards.add(new CardView(valueAt(RANKS, b >>> 3, "rank"), SUITS[(b >>> 1) & 3], (b & 1) != 0));
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,54 @@
+package Message;
+
+import java.io.IOException;
+
+/**
+ * Length-prefixed framing used by the non-blocking server.
+ * A frame is a 4 byte big-endian body length followed by the body, where
+ * the body is one Message encoded by the connection's MessageCodec.
+ * Every frame is self-contained so a reader can decode it as soon as
+ * all of its bytes have arrived.
+ *
+ * A connection starts out with JavaSerialCodec. The client may open with
+ * a HELLO frame listing the codecs it speaks, best first; the server
+ * answers OK with the name it picked and both sides switch after that frame.
+ */
+public final class FrameCodec {
+    public static final int HEADER_BYTES = 4;
+    public static final int MAX_FRAME_BYTES = 1 << 20; // 1 MB, anything bigger is a broken peer
+
+    private FrameCodec() {
+    }
+
+    /** Encodes the message as a complete frame (header + body). */
+    public static byte[] encode(Message msg, MessageCodec codec) throws IOException {
+        byte[] body = codec.encode(msg);
+        int bodyLength = body.length;
+        if (bodyLength > MAX_FRAME_BYTES) {
+            throw new IOException("Frame too large: " + bodyLength + " bytes");
+        }
+        byte[] frame = new byte[HEADER_BYTES + bodyLength];
+        frame[0] = (byte) (bodyLength >>> 24);
+        frame[1] = (byte) (bodyLength >>> 16);
+        frame[2] = (byte) (bodyLength >>> 8);
+        frame[3] = (byte) bodyLength;
+        System.arraycopy(body, 0, frame, HEADER_BYTES, bodyLength);
+        return frame;
+    }
+
+    /** Decodes a frame body (without the length header). */
+    public static Message decode(byte[] body, int offset, int length, MessageCodec codec) throws IOException, ClassNotFoundException {
+        return codec.decode(body, offset, length);
+    }
+
+    /** Codec for a handshake name, or null if this side does not speak it. */
+    public static MessageCodec codecFor(String name) {
+        if (BinaryCodec.NAME.equalsIgnoreCase(name)) {
+            return BinaryCodec.INSTANCE;
+        }
+        if (JavaSerialCodec.NAME.equalsIgnoreCase(name)) {
+            return JavaSerialCodec.INSTANCE;
+        }
+        return null;
+    }
+}
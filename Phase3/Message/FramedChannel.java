@@ -0,0 +1,78 @@
+package Message;
+
+import Enums.MessageType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Blocking client side of the length-prefixed frame protocol spoken by
+ * the non-blocking server (see FrameCodec).
+ */
+public class FramedChannel implements MessageChannel {
+    private final Socket socket;
+    private final OutputStream out;
+    private final DataInputStream in;
+    private volatile MessageCodec codec = JavaSerialCodec.INSTANCE;
+
+    public FramedChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    /**
+     * Offers the given codecs (best first) to the server and switches to the
+     * one it accepts. Must be the first exchange on the connection.
+     * Falls back to Java serialization if the server declines.
+     */
+    public MessageCodec handshake(MessageCodec... preferred) throws IOException, ClassNotFoundException {
+        String[] names = new String[preferred.length];
+        for (int i = 0; i < preferred.length; i++) {
+            names[i] = preferred[i].getName();
+        }
+        send(new Message(UUID.randomUUID().toString(), MessageType.HELLO, "CLIENT", "SERVER",
+                names, LocalDateTime.now()));
+
+        Message response = receive();
+        MessageCodec chosen = null;
+        if (response.getMessageType() == MessageType.OK && response.getPayload() instanceof String name) {
+            chosen = FrameCodec.codecFor(name);
+        }
+        codec = chosen != null ? chosen : JavaSerialCodec.INSTANCE;
+        return codec;
+    }
+
+    public MessageCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public void send(Message msg) throws IOException {
+        synchronized (out) {
+            out.write(FrameCodec.encode(msg, codec));
+            out.flush();
+        }
+    }
+
+    @Override
+    public Message receive() throws IOException, ClassNotFoundException {
+        int length = in.readInt();
+        if (length < 0 || length > FrameCodec.MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return FrameCodec.decode(body, 0, length, codec);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
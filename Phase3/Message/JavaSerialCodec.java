@@ -0,0 +1,37 @@
+package Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Frame body is one Message written with its own ObjectOutputStream.
+ * Handles any Serializable payload, so it is the default and the fallback.
+ */
+public class JavaSerialCodec implements MessageCodec {
+    public static final JavaSerialCodec INSTANCE = new JavaSerialCodec();
+    public static final String NAME = "java";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Message msg) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream oos = new ObjectOutputStream(buf)) {
+            oos.writeObject(msg);
+        }
+        return buf.toByteArray();
+    }
+
+    @Override
+    public Message decode(byte[] body, int offset, int length) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(body, offset, length))) {
+            return (Message) ois.readObject();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Blocking, ordered transport for Messages between a client and the server.
+ * Implementations decide how a Message is laid out on the wire.
+ */
+public interface MessageChannel extends Closeable {
+
+    void send(Message msg) throws IOException;
+
+    Message receive() throws IOException, ClassNotFoundException;
+}
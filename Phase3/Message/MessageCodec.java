@@ -0,0 +1,17 @@
+package Message;
+
+import java.io.IOException;
+
+/**
+ * Turns a Message into a frame body and back. The codec for a framed
+ * connection is agreed on in the HELLO handshake (see FramedChannel).
+ */
+public interface MessageCodec {
+
+    /** Name exchanged during the handshake, e.g. "java" or "binary". */
+    String getName();
+
+    byte[] encode(Message msg) throws IOException;
+
+    Message decode(byte[] body, int offset, int length) throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,38 @@
+package Message;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Original transport: one long-lived ObjectOutputStream/ObjectInputStream
+ * pair per socket. Used by the thread-per-connection server.
+ */
+public class ObjectStreamChannel implements MessageChannel {
+    private final ObjectOutputStream out;
+    private final ObjectInputStream in;
+
+    public ObjectStreamChannel(ObjectOutputStream out, ObjectInputStream in) {
+        this.out = out;
+        this.in = in;
+    }
+
+    @Override
+    public void send(Message msg) throws IOException {
+        synchronized (out) {
+            out.writeObject(msg);
+            out.flush();
+        }
+    }
+
+    @Override
+    public Message receive() throws IOException, ClassNotFoundException {
+        return (Message) in.readObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        in.close();
+    }
+}
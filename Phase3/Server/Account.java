@@ -2,11 +2,15 @@ package Server;
 
 import Enums.AccState;
 import java.io.Serializable;
+import java.util.function.Consumer;
 
 public abstract class Account implements Serializable, IUser {
     protected String username, password;
-    protected boolean sessionActive;
+    protected volatile boolean sessionActive; // flipped by login/logout on any handler thread
     protected AccState accountState;
+    // Told about balance and state changes so the account store can journal them; never sent to clients
+    private transient Consumer<Account> changeListener;
+    transient int ledgerSlot = -1; // this account's record in the balance ledger, set by LoginManager
     
     @Override
     public String toString() {
@@ -23,6 +27,22 @@ public abstract class Account implements Serializable, IUser {
         return accountState;
     }
 
+    public void setAccState(AccState state) {
+        accountState = state;
+        changed();
+    }
+
+    void setChangeListener(Consumer<Account> listener) {
+        changeListener = listener;
+    }
+
+    protected void changed() {
+        Consumer<Account> listener = changeListener;
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
     @Override
     public boolean isSessionActive() {
         return sessionActive;
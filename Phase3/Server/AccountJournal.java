@@ -0,0 +1,221 @@
+package Server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only log of account changes, one text record per line, kept next
+ * to the account snapshot file. Appends from any thread are queued; one
+ * writer thread writes everything that has queued up, forces it to disk
+ * once and then completes every append in that batch (group commit), so a
+ * burst of N registrations costs one fsync rather than N.
+ *
+ * A record is durable once the future returned by append() completes. A
+ * crash can at worst leave a torn last line, which readRecords() drops.
+ */
+public class AccountJournal implements Closeable {
+    private static final Log log = Log.get("AccountJournal");
+    private static final int MAX_BATCH = 1024;
+
+    private final Path path;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private FileChannel channel; // writer thread only
+    private volatile boolean closed;
+
+    // A queued record, or a control request when record is null
+    private static class Pending {
+        final String record;
+        final Path rotateTo;
+        final boolean close;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(String record, Path rotateTo, boolean close) {
+            this.record = record;
+            this.rotateTo = rotateTo;
+            this.close = close;
+        }
+    }
+
+    public AccountJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = open(path);
+        this.writer = new Thread(this::writeLoop, "AccountJournal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /** Queues one record; the future completes once it is on disk. */
+    public CompletableFuture<Void> append(String record) {
+        if (record.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Journal records are single lines");
+        }
+        records.incrementAndGet();
+        return enqueue(new Pending(record, null, false));
+    }
+
+    /** Completes once everything appended before this call is on disk. */
+    public CompletableFuture<Void> sync() {
+        return enqueue(new Pending(null, null, false));
+    }
+
+    /**
+     * Moves the current journal to rotateTo and starts a fresh, empty one.
+     * Records appended before this call end up in rotateTo, later ones in
+     * the new file. Used by compaction.
+     */
+    public CompletableFuture<Void> rotate(Path rotateTo) {
+        return enqueue(new Pending(null, rotateTo, false));
+    }
+
+    /** Records appended since this journal was opened or last rotated. */
+    public long getRecordCount() {
+        return records.get();
+    }
+
+    /** How many times the writer has forced the file to disk. */
+    public long getSyncCount() {
+        return syncs.get();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        enqueue(new Pending(null, null, true)).join();
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Pending p) {
+        if (closed) {
+            p.done.completeExceptionally(new IOException("Journal closed"));
+            return p.done;
+        }
+        queue.add(p);
+        return p.done;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        List<Pending> written = new ArrayList<>(MAX_BATCH);
+        StringBuilder buf = new StringBuilder(4096);
+        try {
+            while (true) {
+                batch.clear();
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                for (Pending p : batch) {
+                    if (p.record != null || (p.rotateTo == null && !p.close)) {
+                        // a record, or a sync marker that rides on the next force
+                        if (p.record != null) {
+                            buf.append(p.record).append('\n');
+                        }
+                        written.add(p);
+                        continue;
+                    }
+
+                    // Control request: everything before it must be durable first
+                    flush(buf, written);
+                    if (p.close) {
+                        channel.close();
+                        p.done.complete(null);
+                        return;
+                    }
+                    channel.close();
+                    Files.move(path, p.rotateTo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    channel = open(path);
+                    records.set(0);
+                    p.done.complete(null);
+                }
+                flush(buf, written);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Write failed, journal stopped", e);
+            closed = true;
+            for (Pending p : written) {
+                p.done.completeExceptionally(e);
+            }
+            Pending p;
+            while ((p = queue.poll()) != null) {
+                p.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Writes the buffered records, forces them once, and completes their appends
+    private void flush(StringBuilder buf, List<Pending> written) throws IOException {
+        if (written.isEmpty()) {
+            return;
+        }
+        if (buf.length() > 0) {
+            ByteBuffer bytes = ByteBuffer.wrap(buf.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            buf.setLength(0);
+        }
+        channel.force(false);
+        syncs.incrementAndGet();
+        for (Pending p : written) {
+            p.done.complete(null);
+        }
+        written.clear();
+    }
+
+    /**
+     * Complete records in a journal file, oldest first. A last line without
+     * its newline was torn by a crash mid-write and is dropped.
+     */
+    public static List<String> readRecords(Path path) throws IOException {
+        List<String> out = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return out;
+        }
+        String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        int start = 0;
+        int nl;
+        while ((nl = text.indexOf('\n', start)) >= 0) {
+            String line = text.substring(start, nl);
+            if (!line.isEmpty()) {
+                out.add(line);
+            }
+            start = nl + 1;
+        }
+        if (start < text.length()) {
+            log.warn("Dropping torn record at end of {}", path.toString());
+        }
+        return out;
+    }
+}
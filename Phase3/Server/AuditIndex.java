@@ -0,0 +1,264 @@
+package Server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Index of one audit log segment: the time range it covers, a sparse block
+ * index (byte offset and time range of every BLOCK_LINES lines) and a bloom
+ * filter of the usernames in it. Lets AuditLog skip whole segments, and
+ * whole blocks inside a segment, without reading them.
+ *
+ * Block time ranges are true min/max values, so events that reach the file
+ * slightly out of order (timestamps are taken by the logging threads) are
+ * still found.
+ *
+ * While a segment is being written its usernames are kept as a set, and
+ * the bloom filter is sized from the number of distinct names when the
+ * index is written (about BLOOM_BITS_PER_USER bits each, a power of two),
+ * so a busy segment does not saturate it. The size is stored in the header;
+ * version 1 files always used 1 << 16 bits.
+ */
+public class AuditIndex {
+    static final int BLOCK_LINES = 256;
+    private static final int BLOOM_BITS_PER_USER = 10; // about 2% false positives with 3 hashes
+    private static final int MIN_BLOOM_BITS = 1 << 10;
+    private static final int MAX_BLOOM_BITS = 1 << 26;
+    private static final int V1_BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 3;
+    private static final int MAGIC = 0x424A4158; // "BJAX"
+    private static final int VERSION = 2;
+
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private long bytes;
+    private int lines;
+    private int blocks;
+    private long[] blockOffset = new long[16];
+    private long[] blockMin = new long[16];
+    private long[] blockMax = new long[16];
+    private Set<String> users = new HashSet<>(); // until the bloom filter is built
+    private long[] bloom;
+
+    /** Orderable key for a timestamp: nanoseconds of the local date-time. */
+    public static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    /** Records a line of length lineBytes that starts at the current end of the segment. */
+    void add(long time, String username, int lineBytes) {
+        if (lines % BLOCK_LINES == 0) {
+            if (blocks == blockOffset.length) {
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+                blockMin = Arrays.copyOf(blockMin, blocks * 2);
+                blockMax = Arrays.copyOf(blockMax, blocks * 2);
+            }
+            blockOffset[blocks] = bytes;
+            blockMin[blocks] = Long.MAX_VALUE;
+            blockMax[blocks] = Long.MIN_VALUE;
+            blocks++;
+        }
+        int b = blocks - 1;
+        blockMin[b] = Math.min(blockMin[b], time);
+        blockMax[b] = Math.max(blockMax[b], time);
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        if (users == null) {
+            throw new IllegalStateException("Index already written");
+        }
+        users.add(String.valueOf(username));
+        bytes += lineBytes;
+        lines++;
+    }
+
+    static int bloomBitsFor(int distinctUsers) {
+        long wanted = Math.max(MIN_BLOOM_BITS, (long) distinctUsers * BLOOM_BITS_PER_USER);
+        return (int) Math.min(MAX_BLOOM_BITS, Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    // Turns the username set into a bloom filter sized for it
+    private void buildBloom() {
+        if (bloom != null) {
+            return;
+        }
+        bloom = new long[bloomBitsFor(users.size()) / 64];
+        int mask = bloom.length * 64 - 1;
+        for (String username : users) {
+            int h1 = username.hashCode();
+            int h2 = Integer.rotateLeft(h1 * 0x9E3779B9, 16) | 1;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+        }
+        users = null;
+    }
+
+    /** False means the username is certainly not in the segment. */
+    public boolean mightContain(String username) {
+        if (bloom == null) {
+            return users.contains(String.valueOf(username));
+        }
+        int mask = bloom.length * 64 - 1;
+        int h1 = String.valueOf(username).hashCode();
+        int h2 = Integer.rotateLeft(h1 * 0x9E3779B9, 16) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean overlaps(long from, long to) {
+        return lines > 0 && minTime <= to && maxTime >= from;
+    }
+
+    int getBlockCount() {
+        return blocks;
+    }
+
+    boolean blockOverlaps(int block, long from, long to) {
+        return blockMin[block] <= to && blockMax[block] >= from;
+    }
+
+    long blockStart(int block) {
+        return blockOffset[block];
+    }
+
+    long blockEnd(int block) {
+        return block + 1 < blocks ? blockOffset[block + 1] : bytes;
+    }
+
+    public int getLineCount() {
+        return lines;
+    }
+
+    public long getByteCount() {
+        return bytes;
+    }
+
+    public long getMinTime() {
+        return minTime;
+    }
+
+    int getBloomBits() {
+        return bloom == null ? 0 : bloom.length * 64;
+    }
+
+    /** Writes the index; it takes no more lines afterwards. */
+    void write(Path path) throws IOException {
+        buildBloom();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(bloom.length * 64);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeLong(bytes);
+            out.writeInt(lines);
+            out.writeInt(blocks);
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(blockOffset[i]);
+                out.writeLong(blockMin[i]);
+                out.writeLong(blockMax[i]);
+            }
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    static AuditIndex read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Not an audit index: " + path);
+            }
+            int bloomBits = version == 1 ? V1_BLOOM_BITS : in.readInt();
+            if (Integer.bitCount(bloomBits) != 1 || bloomBits < 64 || bloomBits > MAX_BLOOM_BITS) {
+                throw new IOException("Bad bloom filter size " + bloomBits + ": " + path);
+            }
+            AuditIndex index = new AuditIndex();
+            index.users = null;
+            index.bloom = new long[bloomBits / 64];
+            index.minTime = in.readLong();
+            index.maxTime = in.readLong();
+            index.bytes = in.readLong();
+            index.lines = in.readInt();
+            index.blocks = in.readInt();
+            int capacity = Math.max(16, index.blocks);
+            index.blockOffset = new long[capacity];
+            index.blockMin = new long[capacity];
+            index.blockMax = new long[capacity];
+            for (int i = 0; i < index.blocks; i++) {
+                index.blockOffset[i] = in.readLong();
+                index.blockMin[i] = in.readLong();
+                index.blockMax[i] = in.readLong();
+            }
+            for (int i = 0; i < index.bloom.length; i++) {
+                index.bloom[i] = in.readLong();
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Indexes an existing log file by reading it once: an active file left by
+     * a previous run, or a sealed segment whose index went missing. Stops at a
+     * torn last line, which is left out of the index.
+     */
+    static AuditIndex build(Path log) throws IOException {
+        AuditIndex index = new AuditIndex();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(log), 64 * 1024)) {
+            byte[] line = new byte[256];
+            int len = 0;
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (len == line.length) {
+                    line = Arrays.copyOf(line, len * 2);
+                }
+                line[len++] = (byte) c;
+                if (c == '\n') {
+                    String text = new String(line, 0, len - 1, StandardCharsets.UTF_8);
+                    index.add(timeOf(text), usernameOf(text), len);
+                    len = 0;
+                }
+            }
+        }
+        return index;
+    }
+
+    // Line format: time,username,action
+
+    static long timeOf(String line) {
+        int comma = line.indexOf(',');
+        try {
+            return key(LocalDateTime.parse(comma < 0 ? line : line.substring(0, comma)));
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE; // unparseable: only matches unbounded queries
+        }
+    }
+
+    static String usernameOf(String line) {
+        int first = line.indexOf(',');
+        if (first < 0) {
+            return "";
+        }
+        int second = line.indexOf(',', first + 1);
+        return second < 0 ? line.substring(first + 1) : line.substring(first + 1, second);
+    }
+}
@@ -0,0 +1,137 @@
+package Server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read side of the audit log written by UserLogger: the sealed segments in
+ * segmentDir plus the active file. A query for a time window and/or a
+ * username reads only the segments whose index says they can match, and
+ * inside those only the blocks whose time range overlaps the window.
+ *
+ * Sealed segments never change, so their indexes are read once and cached.
+ */
+public class AuditLog {
+    private final Path active;
+    private final Path segmentDir;
+    private final Map<Path, AuditIndex> indexes = new ConcurrentHashMap<>();
+    private volatile int lastSegmentsRead;
+
+    public AuditLog(Path active, Path segmentDir) {
+        this.active = active;
+        this.segmentDir = segmentDir;
+    }
+
+    /**
+     * Lines for username (any user if null) logged between from and to
+     * inclusive (unbounded if null), oldest segment first.
+     */
+    public List<String> query(String username, LocalDateTime from, LocalDateTime to) throws IOException {
+        long lo = from == null ? Long.MIN_VALUE : AuditIndex.key(from);
+        long hi = to == null ? Long.MAX_VALUE : AuditIndex.key(to);
+        List<String> out = new ArrayList<>();
+        int read = 0;
+
+        for (Path log : sealedSegments()) {
+            AuditIndex index = indexFor(log);
+            if (!index.overlaps(lo, hi) || (username != null && !index.mightContain(username))) {
+                continue;
+            }
+            read++;
+            try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+                int b = 0;
+                while (b < index.getBlockCount()) {
+                    if (!index.blockOverlaps(b, lo, hi)) {
+                        b++;
+                        continue;
+                    }
+                    // read a run of neighbouring matching blocks in one go
+                    int end = b;
+                    while (end + 1 < index.getBlockCount() && index.blockOverlaps(end + 1, lo, hi)) {
+                        end++;
+                    }
+                    long start = index.blockStart(b);
+                    collect(readRange(ch, start, index.blockEnd(end) - start), username, lo, hi, out);
+                    b = end + 1;
+                }
+            }
+        }
+
+        // The active file is at most one segment long and has no index on disk yet
+        if (Files.exists(active)) {
+            read++;
+            collect(new String(Files.readAllBytes(active), StandardCharsets.UTF_8), username, lo, hi, out);
+        }
+        lastSegmentsRead = read;
+        return out;
+    }
+
+    /** Segments (the active file included) the last query actually read. */
+    public int getLastSegmentsRead() {
+        return lastSegmentsRead;
+    }
+
+    // Sealed segment logs in order; an index without its log is a half-finished seal
+    private List<Path> sealedSegments() throws IOException {
+        TreeMap<String, Path> logs = new TreeMap<>();
+        if (!Files.isDirectory(segmentDir)) {
+            return new ArrayList<>();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir, "segment-*.log")) {
+            for (Path f : files) {
+                logs.put(f.getFileName().toString(), f);
+            }
+        }
+        return new ArrayList<>(logs.values());
+    }
+
+    private AuditIndex indexFor(Path log) throws IOException {
+        AuditIndex index = indexes.get(log);
+        if (index != null) {
+            return index;
+        }
+        String name = log.getFileName().toString();
+        Path idx = log.resolveSibling(name.substring(0, name.length() - ".log".length()) + ".idx");
+        index = Files.exists(idx) ? AuditIndex.read(idx) : AuditIndex.build(log);
+        indexes.put(log, index);
+        return index;
+    }
+
+    private static String readRange(FileChannel ch, long start, long length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, start + buf.position()) < 0) {
+                break;
+            }
+        }
+        return new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+    }
+
+    private static void collect(String text, String username, long lo, long hi, List<String> out) {
+        int start = 0;
+        int nl;
+        while ((nl = text.indexOf('\n', start)) >= 0) {
+            String line = text.substring(start, nl);
+            start = nl + 1;
+            if (username != null && !AuditIndex.usernameOf(line).equals(username)) {
+                continue;
+            }
+            long t = AuditIndex.timeOf(line);
+            if (t >= lo && t <= hi) {
+                out.add(line);
+            }
+        }
+    }
+}
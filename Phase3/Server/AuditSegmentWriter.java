@@ -0,0 +1,135 @@
+package Server;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes audit lines into the active log file and seals it into a numbered
+ * segment (segment-NNNNNN.log plus its .idx) once it passes segmentBytes or
+ * the date changes. The index of the active file is built as lines are
+ * written, so sealing only has to write it out. Single threaded: owned by
+ * the UserLogger writer thread.
+ */
+public class AuditSegmentWriter implements Closeable {
+    private final Path active;
+    private final Path segmentDir;
+    private final long segmentBytes;
+    private final StringBuilder line = new StringBuilder(128);
+    private OutputStream out;
+    private AuditIndex index;
+    private LocalDate day;      // date of the first event in the active file
+    private int nextSegment;
+
+    public AuditSegmentWriter(Path active, Path segmentDir, long segmentBytes) throws IOException {
+        this.active = active;
+        this.segmentDir = segmentDir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(segmentDir);
+        nextSegment = highestSegment(segmentDir) + 1;
+        open();
+    }
+
+    static String segmentName(int number) {
+        return String.format("segment-%06d", number);
+    }
+
+    // Highest segment number in the directory, or 0
+    private static int highestSegment(Path dir) throws IOException {
+        int highest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                int dot = name.indexOf('.');
+                try {
+                    highest = Math.max(highest, Integer.parseInt(name.substring("segment-".length(), dot < 0 ? name.length() : dot)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return highest;
+    }
+
+    // Picks up an active file left by a previous run, indexing it once
+    private void open() throws IOException {
+        if (Files.exists(active) && Files.size(active) > 0) {
+            index = AuditIndex.build(active);
+            day = index.getLineCount() > 0 ? dayOf(index.getMinTime()) : null;
+            if (index.getByteCount() < Files.size(active)) {
+                // torn last line from a crash: end it so the next line starts clean
+                try (OutputStream fix = Files.newOutputStream(active, StandardOpenOption.APPEND)) {
+                    fix.write('\n');
+                }
+                index = AuditIndex.build(active);
+            }
+        } else {
+            index = new AuditIndex();
+            day = null;
+        }
+        out = new BufferedOutputStream(new FileOutputStream(active.toFile(), true), 64 * 1024);
+    }
+
+    private static LocalDate dayOf(long key) {
+        return LocalDate.ofEpochDay(Math.floorDiv(key, 86_400_000_000_000L));
+    }
+
+    /** Appends one line; returns its length in bytes. */
+    public int append(LocalDateTime time, String username, String action) throws IOException {
+        LocalDate eventDay = time.toLocalDate();
+        if (index.getLineCount() > 0 && (index.getByteCount() >= segmentBytes || !eventDay.equals(day))) {
+            seal();
+        }
+        if (day == null) {
+            day = eventDay;
+        }
+        line.setLength(0);
+        line.append(time).append(',').append(username).append(',').append(action).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        index.add(AuditIndex.key(time), String.valueOf(username), bytes.length);
+        return bytes.length;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Starts over if the active file was deleted or moved away by someone
+     * else since the last batch (log rotation tools, tests).
+     */
+    public void reopenIfMoved() throws IOException {
+        if (!Files.exists(active)) {
+            out.close();
+            open();
+        }
+    }
+
+    // Index first, then the log: a crash in between leaves an index without its log,
+    // which queries ignore, rather than a log nobody knows how to skip
+    private void seal() throws IOException {
+        out.close();
+        String name = segmentName(nextSegment++);
+        index.write(segmentDir.resolve(name + ".idx"));
+        Files.move(active, segmentDir.resolve(name + ".log"), StandardCopyOption.ATOMIC_MOVE);
+        index = new AuditIndex();
+        day = null;
+        out = new BufferedOutputStream(new FileOutputStream(active.toFile(), true), 64 * 1024);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
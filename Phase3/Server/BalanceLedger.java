@@ -0,0 +1,141 @@
+package Server;
+
+import Enums.AccState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memory-mapped file of fixed-width account records, one per account slot.
+ * A balance or state change is a single in-place write into the mapping,
+ * with no file rewrite and no lock, so settling a bet costs a few stores.
+ *
+ * Record layout (32 bytes):
+ *   int    owner  hash of the username, so a slot reused after a crash is not misread
+ *   int    state  AccState ordinal
+ *   double balance
+ *   long   seq    bumped on every write (last settlement sequence)
+ *   long   reserved
+ *
+ * Each slot has one writer at a time (the account's table or its own
+ * handler), so records need no locking. Writes reach the page cache at
+ * once and survive a process crash; force() also makes them survive a
+ * power cut.
+ */
+public class BalanceLedger implements Closeable {
+    private static final int MAGIC = 0x424A4C47; // "BJLG"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int RECORD = 32;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final int OWNER = 0;
+    private static final int STATE = 4;
+    private static final int BALANCE = 8;
+    private static final int SEQ = 16;
+
+    private final FileChannel channel;
+    private final ReentrantLock growLock = new ReentrantLock();
+    // Replaced when the file grows. A writer still holding the old mapping is fine:
+    // both map the same file pages.
+    private volatile MappedByteBuffer map;
+
+    public BalanceLedger(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size == 0) {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) INITIAL_SLOTS * RECORD);
+            map.putInt(4, VERSION);
+            map.putInt(8, RECORD);
+            map.putInt(0, MAGIC);
+        } else {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != RECORD) {
+                channel.close();
+                throw new IOException("Not a balance ledger: " + path);
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return (map.capacity() - HEADER) / RECORD;
+    }
+
+    private static int owner(String username) {
+        return username.hashCode();
+    }
+
+    private static int offset(int slot) {
+        return HEADER + slot * RECORD;
+    }
+
+    // Maps a bigger file when the slot is past the end
+    private MappedByteBuffer mapFor(int slot) throws IOException {
+        MappedByteBuffer m = map;
+        if (offset(slot) + RECORD <= m.capacity()) {
+            return m;
+        }
+        growLock.lock();
+        try {
+            m = map;
+            int slots = (m.capacity() - HEADER) / RECORD;
+            while (slots <= slot) {
+                slots *= 2;
+            }
+            if (offset(slot) + RECORD > m.capacity()) {
+                m = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) slots * RECORD);
+                map = m;
+            }
+            return m;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    /** Writes the slot in place and bumps its settlement sequence. */
+    public void write(int slot, String username, double balance, AccState state) throws IOException {
+        MappedByteBuffer m = mapFor(slot);
+        int at = offset(slot);
+        int owner = owner(username);
+        long seq = m.getInt(at + OWNER) == owner ? m.getLong(at + SEQ) : 0;
+        m.putDouble(at + BALANCE, balance);
+        m.putInt(at + STATE, state.ordinal());
+        m.putLong(at + SEQ, seq + 1);
+        m.putInt(at + OWNER, owner);
+    }
+
+    /** True if the slot holds a record written for this username. */
+    public boolean owns(int slot, String username) {
+        MappedByteBuffer m = map;
+        int at = offset(slot);
+        return at + RECORD <= m.capacity() && m.getLong(at + SEQ) > 0 && m.getInt(at + OWNER) == owner(username);
+    }
+
+    public double getBalance(int slot) {
+        return map.getDouble(offset(slot) + BALANCE);
+    }
+
+    public AccState getState(int slot) {
+        return AccState.values()[map.getInt(offset(slot) + STATE)];
+    }
+
+    public long getSequence(int slot) {
+        return map.getLong(offset(slot) + SEQ);
+    }
+
+    /** Flushes every record written so far to the disk. */
+    public void force() {
+        map.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
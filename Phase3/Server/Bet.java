@@ -34,6 +34,36 @@ public class Bet {
     }
 
     public double calculatePayout() {
+        return payout(outcome, amount, doubled);
+    }
+
+    /**
+     * How a finished hand settles against the dealer's finished hand. The
+     * table rules, shared by GameTable and the offline simulator: any 21 the
+     * dealer does not match pays as blackjack, a bust player loses even if
+     * the dealer busts too, otherwise the higher total wins.
+     */
+    public static BetStatus outcome(Hand playerHand, Hand dealerHand) {
+        int playerValue = playerHand.getValue();
+        int dealerValue = dealerHand.getValue();
+
+        if (playerValue == 21 && dealerValue != 21) {
+            return BetStatus.BLACKJACK;
+        }
+        if (playerHand.isBust()) {
+            return BetStatus.LOSE;
+        }
+        if (dealerHand.isBust()) {
+            return BetStatus.WIN;
+        }
+        if (dealerValue > playerValue) {
+            return BetStatus.LOSE;
+        }
+        return dealerValue < playerValue ? BetStatus.WIN : BetStatus.PUSH;
+    }
+
+    /** Net win (negative for a loss) of a bet of amount settled as outcome. */
+    public static double payout(BetStatus outcome, double amount, boolean doubled) {
         double base;
 
         switch(outcome) {
@@ -4,12 +4,24 @@ import Enums.Rank;
 import Enums.Suit;
 
 /**
- * Simple Card skeleton.
+ * Simple Card skeleton. Cards are immutable, so the shoe deals the 52
+ * shared instances from of()/fromCode() instead of building new ones.
  */
 public class Card {
-    private Rank rank;
-    private Suit suit;
-    private int value;
+    public static final int DISTINCT = 52;
+    private static final Rank[] RANKS = Rank.values();
+    private static final Suit[] SUITS = Suit.values();
+    private static final Card[] POOL = new Card[DISTINCT];
+
+    static {
+        for (int code = 0; code < DISTINCT; code++) {
+            POOL[code] = new Card(RANKS[code % RANKS.length], SUITS[code / RANKS.length]);
+        }
+    }
+
+    private final Rank rank;
+    private final Suit suit;
+    private final int value;
 
     public Card(Rank rank, Suit suit) {
         this.rank = rank;
@@ -17,6 +29,24 @@ public class Card {
         this.value = determineValue(rank);
     }
 
+    /** The shared instance for a card code (0-51, see getCode). */
+    public static Card fromCode(int code) {
+        return POOL[code];
+    }
+
+    public static Card of(Rank rank, Suit suit) {
+        return POOL[code(rank, suit)];
+    }
+
+    static int code(Rank rank, Suit suit) {
+        return suit.ordinal() * RANKS.length + rank.ordinal();
+    }
+
+    /** Compact identity of this card: suit * 13 + rank, 0-51. */
+    public int getCode() {
+        return code(rank, suit);
+    }
+
     private int determineValue(Rank rank) {
         switch (rank) {
             case TWO:
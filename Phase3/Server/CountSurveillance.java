@@ -0,0 +1,129 @@
+package Server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Watches for card counters: every bet is recorded with the shoe's true
+ * count at the moment it was placed, and a player whose bet size rises with
+ * the count (Pearson correlation of amount against true count at or above
+ * threshold, over at least minBets bets) is reported to the alert sink once.
+ * The statistics are running sums, so a bet costs a few multiplications and
+ * nothing is kept per bet.
+ *
+ * Players are tracked across tables under their username. Settings come
+ * from -Dblackjack.surveillance.minBets (default 50) and
+ * -Dblackjack.surveillance.threshold (default 0.5); the shared instance
+ * logs its alerts as warnings under "Surveillance".
+ */
+public class CountSurveillance {
+    private static final Log log = Log.get("Surveillance");
+    private static final CountSurveillance shared = new CountSurveillance(
+            Integer.getInteger("blackjack.surveillance.minBets", 50),
+            Double.parseDouble(System.getProperty("blackjack.surveillance.threshold", "0.5")),
+            alert -> log.warn("{} sizes bets with the count at {}: {}", alert.username(), alert.tableId(),
+                    String.format("r=%.2f over %d bets", alert.correlation(), alert.bets())));
+
+    /** A player whose bet sizing tracks the count. */
+    public record Alert(String username, String tableId, long bets, double correlation) { }
+
+    private final int minBets;
+    private final double threshold;
+    private final Consumer<Alert> sink;
+    private final Map<String, BetStats> players = new ConcurrentHashMap<>();
+
+    /** The instance the server's tables report to. */
+    public static CountSurveillance shared() {
+        return shared;
+    }
+
+    public CountSurveillance(int minBets, double threshold, Consumer<Alert> sink) {
+        this.minBets = Math.max(2, minBets);
+        this.threshold = threshold;
+        this.sink = sink;
+    }
+
+    /** Records a bet of amount placed at tableId while the shoe stood at trueCount. */
+    public void recordBet(String username, String tableId, double trueCount, double amount) {
+        Alert[] raised = new Alert[1];
+        players.compute(username.toLowerCase(), (key, stats) -> {
+            if (stats == null) {
+                stats = new BetStats();
+            }
+            stats.add(trueCount, amount);
+            if (!stats.flagged && stats.n >= minBets) {
+                double r = stats.correlation();
+                if (r >= threshold) {
+                    stats.flagged = true;
+                    raised[0] = new Alert(username, tableId, stats.n, r);
+                }
+            }
+            return stats;
+        });
+        if (raised[0] != null) {
+            sink.accept(raised[0]); // outside compute: the sink may be slow
+        }
+    }
+
+    /** Correlation of bet size with the true count so far, or NaN if it is not defined yet. */
+    public double getCorrelation(String username) {
+        return read(username, BetStats::correlation, Double.NaN);
+    }
+
+    public long getBetCount(String username) {
+        return read(username, stats -> stats.n, 0L);
+    }
+
+    public boolean isFlagged(String username) {
+        return read(username, stats -> stats.flagged, false);
+    }
+
+    // Reads under the map's per-key lock, so a bet being recorded is never seen half done
+    private <T> T read(String username, Function<BetStats, T> field, T absent) {
+        Object[] value = {absent};
+        players.computeIfPresent(username.toLowerCase(), (key, stats) -> {
+            value[0] = field.apply(stats);
+            return stats;
+        });
+        @SuppressWarnings("unchecked")
+        T result = (T) value[0];
+        return result;
+    }
+
+    /** Forgets a player, e.g. once their alert has been reviewed. */
+    public void clear(String username) {
+        players.remove(username.toLowerCase());
+    }
+
+    // Welford style co-moments: stable even for large bets over many rounds
+    private static final class BetStats {
+        long n;
+        double meanCount;
+        double meanAmount;
+        double m2Count;
+        double m2Amount;
+        double coMoment;
+        boolean flagged;
+
+        void add(double count, double amount) {
+            n++;
+            double dCount = count - meanCount;
+            meanCount += dCount / n;
+            double dAmount = amount - meanAmount;
+            meanAmount += dAmount / n;
+            m2Count += dCount * (count - meanCount);
+            m2Amount += dAmount * (amount - meanAmount);
+            coMoment += dCount * (amount - meanAmount);
+        }
+
+        // NaN while either side has no spread: a flat bettor correlates with nothing
+        double correlation() {
+            if (n < 2 || m2Count <= 0 || m2Amount <= 0) {
+                return Double.NaN;
+            }
+            return coMoment / Math.sqrt(m2Count * m2Amount);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package Server;
+
+import Enums.Rank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A card counting system: a tag per rank, summed over the cards dealt to
+ * give the running count. Tags are kept per card code (see Card.getCode) so
+ * counting a card is one array read.
+ *
+ * Unbalanced systems (tags that do not sum to zero over a deck, like KO)
+ * are supported: the true count subtracts what a neutral shoe would have
+ * produced for the same number of cards, so zero means "no edge either way"
+ * for every system.
+ */
+public final class CountingSystem {
+    public static final CountingSystem HI_LO = new CountingSystem("hilo", 1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, -1);
+    public static final CountingSystem HI_OPT_I = new CountingSystem("hiopt1", 0, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, 0);
+    public static final CountingSystem KO = new CountingSystem("ko", 1, 1, 1, 1, 1, 1, 0, 0, -1, -1, -1, -1, -1);
+    public static final CountingSystem OMEGA_II = new CountingSystem("omega2", 1, 1, 2, 2, 2, 1, 0, -1, -2, -2, -2, -2, 0);
+
+    private final String name;
+    private final byte[] tagByCode = new byte[Card.DISTINCT];
+    private final int deckSum; // sum of the tags over one 52 card deck
+
+    /** tagsByRank holds one tag per Rank, TWO through ACE. */
+    public CountingSystem(String name, int... tagsByRank) {
+        Rank[] ranks = Rank.values();
+        if (tagsByRank.length != ranks.length) {
+            throw new IllegalArgumentException("Need one tag per rank (" + ranks.length + "): " + name);
+        }
+        this.name = name;
+        int sum = 0;
+        for (int code = 0; code < Card.DISTINCT; code++) {
+            int tag = tagsByRank[code % ranks.length]; // codes are suit * 13 + rank
+            tagByCode[code] = (byte) tag;
+            sum += tag;
+        }
+        this.deckSum = sum;
+    }
+
+    /** A built-in system by name: "hilo", "hiopt1", "ko" or "omega2". */
+    public static CountingSystem forName(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "hilo":
+                return HI_LO;
+            case "hiopt1":
+                return HI_OPT_I;
+            case "ko":
+                return KO;
+            case "omega2":
+                return OMEGA_II;
+            default:
+                throw new IllegalArgumentException("Unknown counting system: " + name);
+        }
+    }
+
+    /** Systems from a comma separated list of names, as used by -Dblackjack.counts. */
+    public static List<CountingSystem> parse(String names) {
+        List<CountingSystem> systems = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                systems.add(forName(name));
+            }
+        }
+        return systems;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int tag(Card card) {
+        return tagByCode[card.getCode()];
+    }
+
+    public boolean isBalanced() {
+        return deckSum == 0;
+    }
+
+    /**
+     * Fills prefix[i + 1] with the running count after codes[0..i]. Called
+     * when an ordering is made, so reading the count while dealing is one
+     * array read.
+     */
+    void prefixCounts(byte[] codes, int[] prefix) {
+        int running = 0;
+        prefix[0] = 0;
+        for (int i = 0; i < codes.length; i++) {
+            running += tagByCode[codes[i]];
+            prefix[i + 1] = running;
+        }
+    }
+
+    /**
+     * Running count per deck remaining, adjusted for an unbalanced system by
+     * what a neutral shoe would show after the same number of cards. Zero
+     * when no cards are left.
+     */
+    public double trueCount(int running, int dealt, int remaining) {
+        if (remaining == 0) {
+            return 0;
+        }
+        return (Card.DISTINCT * (double) running - (double) dealt * deckSum) / remaining;
+    }
+
+    @Override
+    public String toString() {
+        return name + Arrays.toString(Arrays.copyOf(tagByCode, Rank.values().length));
+    }
+}
@@ -23,8 +23,7 @@ public class Dealer extends Account {
     
     public boolean hit(Card card){
         hand.addCard(card);
-        if(hand.getValue() > 21) return true; //return true = is a BUST
-        return false;
+        return hand.isBust(); //return true = is a BUST
     }
 
     public boolean mustHit(int total){
@@ -55,7 +54,7 @@ public class Dealer extends Account {
         return flag;
     }
     public boolean isBust() {
-        return hand.getValue() > 21;
+        return hand.isBust();
     }
 
     public HandEval compareHands(Hand playerHand){
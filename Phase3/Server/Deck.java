@@ -6,12 +6,14 @@ import Enums.Suit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Simple Deck skeleton containing 52 cards.
  */
 public class Deck {
     private ArrayList<Card> cards;
+    private int cursor;         // next card to deal; dealt cards stay in the list
     private String deckID;
 
     public Deck() {
@@ -21,25 +23,27 @@ public class Deck {
     }
 
     public void shuffle() {
-        Collections.shuffle(cards);
+        // not the shared Random behind Collections.shuffle(list), which every table would contend on
+        Collections.shuffle(cards.subList(cursor, cards.size()), ThreadLocalRandom.current());
     }
 
     public Card dealCard() {
-        if (cards.isEmpty()) {
+        if (cursor == cards.size()) {
             return null;
         }
-        return cards.remove(0);
+        return cards.get(cursor++);
     }
 
     public int cardsRemaining() {
-        return cards.size();
+        return cards.size() - cursor;
     }
 
     public void resetDeck() {
         cards.clear();
+        cursor = 0;
         for (Suit suit : Suit.values()) {
             for (Rank rank : Rank.values()) {
-                cards.add(new Card(rank, suit));
+                cards.add(Card.of(rank, suit));
             }
         }
     }
@@ -1,15 +1,48 @@
 package Server;
 
+import Analytics.EvCalculator;
+import Analytics.ShoeComposition;
+import Analytics.StrategyTable;
 import Enums.BetStatus;
 import Enums.GameState;
 import Enums.PlayerAction;
+import Enums.Rank;
 import Shared.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One blackjack table. Every public method runs as a command on the table's
+ * TableActor, so the round logic below is single threaded no matter how
+ * many client handlers and timers are talking to the table at once.
+ */
 public class GameTable {
-    private static int count;
+    private static final Log log = Log.get("GameTable");
+
+    private static final AtomicInteger count = new AtomicInteger();
+
+    public static final int SHOE_DECKS = 7;
+
+    // How long a player may sit on their turn before they are stood automatically.
+    // Override with -Dblackjack.turnTimeoutMs=<ms>; 0 or less turns it off.
+    public static final long DEFAULT_TURN_TIMEOUT_MS = Long.getLong("blackjack.turnTimeoutMs", 30_000);
+
+    // Where the cut card goes, as a fraction of the shoe (-Dblackjack.penetration), and whether the
+    // next shuffle is prepared off the table thread (-Dblackjack.backgroundShuffle, default true)
+    private static final double PENETRATION =
+            Double.parseDouble(System.getProperty("blackjack.penetration", String.valueOf(Shoe.DEFAULT_PENETRATION)));
+    private static final boolean BACKGROUND_SHUFFLE =
+            Boolean.parseBoolean(System.getProperty("blackjack.backgroundShuffle", "true"));
+    // "secure" shuffles every shoe with AES-CTR under a SecureRandom key, "fast" with SplitMix64 (-Dblackjack.shuffle)
+    private static final String SHUFFLE_MODE = System.getProperty("blackjack.shuffle", "secure");
+    // Counts every shoe keeps, first one reported (-Dblackjack.counts, e.g. "hilo,ko,omega2")
+    private static final List<CountingSystem> COUNTS = CountingSystem.parse(System.getProperty("blackjack.counts", "hilo"));
+
+    private final TableActor actor = new TableActor();
+    private final CountSurveillance surveillance = CountSurveillance.shared();
 
     private String tableID;
     private Dealer dealer;
@@ -18,6 +51,9 @@ public class GameTable {
     private Shoe shoe;
     private GameState state;
     private int currentPlayerIndex; // to keep track of whos turn it is
+    private long turnSequence;      // bumped whenever the turn moves, so a stale turn timeout can tell
+    private volatile long turnTimeoutMs = DEFAULT_TURN_TIMEOUT_MS;
+    private volatile long revision; // bumped on every change clients can see, labels snapshots/deltas
 
     //Test Implementation
     public ArrayList<String> deck = new ArrayList<>();
@@ -25,7 +61,11 @@ public class GameTable {
     public ArrayList<String> dealerHand = new ArrayList<>();
     public boolean roundActive = false;
 
-    public synchronized void initDeck() {
+    public void initDeck() {
+        actor.run(this::fillTestDeck);
+    }
+
+    private void fillTestDeck() {
         deck.clear();
         playerHand.clear();
         dealerHand.clear();
@@ -46,38 +86,73 @@ public class GameTable {
 
 
     public GameTable(Dealer dealer){
-        tableID = ("T" + ++count);
+        tableID = ("T" + count.incrementAndGet());
         this.dealer = dealer;
         // ensure dealer's hand is clear when creating a new table
         if (this.dealer != null && this.dealer.getHand() != null) {
             this.dealer.getHand().clearHand();
         }
         players = new ArrayList<>(7);
-        shoe = new Shoe(7); //Shoe & deck is randomized by default in their constructors
+        shoe = new Shoe(SHOE_DECKS, PENETRATION, BACKGROUND_SHUFFLE, ShuffleEngine.forMode(SHUFFLE_MODE), COUNTS); // one engine per table
+        log.info("{}: new shoe, {} shuffle", tableID, shoe.getShuffleEngine().getName());
         bets = new ArrayList<>();
         state = GameState.BETTING; //Game flow: BETTING -> DEALING -> IN_PROGRESS -> RESULTS
         currentPlayerIndex = 0;
     }
 
+    /**
+     * Runs several table operations as one command, e.g. a check followed by
+     * the change it guards, so nothing else can happen to the table in between.
+     */
+    public <T> T callOnTable(Supplier<T> command) {
+        return actor.call(command);
+    }
+
+    public void runOnTable(Runnable command) {
+        actor.run(command);
+    }
+
     public boolean addPlayer(Player player){
-        if(players.size() < 7) {
-            players.add(player);
-            return true;
-        }
-        return false;
+        return actor.call(() -> {
+            if(players.size() < 7) {
+                players.add(player);
+                markChanged();
+                return true;
+            }
+            return false;
+        });
     }
 
-    public synchronized void removePlayer(Player person) {
-        if (players.isEmpty()) {
-            System.err.println("Cannot remove player - Player size is already 0!");
-            return;
-        }
+    public Bet placeBet(Player player, double amount){
+        return actor.call(() -> {
+            Bet bet = player.placeBet(amount);
+            if (shoe != null) {
+                surveillance.recordBet(player.getUsername(), tableID, shoe.getTrueCount(), bet.getAmount());
+            }
+            markChanged();
+            return bet;
+        });
+    }
 
-        players.removeIf(p -> p.getID().equalsIgnoreCase(person.getID()));
+    public void removePlayer(Player person) {
+        actor.run(() -> {
+            if (players.isEmpty()) {
+                log.warn("Cannot remove player - Player size is already 0! ({})", tableID);
+                return;
+            }
+
+            players.removeIf(p -> p.getID().equalsIgnoreCase(person.getID()));
+            turnSequence++; // seats shifted, whoever was on the clock may have changed
+            markChanged();
+        });
     }
 
 
     public boolean startRound(){
+        return actor.call(this::startRoundOnTable);
+    }
+
+    private boolean startRoundOnTable(){
         if(state != GameState.BETTING) return false;
         if(players.size() < 1) return false;
 
@@ -85,29 +160,39 @@ public class GameTable {
         
         for(Player player : players){
             if(player.getBet().getAmount() >= 1.00) continue;
-            else System.err.println("Bet must be at least $1");
+            else log.warn("Bet must be at least $1 ({})", tableID);
         }
 
-        DealInitialCards();
+        dealInitialCardsOnTable();
         state = GameState.IN_PROGRESS;
         currentPlayerIndex = 0;
+        turnSequence++;
+        markChanged();
         return true;
     }
 
     public void DealInitialCards(){
+        actor.run(this::dealInitialCardsOnTable);
+    }
+
+    private void dealInitialCardsOnTable(){
         state = GameState.DEALING;
 
         for(Player p : players){
             for(int i = 0; i < 2; i++){
-                p.hit(shoe.dealCard());
+                p.hit(shoe.draw());
             }
         }
         for(int i = 0; i < 2; i++){
-            dealer.hit(shoe.dealCard());
+            dealer.hit(shoe.draw());
         }
     }
 
-    public synchronized boolean handlePlayerAction(String playerUsername, PlayerAction action){
+    public boolean handlePlayerAction(String playerUsername, PlayerAction action){
+        return actor.call(() -> applyPlayerAction(playerUsername, action));
+    }
+
+    private boolean applyPlayerAction(String playerUsername, PlayerAction action){
         if (state != GameState.IN_PROGRESS) return false;
         if (players.isEmpty()) return false;
 
@@ -116,7 +201,7 @@ public class GameTable {
 
             switch (action) {
                 case HIT:
-                    currentPlayer.hit(shoe.dealCard());
+                    currentPlayer.hit(shoe.draw());
                     if (currentPlayer.getHandValue() > 21){
                         advanceTurn();
                     }
@@ -134,7 +219,7 @@ public class GameTable {
                     }
 
                     // Only allow double on the first two cards
-                    if (currentPlayer.getHand().getCards().size() != 2) {
+                    if (currentPlayer.getHand().size() != 2) {
                         return false;
                     }
 
@@ -143,8 +228,7 @@ public class GameTable {
 
                     // Make sure player can afford doubling
                     if (doubledTotal > currentPlayer.getBalance()) {
-                        System.err.println("Player " + currentPlayer.getUsername()
-                                + " cannot afford to double down.");
+                        log.warn("Player {} cannot afford to double down.", currentPlayer.getUsername());
                         return false;
                     }
 
@@ -152,23 +236,26 @@ public class GameTable {
                     bet.doubled = true;
 
                     // Give exactly one card, then move to next player
-                    currentPlayer.hit(shoe.dealCard());
+                    currentPlayer.hit(shoe.draw());
                     advanceTurn();
                     break;
 
                 default:
-                    System.err.println("Not a viable player action!");
+                    log.warn("Not a viable player action! ({})", tableID);
                     break;
             }
 
-
+        markChanged();
         return true;
     }
 
 
     public void evaluateHands(){
-        int dealerValue = dealer.getHandValue();
-        boolean dealerBust = dealerValue > 21;
+        actor.run(this::settleBets);
+    }
+
+    private void settleBets(){
+        Hand dealerHand = dealer.getHand();
 
         for (Player player : players) {
             Bet bet = player.getBet();
@@ -180,47 +267,7 @@ public class GameTable {
                 continue;
             }
 
-            int playerValue = player.getHandValue();
-            boolean playerBust = playerValue > 21;
-
-            // Check for Blackjack for the player
-            if (playerValue == 21 && dealerValue != 21) {
-                bet.settle(BetStatus.BLACKJACK);
-                continue;
-            }
-
-            // Player busts: player always loses, regardless of dealer
-            if (playerBust) {
-                bet.settle(BetStatus.LOSE);
-                continue;
-            }
-
-            // Dealer busts and player did not: player wins
-            if (dealerBust) {
-                bet.settle(BetStatus.WIN);
-                continue;
-            }
-
-            // At this point both values are <= 21 and neither has blackjack
-            switch (dealer.compareHands(player.getHand())) {
-                // Dealer hand higher than player
-                case MORE: {
-                    bet.settle(BetStatus.LOSE);
-                    break;
-                }
-
-                // Player hand higher than dealer
-                case LESS: {
-                    bet.settle(BetStatus.WIN);
-                    break;
-                }
-
-                // Equal hand value
-                case EQUAL: {
-                    bet.settle(BetStatus.PUSH);
-                    break;
-                }
-            }
+            bet.settle(Bet.outcome(player.getHand(), dealerHand));
         }
     state = GameState.RESULTS;
 }
@@ -230,35 +277,87 @@ public class GameTable {
         return tableID;
     }
 
+    // A copy: the live list only changes on the table's own thread
     public ArrayList<Player> getPlayers(){
-        return players;
+        return actor.call(() -> new ArrayList<>(players));
+    }
+
+    /**
+     * Identifies the current turn: changes every time the turn moves on.
+     * Returns -1 when nobody is on the clock (no round in progress).
+     */
+    public long getTurnSequence(){
+        return actor.call(() -> state == GameState.IN_PROGRESS ? turnSequence : -1);
+    }
+
+    /**
+     * The turn as one consistent reading: its sequence number, which only
+     * grows (also when a round ends), and whether anyone is on the clock.
+     */
+    public record Turn(long sequence, boolean onTheClock) { }
+
+    public Turn getTurn(){
+        return actor.call(() -> new Turn(turnSequence, state == GameState.IN_PROGRESS));
+    }
+
+    public long getTurnTimeoutMs(){
+        return turnTimeoutMs;
+    }
+
+    public void setTurnTimeoutMs(long turnTimeoutMs){
+        this.turnTimeoutMs = turnTimeoutMs;
+    }
+
+    /**
+     * Turn clock ran out: stands the current player and moves on, but only if
+     * the turn is still the one the timeout was set for (expectedTurn from
+     * getTurnSequence). Returns true if a player was stood.
+     */
+    public boolean timeOutTurn(long expectedTurn){
+        return actor.call(() -> {
+            if (state != GameState.IN_PROGRESS || turnSequence != expectedTurn || players.isEmpty()) {
+                return false;
+            }
+            log.info("{}: {} ran out of time, standing", tableID, getCurrentPlayerID());
+            advanceTurn();
+            markChanged();
+            return true;
+        });
+    }
+
+    public int getPlayerCount(){
+        return actor.call(() -> players.size());
     }
 
     public Dealer getDealer(){
-        return dealer;
+        return actor.call(() -> dealer);
     }
 
     public String getCurrentPlayerUsername() {
-        if (state != GameState.IN_PROGRESS) {
-            return null;
-        }
-        if (currentPlayerIndex < 0 || currentPlayerIndex >= players.size()) {
-            return null;
-        }
-        return players.get(currentPlayerIndex).getUsername();
+        return actor.call(this::getCurrentPlayerID);
     }
 
 
 
 
     public void resetTable(){
-        dealer = null;
-        players.clear();
-        bets.clear();
-        shoe = null;
+        actor.run(() -> {
+            dealer = null;
+            players.clear();
+            bets.clear();
+            if (shoe != null) {
+                logRetiredShoe(shoe.getShuffleSeed(), shoe.getPartialShuffles());
+            }
+            shoe = null;
+            markChanged();
+        });
     }
 
     public void resetForNextRound(){
+        actor.run(this::resetRoundOnTable);
+    }
+
+    private void resetRoundOnTable(){
         for (Player player : players){
             player.resetForNewRound();
         }
@@ -266,9 +365,41 @@ public class GameTable {
         dealer.getHand().clearHand();
 
         bets.clear();
-        shoe = new Shoe(7);
+        ShuffleSeed seed = shoe.getShuffleSeed();
+        List<Shoe.PartialShuffle> partials = shoe.getPartialShuffles();
+        if (shoe.endRound()) { // keep dealing from the same shoe until the cut card comes out
+            logRetiredShoe(seed, partials);
+        }
         currentPlayerIndex = 0;
         state = GameState.BETTING;
+        markChanged();
+    }
+
+    // The seed (plus any partial shuffles) is enough to replay the shoe (Shoe.replay), so it goes
+    // on record only once no card of that shoe can be dealt any more: a live seed would give away
+    // every card left
+    private void logRetiredShoe(ShuffleSeed seed, List<Shoe.PartialShuffle> partials) {
+        if (partials.isEmpty()) {
+            log.info("{}: shoe retired, seed {}", tableID, seed);
+        } else {
+            log.info("{}: shoe retired, seed {} then {}", tableID, seed, partials);
+        }
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Call after changing anything a snapshot shows (hands, bets, balances)
+     * from outside the table's own methods.
+     */
+    public void markChanged() {
+        if (actor.isOwner()) {
+            revision++;
+        } else {
+            actor.run(() -> revision++);
+        }
     }
 
     //Send snapshots After: startRound() / dealInitialCards
@@ -276,7 +407,11 @@ public class GameTable {
     //and After runDealerAndFinishRound()
 
     public TableSnapshot createSnapshotFor(String requestingPlayerUsername) {
-        DealerView dealerView = buildDealerView();
+        return actor.call(() -> buildSnapshot(requestingPlayerUsername));
+    }
+
+    private TableSnapshot buildSnapshot(String requestingPlayerUsername) {
+        DealerView dealerView = dealerViewOnTable();
         List<PlayerView> playerViews = new ArrayList<>();
 
         String currentPlayerUsername = getCurrentPlayerID();
@@ -291,7 +426,7 @@ public class GameTable {
             playerViews.add(buildPlayerView(p, isYou, isYourTurn));
         }
 
-        return new TableSnapshot(tableID, state, currentPlayerUsername, dealerView, playerViews);
+        return new TableSnapshot(tableID, state, currentPlayerUsername, dealerView, playerViews, revision);
     }
 
 
@@ -302,6 +437,9 @@ public class GameTable {
 
 
     public String getCurrentPlayerID() {
+        if (!actor.isOwner()) {
+            return actor.call(this::getCurrentPlayerID);
+        }
         // No "current player" once the betting round is over
         if (state != GameState.IN_PROGRESS) {
             return null;
@@ -323,12 +461,13 @@ public class GameTable {
             // Otherwise move to next player
             currentPlayerIndex++;
         }
+        turnSequence++;
     }
 
 
     private void runDealerAndFinishRound(){
         playDealerTurn();
-        evaluateHands();
+        settleBets();
         state = GameState.RESULTS;
     }
 
@@ -337,7 +476,7 @@ public class GameTable {
         int total = dealer.getHandValue();
         
         while(dealer.mustHit(total)){
-            dealerHand.addCard(shoe.dealCard());
+            dealerHand.addCard(shoe.draw());
             total = dealer.getHandValue();
         }
     }
@@ -345,6 +484,10 @@ public class GameTable {
     //Snapshot helpers
 
     public DealerView buildDealerView(){
+        return actor.call(this::dealerViewOnTable);
+    }
+
+    private DealerView dealerViewOnTable(){
         Hand dealerHand = dealer.getHand();
         List<Card> cards = dealerHand.getCards();
         List<CardView> cardViews = new ArrayList<>();
@@ -400,9 +543,62 @@ public class GameTable {
 
 
     public GameState getState() {
-        return state;
+        return actor.call(() -> state);
+    }
+
+    /** True count of the table's shoe, for the operator; players never see it. */
+    public double getTrueCount() {
+        return actor.call(() -> shoe == null ? 0 : shoe.getTrueCount());
+    }
+
+    /**
+     * Basic strategy's action for playerUsername's hand against the dealer's
+     * upcard, or null if there is no hand in play to advise on.
+     */
+    public PlayerAction bestAction(String playerUsername, StrategyTable strategy) {
+        return actor.call(() -> {
+            if (state != GameState.IN_PROGRESS || dealer.getHand().size() == 0) {
+                return null;
+            }
+            for (Player p : players) {
+                if (p.getUsername().equalsIgnoreCase(playerUsername)) {
+                    Rank upcard = dealer.getHand().getCards().get(0).getRank(); // the second card is the hole card
+                    return p.getHand().size() < 2 ? null : strategy.bestAction(p.getHand(), upcard);
+                }
+            }
+            return null;
+        });
     }
 
+    /**
+     * EVs of each action for playerUsername's hand, from the cards this shoe
+     * has left plus the dealer's hole card (neither is known to the player),
+     * or null if there is no hand in play. Only the inputs are gathered on
+     * the table thread; the calculation runs on the caller's.
+     */
+    public EvCalculator.Evaluation evaluateHand(String playerUsername, EvCalculator calculator) {
+        EvInputs inputs = actor.call(() -> {
+            if (state != GameState.IN_PROGRESS || dealer.getHand().size() < 2) {
+                return null;
+            }
+            for (Player p : players) {
+                if (p.getUsername().equalsIgnoreCase(playerUsername) && p.getHand().size() >= 2) {
+                    Hand copy = new Hand();
+                    for (Card c : p.getHand().getCards()) {
+                        copy.addCard(c);
+                    }
+                    ShoeComposition unseen = ShoeComposition.remainingIn(shoe);
+                    unseen.add(dealer.getHand().getCards().get(1));
+                    return new EvInputs(copy, dealer.getHand().getCards().get(0).getRank(), unseen);
+                }
+            }
+            return null;
+        });
+        return inputs == null ? null : calculator.evaluate(inputs.hand(), inputs.upcard(), inputs.unseen());
+    }
+
+    private record EvInputs(Hand hand, Rank upcard, ShoeComposition unseen) { }
+
 
 
 
@@ -2,66 +2,83 @@ package Server;
 
 import Enums.Rank;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Cards held by a player or the dealer, kept as card codes (see
+ * Card.getCode) in a small array. The value is tracked as cards arrive: a
+ * hard total counting every Ace as 1, plus the number of Aces, so one Ace
+ * can be promoted to 11 whenever that does not bust. addCard is O(1) and
+ * every query (value, soft, bust, blackjack) is a field read.
+ */
 public class Hand implements Serializable {
-    private ArrayList<Card> cards;
+    // From one deck at most 11 cards reach 21 (four Aces, four twos, three threes), plus the card that busts
+    private static final int INITIAL_CAPACITY = 12;
+
+    private byte[] cards;
+    private int size;
+    private int hardTotal;      // every Ace counted as 1
+    private int aces;
+    private int handValue;      // best total: hardTotal, plus 10 if an Ace can count as 11
     private boolean isActive;
-    private int handValue;
+    private transient List<Card> view;
 
     public Hand() {
-        cards = new ArrayList<>(64);
+        cards = new byte[INITIAL_CAPACITY];
         isActive = false;
-        handValue = 0;
     }
 
     public void addCard(Card card) {
-        cards.add(card);
+        if (size == cards.length) {
+            cards = Arrays.copyOf(cards, size * 2); // only a multi-deck run of small cards gets here
+        }
+        cards[size++] = (byte) card.getCode();
+        if (card.getRank() == Rank.ACE) {
+            aces++;
+            hardTotal += 1;
+        } else {
+            hardTotal += card.getValue();
+        }
+        handValue = isSoft() ? hardTotal + 10 : hardTotal;
     }
 
     /**
-     * Calculates the hand value, treating Aces as 11 by default,
-     * then reducing them to 1 (subtracting 10) as needed to avoid busting.
+     * The hand value, with one Ace counted as 11 if that does not bust
+     * and every other Ace as 1.
      */
     public int getValue() {
-        int total = 0;
-        int aceCount = 0;
-
-        // First, count all cards assuming Ace = 11
-        for (Card card : cards) {
-            int value = card.getValue();
-            total += value;
-            // Assuming Card has some way to identify an Ace.
-            // If not, adjust this condition to match your Card implementation.
-            if (card.getRank() == Rank.ACE) {
-                aceCount++;
-            }
-        }
+        return handValue;
+    }
 
-        // While we're busting and have Aces counted as 11, turn them into 1
-        // by subtracting 10 for each Ace.
-        while (total > 21 && aceCount > 0) {
-            total -= 10;
-            aceCount--;
-        }
+    /** Total with every Ace counted as 1. */
+    public int getHardTotal() {
+        return hardTotal;
+    }
 
-        this.handValue = total;
-        return handValue;
+    /** True if an Ace is counting as 11, so one more card cannot bust the hand. */
+    public boolean isSoft() {
+        return aces > 0 && hardTotal + 10 <= 21;
     }
 
     public boolean isBust() {
-        return getValue() > 21;
+        return hardTotal > 21;
     }
 
     public boolean isBlackjack() {
         // Standard blackjack: exactly 21 with 2 cards.
-        // If you want "21 with any number of cards" to count, remove the size check.
-        return cards.size() == 2 && getValue() == 21;
+        return size == 2 && handValue == 21;
+    }
+
+    public int size() {
+        return size;
     }
 
     public void clearHand() {
-        cards.clear();
+        size = 0;
+        hardTotal = 0;
+        aces = 0;
         handValue = 0;
         isActive = false;
     }
@@ -69,18 +86,35 @@ public class Hand implements Serializable {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Hand: ");
-        for (int i = 0; i < cards.size(); i++) {
-            sb.append(cards.get(i).toString());
-            if (i < cards.size() - 1) {
+        for (int i = 0; i < size; i++) {
+            sb.append(Card.fromCode(cards[i]).toString());
+            if (i < size - 1) {
                 sb.append(", ");
             }
         }
-        sb.append(" (value = ").append(getValue()).append(")");
+        sb.append(" (value = ").append(handValue).append(")");
         return sb.toString();
     }
 
+    /** Read-only view of the cards, in the order they were dealt; follows later changes to the hand. */
     public List<Card> getCards() {
-        return cards;
+        if (view == null) {
+            view = new AbstractList<Card>() {
+                @Override
+                public Card get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+                    }
+                    return Card.fromCode(cards[index]);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return view;
     }
 
     // Optional: getters/setters for isActive if you use them elsewhere
@@ -91,4 +125,4 @@ public class Hand implements Serializable {
     public void setActive(boolean active) {
         isActive = active;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,223 @@
+package Server;
+
+import Enums.LogLevel;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Leveled server logging by category ("Server", "NioServer", ...). The
+ * level check is one volatile read and comes before anything else, so a
+ * disabled call costs nothing: no string building, no lock. Enabled calls
+ * take a "{}" template and up to three arguments, which are formatted on a
+ * background appender thread rather than the caller's; the appender writes
+ * a whole batch to the console at once instead of one synchronized println
+ * per line. Arguments should be immutable (strings, enums, numbers). The
+ * error overloads ending in a Throwable write its stack trace after the line.
+ *
+ * Levels come from system properties: blackjack.log.level for every
+ * category (default INFO) and blackjack.log.[category] for one category,
+ * or setLevel() at runtime.
+ */
+public final class Log {
+    private static final LogLevel DEFAULT_LEVEL =
+            LogLevel.valueOf(System.getProperty("blackjack.log.level", LogLevel.INFO.name()));
+    private static final ConcurrentHashMap<String, Log> loggers = new ConcurrentHashMap<>();
+
+    private final String prefix;
+    private volatile int threshold;
+
+    private Log(String category) {
+        this.prefix = "[" + category + "] ";
+        String configured = System.getProperty("blackjack.log." + category);
+        this.threshold = (configured == null ? DEFAULT_LEVEL : LogLevel.valueOf(configured)).ordinal();
+    }
+
+    public static Log get(String category) {
+        return loggers.computeIfAbsent(category, Log::new);
+    }
+
+    public static void setLevel(String category, LogLevel level) {
+        get(category).threshold = level.ordinal();
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String template) {
+        if (LogLevel.DEBUG.ordinal() >= threshold) Appender.add(LogLevel.DEBUG, prefix, template, null, null, null);
+    }
+
+    public void debug(String template, Object a) {
+        if (LogLevel.DEBUG.ordinal() >= threshold) Appender.add(LogLevel.DEBUG, prefix, template, a, null, null);
+    }
+
+    public void debug(String template, Object a, Object b) {
+        if (LogLevel.DEBUG.ordinal() >= threshold) Appender.add(LogLevel.DEBUG, prefix, template, a, b, null);
+    }
+
+    public void info(String template) {
+        if (LogLevel.INFO.ordinal() >= threshold) Appender.add(LogLevel.INFO, prefix, template, null, null, null);
+    }
+
+    public void info(String template, Object a) {
+        if (LogLevel.INFO.ordinal() >= threshold) Appender.add(LogLevel.INFO, prefix, template, a, null, null);
+    }
+
+    public void info(String template, Object a, Object b) {
+        if (LogLevel.INFO.ordinal() >= threshold) Appender.add(LogLevel.INFO, prefix, template, a, b, null);
+    }
+
+    public void info(String template, Object a, Object b, Object c) {
+        if (LogLevel.INFO.ordinal() >= threshold) Appender.add(LogLevel.INFO, prefix, template, a, b, c);
+    }
+
+    public void warn(String template, Object a) {
+        if (LogLevel.WARN.ordinal() >= threshold) Appender.add(LogLevel.WARN, prefix, template, a, null, null);
+    }
+
+    public void warn(String template, Object a, Object b) {
+        if (LogLevel.WARN.ordinal() >= threshold) Appender.add(LogLevel.WARN, prefix, template, a, b, null);
+    }
+
+    public void warn(String template, Object a, Object b, Object c) {
+        if (LogLevel.WARN.ordinal() >= threshold) Appender.add(LogLevel.WARN, prefix, template, a, b, c);
+    }
+
+    public void error(String template, Object a) {
+        if (LogLevel.ERROR.ordinal() >= threshold) Appender.add(LogLevel.ERROR, prefix, template, a, null, null);
+    }
+
+    public void error(String template, Object a, Object b) {
+        if (LogLevel.ERROR.ordinal() >= threshold) Appender.add(LogLevel.ERROR, prefix, template, a, b, null);
+    }
+
+    public void error(String template, Throwable t) {
+        if (LogLevel.ERROR.ordinal() >= threshold) Appender.add(LogLevel.ERROR, prefix, template, null, null, null, t);
+    }
+
+    public void error(String template, Object a, Throwable t) {
+        if (LogLevel.ERROR.ordinal() >= threshold) Appender.add(LogLevel.ERROR, prefix, template, a, null, null, t);
+    }
+
+    /** Waits until every line logged before this call has been written. */
+    public static void flush() {
+        Appender.flush();
+    }
+
+    /** Lines dropped because the appender fell behind. */
+    public static long getDropped() {
+        return Appender.dropped.get();
+    }
+
+    // Replaces each "{}" in template with the next argument
+    static String format(String prefix, String template, Object a, Object b, Object c) {
+        StringBuilder sb = new StringBuilder(prefix.length() + template.length() + 32).append(prefix);
+        int arg = 0;
+        int from = 0;
+        int at;
+        while ((at = template.indexOf("{}", from)) >= 0) {
+            sb.append(template, from, at);
+            sb.append(arg == 0 ? a : arg == 1 ? b : c);
+            arg++;
+            from = at + 2;
+        }
+        return sb.append(template, from, template.length()).toString();
+    }
+
+    // The line, then the stack trace on the lines below it
+    static String format(String prefix, String template, Object a, Object b, Object c, Throwable thrown) {
+        String text = format(prefix, template, a, b, c);
+        if (thrown == null) {
+            return text;
+        }
+        StringWriter trace = new StringWriter();
+        thrown.printStackTrace(new PrintWriter(trace));
+        return text + System.lineSeparator() + trace.toString().stripTrailing();
+    }
+
+    // One background writer for all categories. WARN and above go to System.err.
+    private static final class Appender {
+        private record Line(LogLevel level, String prefix, String template, Object a, Object b, Object c,
+                            Throwable thrown) { }
+
+        private static final MpscRingBuffer<Line> ring = new MpscRingBuffer<>(1 << 14);
+        private static final AtomicLong dropped = new AtomicLong();
+        private static final Thread writer;
+        private static volatile boolean parked;
+        private static volatile long writtenUpTo;
+
+        static {
+            writer = new Thread(Appender::writeLoop, "LogAppender");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Appender::flush, "LogAppenderShutdown"));
+        }
+
+        // Never blocks the caller: if the console cannot keep up, lines are dropped and counted
+        static void add(LogLevel level, String prefix, String template, Object a, Object b, Object c) {
+            add(level, prefix, template, a, b, c, null);
+        }
+
+        static void add(LogLevel level, String prefix, String template, Object a, Object b, Object c, Throwable thrown) {
+            if (!ring.offer(new Line(level, prefix, template, a, b, c, thrown))) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (parked) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        static void flush() {
+            long target = ring.getOffered();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (writtenUpTo < target && writer.isAlive() && System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(100_000);
+            }
+        }
+
+        private static void writeLoop() {
+            StringBuilder out = new StringBuilder(8192);
+            StringBuilder err = new StringBuilder(1024);
+            while (true) {
+                Line line;
+                int n = 0;
+                while (n < 1024 && (line = ring.poll()) != null) {
+                    String text = format(line.prefix(), line.template(), line.a(), line.b(), line.c(), line.thrown());
+                    (line.level().ordinal() >= LogLevel.WARN.ordinal() ? err : out).append(text).append(System.lineSeparator());
+                    n++;
+                }
+                write(System.out, out);
+                write(System.err, err);
+                writtenUpTo = ring.getConsumed();
+                if (n == 0) {
+                    parked = true;
+                    if (ring.isEmpty()) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        private static void write(PrintStream stream, StringBuilder text) {
+            if (text.length() > 0) {
+                stream.print(text);
+                stream.flush();
+                text.setLength(0);
+            }
+        }
+    }
+}
@@ -1,163 +1,473 @@
 package Server;
 
+import Enums.AccState;
+
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Account store. Accounts are indexed by lower-cased username in a
+ * ConcurrentHashMap, so login is an O(1) lock-free lookup and registration
+ * claims a name with a single putIfAbsent. The lock is only taken for the
+ * file load and save.
+ *
+ * Once loadData() has run, every registration is also appended to a journal
+ * next to the snapshot file, and every balance or state change is written
+ * in place into the account's slot of a memory-mapped BalanceLedger, so a
+ * crash loses nothing that was acknowledged. save() is the compaction step:
+ * it rotates the journal aside, rewrites the snapshot from memory and then
+ * drops the rotated journal. It runs at shutdown and, in the background,
+ * whenever the journal grows past COMPACT_AFTER_RECORDS.
+ */
 public class LoginManager {
+    private static final Log log = Log.get("LoginManager");
+
+    // Journal records appended before a background compaction is started
+    public static final long COMPACT_AFTER_RECORDS = Long.getLong("blackjack.compactAfterRecords", 10_000);
+
     // final since we (the developers) determine where data should be stored, not user
     private final String sourceName;
-    private ArrayList<Account> accounts;
-    private int numAccounts;
-    private boolean modified;
+    private final String journalName;
+    private final String ledgerName;
+    private final ConcurrentHashMap<String, Account> byName;
+    private final Queue<Account> accounts;   // registration order, for save() and toString()
+    private final AtomicInteger numAccounts;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private volatile boolean modified;
+    // Explicit lock instead of synchronized: a virtual thread that blocks while
+    // holding a monitor pins its carrier, and enough of those stall the server
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile AccountJournal journal; // null until loadData(): in-memory only
+    private volatile BalanceLedger ledger;   // likewise
+    private final AtomicBoolean compacting = new AtomicBoolean();
 
-    // Saved file data convention: [username],[password],[accType]
+    // Saved file data convention: [username],[password],[accType],[balance],[accState],[ledgerSlot]
+    // (the last three are optional, older files only have the first three)
+    // Journal records: REG,[username],[password],[accType],[ledgerSlot] and, when the ledger
+    // could not be opened, UPD,[username],[balance],[accState]
 
     public LoginManager(){
-        accounts = new ArrayList<>(64);
-        numAccounts = 0;
-        sourceName = "awesomeDB.txt";
+        this("awesomeDB.txt");
+    }
+
+    public LoginManager(String sourceName){
+        byName = new ConcurrentHashMap<>(64);
+        accounts = new ConcurrentLinkedQueue<>();
+        numAccounts = new AtomicInteger();
+        this.sourceName = sourceName;
+        String base = sourceName.endsWith(".txt") ? sourceName.substring(0, sourceName.length() - 4) : sourceName;
+        journalName = base + ".journal";
+        ledgerName = base + ".ledger";
         modified = false;
     }
 
-    public synchronized void loadData(){
-        File file = new File(sourceName);
-        // Create the file if it doesn't exist to prevent FileNotFoundException
-        if (!file.exists()) {
-            try {
-                file.createNewFile();
-                System.out.println("Database file created: " + file.getAbsolutePath());
-            } catch (IOException e) {
-                System.err.println("Could not create database file: " + e.getMessage());
+    // Usernames are unique ignoring case
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    // Claims the name for this account; false if someone already has it.
+    // Accounts loaded from an older file without a slot get the next free one.
+    private boolean register(Account account, int slot) {
+        if (byName.putIfAbsent(key(account.getUsername()), account) != null) {
+            return false;
+        }
+        if (slot < 0) {
+            account.ledgerSlot = nextSlot.getAndIncrement();
+        } else {
+            account.ledgerSlot = slot;
+            nextSlot.accumulateAndGet(slot + 1, Math::max);
+        }
+        accounts.add(account);
+        numAccounts.incrementAndGet();
+        account.setChangeListener(this::journalChange);
+        return true;
+    }
+
+    private static Account newAccount(String username, String password, String type) {
+        if (type.equalsIgnoreCase("Player")) {
+            return new Player(username, password, 1000);
+        } else if (type.equalsIgnoreCase("Dealer")) {
+            return new Dealer(username, password);
+        }
+        return null;
+    }
+
+    // Changes are queued, not awaited: they mostly happen on a table's thread or an NIO
+    // reactor, neither of which may stall on a disk flush. The writer makes them durable
+    // with its next batch; whoever acknowledges a change to a client waits on whenDurable().
+    private void journalRegistration(Account account) {
+        writeLedger(account); // claims the slot before anything can settle into it
+        AccountJournal j = journal;
+        if (j == null) {
+            return;
+        }
+        j.append("REG," + account.getUsername() + "," + account.password + "," + getTypeString(account) + "," + account.ledgerSlot);
+        compactIfLarge(j);
+    }
+
+    // A settlement or deposit is one in-place write to the account's ledger slot: no file
+    // rewrite and no lock here. Each account's balance only changes on one thread at a
+    // time (its table, or its own handler when not seated), so its slot has one writer.
+    private void journalChange(Account account) {
+        modified = true; // keeps the snapshot's balance column fresh on the next save
+        if (writeLedger(account)) {
+            return;
+        }
+        // No ledger: fall back to journaling the absolute values
+        AccountJournal j = journal;
+        if (j == null) {
+            return;
+        }
+        j.append("UPD," + account.getUsername() + "," + balanceOf(account) + "," + account.getAccState());
+        compactIfLarge(j);
+    }
+
+    private boolean writeLedger(Account account) {
+        BalanceLedger l = ledger;
+        if (l == null) {
+            return false;
+        }
+        try {
+            l.write(account.ledgerSlot, account.getUsername(), balanceOf(account), account.getAccState());
+            return true;
+        } catch (IOException e) {
+            log.error("Ledger write failed for {}: {}", account.getUsername(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static double balanceOf(Account account) {
+        return account instanceof Player player ? player.getBalance() : 0;
+    }
+
+    private void compactIfLarge(AccountJournal j) {
+        if (j.getRecordCount() >= COMPACT_AFTER_RECORDS && compacting.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("AccountCompactor").start(() -> {
+                try {
+                    save();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Completes once every account change made so far is on disk. Never completes
+     * exceptionally: a journal failure is logged and the change stays in memory
+     * until the next save().
+     */
+    public CompletableFuture<Void> whenDurable() {
+        AccountJournal j = journal;
+        CompletableFuture<Void> journaled = j == null ? CompletableFuture.completedFuture(null) : j.sync();
+        return journaled.thenRun(() -> {
+            BalanceLedger l = ledger;
+            if (l != null) {
+                l.force();
+            }
+        }).exceptionally(e -> {
+            log.error("Account sync failed", e);
+            return null;
+        });
+    }
+
+    /** Blocks until every account change made so far is on disk. */
+    public void sync() {
+        whenDurable().join();
+    }
+
+    // Applies one journal record on top of what is already loaded
+    private void replay(String record) {
+        String[] words = record.split(",");
+        if ((words.length == 4 || words.length == 5) && words[0].equals("REG")) {
+            Account account = newAccount(words[1], words[2], words[3]);
+            if (account != null) {
+                // already present when the snapshot caught it first
+                register(account, words.length == 5 ? Integer.parseInt(words[4]) : -1);
+            }
+            return;
+        }
+        if (words.length == 4 && words[0].equals("UPD")) {
+            Account account = byName.get(key(words[1]));
+            if (account == null) {
                 return;
             }
+            if (account instanceof Player player) {
+                player.restoreBalance(Double.parseDouble(words[2]));
+            }
+            account.accountState = AccState.valueOf(words[3]);
+            return;
         }
+        log.warn("Skipping malformed journal record: {}", record);
+    }
+
+    public void loadData(){
+        lock.lock();
+        try {
+            File file = new File(sourceName);
+            // Create the file if it doesn't exist to prevent FileNotFoundException
+            if (!file.exists()) {
+                try {
+                    file.createNewFile();
+                    log.info("Database file created: {}", file.getAbsolutePath());
+                } catch (IOException e) {
+                    log.error("Could not create database file {}", file.getAbsolutePath(), e);
+                    return;
+                }
+            }
         
-        System.out.println("Loading data from: " + file.getAbsolutePath());
+            log.info("Loading data from: {}", file.getAbsolutePath());
         
-        try{
-            Scanner scan = new Scanner(file);
-            while(scan.hasNextLine()){
-                String line = scan.nextLine();
-                if(line.trim().isEmpty()) {
-                    continue; // Skip empty lines
+            try{
+                Scanner scan = new Scanner(file);
+                while(scan.hasNextLine()){
+                    String line = scan.nextLine();
+                    if(line.trim().isEmpty()) {
+                        continue; // Skip empty lines
+                    }
+                    String[] words = line.split(",");
+                    // Ensure there are at least 3 parts: username, password, type
+                    if (words.length < 3) {
+                        log.warn("Skipping malformed line in DB: {}", line);
+                        continue;
+                    }
+
+                    String username = words[0];
+                    String password = words[1];
+                    String type = words[2];
+
+                    // Default balance is 1000 when the file predates the balance column
+                    Account loaded = newAccount(username, password, type);
+                    if (loaded == null) {
+                        log.warn("Invalid account type encountered: {}", type);
+                        continue;
+                    }
+                    if (words.length >= 5) {
+                        if (loaded instanceof Player player) {
+                            player.restoreBalance(Double.parseDouble(words[3]));
+                        }
+                        loaded.accountState = AccState.valueOf(words[4]);
+                    }
+                    int slot = words.length >= 6 ? Integer.parseInt(words[5]) : -1;
+                    if (!register(loaded, slot)) {
+                        log.warn("Skipping duplicate username in DB: {}", username);
+                    }
+                }
+                scan.close();
+                modified = false;
+            } catch(IOException e) {
+                log.error("I/O error loading data", e);
+            } catch(Exception e) {
+                log.error("General error loading data", e);
+            }
+
+            // Changes made after the last snapshot: a journal rotated by a compaction
+            // that never finished, then the live journal
+            try {
+                int replayed = 0;
+                for (Path p : new Path[] { Paths.get(journalName + ".old"), Paths.get(journalName) }) {
+                    List<String> records = AccountJournal.readRecords(p);
+                    for (String record : records) {
+                        replay(record);
+                    }
+                    replayed += records.size();
+                }
+                if (replayed > 0) {
+                    log.info("Replayed {} journal records from: {}", replayed, journalName);
+                    modified = true; // fold them into the snapshot on the next save
                 }
-                String[] words = line.split(",");
-                // Ensure there are at least 3 parts: username, password, type
-                if (words.length < 3) {
-                    System.err.println("Skipping malformed line in DB: " + line);
-                    continue;
+                if (journal == null) {
+                    journal = new AccountJournal(Paths.get(journalName));
                 }
+            } catch(IOException | RuntimeException e) {
+                log.error("Journal error, account changes will only be saved on shutdown", e);
+            }
 
-                String username = words[0];
-                String password = words[1];
-                String type = words[2];
-
-                if(type.equalsIgnoreCase("Player")){
-                    // Assuming default balance is 1000 if not specified in file (Phase 3 likely only stores basic credentials)
-                    accounts.add(new Player(username, password, 1000)); 
-                } else if(type.equalsIgnoreCase("Dealer")){
-                    accounts.add(new Dealer(username, password));
-                } else {
-                    System.err.println("Invalid account type encountered: " + type);
+            // The ledger holds the latest balance and state of every account it has a
+            // record for; accounts it does not know yet get their record written now
+            try {
+                if (ledger == null) {
+                    ledger = new BalanceLedger(Paths.get(ledgerName));
+                }
+                for (Account account : accounts) {
+                    if (ledger.owns(account.ledgerSlot, account.getUsername())) {
+                        if (account instanceof Player player) {
+                            player.restoreBalance(ledger.getBalance(account.ledgerSlot));
+                        }
+                        account.accountState = ledger.getState(account.ledgerSlot);
+                    } else {
+                        writeLedger(account);
+                    }
                 }
+                ledger.force();
+            } catch(IOException | RuntimeException e) {
+                log.error("Ledger error, balances will be journaled instead", e);
+                ledger = null;
             }
-            scan.close();
-            numAccounts = accounts.size();
-            modified = false;
-        } catch(IOException e) {
-            System.err.println("I/O Error loading data: " + e.getMessage());
-        } catch(Exception e) {
-            System.err.println("General error loading data: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
     }
 
-    // Save to file
-    public synchronized void save(){
-        if (!modified) {
-            System.out.println("No changes detected. Skipping save.");
-            return;
+    // Save to file. With a journal open this is also compaction: the journal is
+    // rotated aside first, so once the new snapshot is in place the rotated part is
+    // redundant. Changes that land after the rotation go to the fresh journal and
+    // are replayed on top of the snapshot, which is harmless as records are absolute.
+    public void save(){
+        lock.lock();
+        try {
+            if (!modified) {
+                log.debug("No changes detected, skipping save");
+                return;
+            }
+
+            AccountJournal j = journal;
+            Path rotated = Paths.get(journalName + ".old");
+            try {
+                // A leftover rotated journal means the last save failed; keep the live
+                // journal where it is rather than overwrite the leftover
+                if (j != null && !Files.exists(rotated)) {
+                    j.rotate(rotated).join();
+                }
+                modified = false; // changes from here on mark it again
+                writeSnapshot();
+                Files.deleteIfExists(rotated);
+                log.info("All account data saved to {}", sourceName);
+            } catch(IOException | CompletionException e) {
+                modified = true;
+                log.error("Save failed, changes stay marked for the next save", e);
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        try(FileWriter writer = new FileWriter(sourceName)){
-            for(Account account : accounts){
-                String type = getTypeString(account);
-                // Include account state in the saved data for completeness, though only type/creds are currently used
-                writer.write(account.getUsername() + "," + account.password + "," + type);
-                writer.write("\n");
+    // Writes the snapshot to a temp file, forces it, then swaps it in, so a crash
+    // mid-save leaves the previous snapshot intact
+    private void writeSnapshot() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for(Account account : accounts){
+            sb.append(account.getUsername()).append(',').append(account.password).append(',')
+              .append(getTypeString(account)).append(',').append(balanceOf(account)).append(',')
+              .append(account.getAccState()).append(',').append(account.ledgerSlot).append('\n');
+        }
+        Path target = Paths.get(sourceName).toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
             }
-            modified = false;
-            System.out.println("All account data saved successfully.");
-        } catch(IOException e) {
-            System.err.print("\nSave Error: Failed to write to file!\n");
-            e.printStackTrace();
+            out.force(true);
         }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
-    // Create account and add to ArrayList accounts 
-    public synchronized Account createAccount(String username, String password, String type){
-        for (Account account : accounts){
-            if (account.getUsername().equalsIgnoreCase(username)){
-                throw new IllegalArgumentException("Username already exists: " + username);
+    /** Stops the journal writer and flushes the ledger; call after the final save(). */
+    public void close(){
+        AccountJournal j = journal;
+        journal = null;
+        if (j != null) {
+            try {
+                j.close();
+            } catch(IOException e) {
+                log.error("Error closing journal", e);
             }
         }
+        BalanceLedger l = ledger;
+        ledger = null;
+        if (l != null) {
+            try {
+                l.close();
+            } catch(IOException e) {
+                log.error("Error closing ledger", e);
+            }
+        }
+    }
+
+    // Create account and add it to the index
+    public Account createAccount(String username, String password, String type){
         Account newAccount;
         switch (type.toUpperCase()){
             case "PLAYER":
                 newAccount = new Player(username, password, 1000);
-                accounts.add(newAccount);
-                numAccounts++;
                 break;
             case "DEALER":
                 newAccount = new Dealer(username, password);
-                accounts.add(newAccount);
-                numAccounts++;
                 break;
             default:
                 throw new IllegalArgumentException("Invalid type: " + type);
         }
+        if (!register(newAccount, -1)) {
+            throw new IllegalArgumentException("Username already exists: " + username);
+        }
         modified = true;
-        System.out.println("Account created: " + username + " as " + type);
+        journalRegistration(newAccount);
+        log.info("Account created: {} as {}", username, type);
         return newAccount;
     }
 
     // Convenience method for creating a Player account
-    public synchronized Account createPlayerAccount(String username, String password) {
-        for (Account account : accounts){
-            if (account.getUsername().equalsIgnoreCase(username)){
-                throw new IllegalArgumentException("Username already exists: " + username);
-            }
-        }
+    public Account createPlayerAccount(String username, String password) {
         Player newPlayer = new Player(username, password, 1000);
-        accounts.add(newPlayer);
-        numAccounts++;
+        if (!register(newPlayer, -1)) {
+            throw new IllegalArgumentException("Username already exists: " + username);
+        }
         modified = true;
-        System.out.println("Player account created: " + username);
+        journalRegistration(newPlayer);
+        log.info("Player account created: {}", username);
         return newPlayer;
     }
 
-    // Corrected login: removed unnecessary try-catch block and exception throwing.
-    public synchronized Account login(String username, String password){
-        for(Account account : accounts){
-            if (account.getUsername().equals(username) && account.password.equals(password)){
-                // Assume Account class has a protected/public field for sessionActive
-                account.sessionActive = true; 
-                System.out.println("User " + username + " logged in.");
-                return account;
-            }
+    // One hash lookup, no lock. The name must match exactly (case included) as before;
+    // the case-insensitive key only guarantees there is at most one candidate.
+    // No console output here: the ClientHandler already logs every login, and a
+    // shared System.out would serialize the logins again.
+    public Account login(String username, String password){
+        if (username == null || password == null) {
+            return null;
+        }
+        Account account = byName.get(key(username));
+        if (account != null && account.getUsername().equals(username) && account.password.equals(password)){
+            // Assume Account class has a protected/public field for sessionActive
+            account.sessionActive = true;
+            return account;
         }
-        System.out.print("\nInvalid username / password!\n");
         return null; // Return null if not found
     }
 
     // Implemented logout logic
-    public synchronized void logout(Account account){
+    public void logout(Account account){
         if (account != null) {
             account.sessionActive = false;
-            System.out.println("User " + account.getUsername() + " logged out.");
+            log.info("User {} logged out.", account.getUsername());
         }
     }
 
+    public int getAccountCount() {
+        return numAccounts.get();
+    }
+
     @Override
     public String toString(){
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,82 @@
+package Server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each
+ * slot carries a sequence number: a producer claims a slot by a CAS on the
+ * tail, fills it and then publishes it by advancing the slot's sequence; the
+ * consumer takes a slot only once it is published, then hands it back to
+ * producers one lap later. offer() never blocks, it returns false when full.
+ */
+public class MpscRingBuffer<E> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written by the consumer only
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        items = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    /** Adds e, or returns false if the buffer is full. Safe from any thread. */
+    public boolean offer(E e) {
+        while (true) {
+            long t = tail.get();
+            int slot = (int) t & mask;
+            long seq = sequences.get(slot);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    items[slot] = e;
+                    sequences.set(slot, t + 1); // publish
+                    return true;
+                }
+            } else if (seq < t) {
+                return false; // the consumer has not freed this slot yet
+            }
+            // else another producer took the slot first, try the next one
+        }
+    }
+
+    /** Takes the oldest published element, or null. Consumer thread only. */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head;
+        int slot = (int) h & mask;
+        if (sequences.get(slot) != h + 1) {
+            return null;
+        }
+        E e = (E) items[slot];
+        items[slot] = null;
+        sequences.set(slot, h + items.length); // free for the producer one lap ahead
+        head = h + 1;
+        return e;
+    }
+
+    /** Elements offered so far; the consumer has seen everything below getConsumed(). */
+    public long getOffered() {
+        return tail.get();
+    }
+
+    public long getConsumed() {
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,488 @@
+package Server;
+
+import Enums.MessageType;
+import Message.FrameCodec;
+import Message.JavaSerialCodec;
+import Message.Message;
+import Message.MessageCodec;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking front end. One acceptor thread hands new sockets round-robin
+ * to a small, fixed set of reactor threads. Each reactor multiplexes its
+ * sockets on a Selector, decodes length-prefixed frames (see FrameCodec)
+ * and hands the Messages to the connection's ClientHandler, so an idle
+ * connection costs a few buffers instead of a blocked thread.
+ *
+ * Reactor threads only read, decode and write. Handling a message may
+ * block (table commands wait for the table), so each connection has an
+ * inbox drained by a virtual thread, one message at a time in arrival
+ * order; a slow table stalls only the connections waiting on it.
+ *
+ * A frame or socket that throws costs only its own connection. Should a
+ * reactor still die, the acceptor stops handing it sockets.
+ */
+public class NioServer {
+    private static final Log log = Log.get("NioServer");
+
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+    private final LoginManager manager;
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final Reactor[] reactors;
+    private volatile boolean running;
+    private int nextReactor;
+
+    public NioServer(int port, int ioThreads, LoginManager manager) throws IOException {
+        this.manager = manager;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.socket().setReuseAddress(true);
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        this.serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+        this.reactors = new Reactor[Math.max(1, ioThreads)];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(i);
+        }
+    }
+
+    /** The bound port (useful when constructed with port 0). */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /** Starts the reactor threads and the acceptor thread, then returns. */
+    public void start() {
+        startReactors();
+        Thread acceptor = new Thread(this::acceptLoop, "NioAcceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Starts the reactor threads and runs the acceptor on the calling thread until stopped. */
+    public void serve() {
+        startReactors();
+        acceptLoop();
+    }
+
+    private void startReactors() {
+        running = true;
+        for (Reactor r : reactors) {
+            Thread t = new Thread(r, "NioReactor-" + r.index);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            acceptSelector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            log.error("Error closing acceptor: {}", e.getMessage());
+        }
+        for (Reactor r : reactors) {
+            r.selector.wakeup();
+        }
+    }
+
+    private void acceptLoop() {
+        try {
+            while (running) {
+                acceptSelector.select();
+                Iterator<SelectionKey> it = acceptSelector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    it.next();
+                    it.remove();
+                    SocketChannel channel;
+                    while ((channel = serverChannel.accept()) != null) {
+                        channel.configureBlocking(false);
+                        channel.socket().setTcpNoDelay(true);
+                        Reactor reactor = nextLiveReactor();
+                        if (reactor == null) {
+                            log.error("No reactor left to take connections, refusing {}", String.valueOf(channel.getRemoteAddress()));
+                            channel.close();
+                            continue;
+                        }
+                        reactor.assign(channel);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                log.warn("Acceptor stopped: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Round robin over the reactors that are still running
+    private Reactor nextLiveReactor() {
+        for (int tried = 0; tried < reactors.length; tried++) {
+            Reactor r = reactors[nextReactor];
+            nextReactor = (nextReactor + 1) % reactors.length;
+            if (r.alive) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One socket as seen by the reactor: partial inbound frame, decoded
+     * messages waiting to be handled, queued outbound frames, and the
+     * ClientHandler holding the session state.
+     */
+    static class Connection {
+        private final SocketChannel channel;
+        private final Reactor reactor;
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final Queue<Message> inbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closeWhenFlushed; // said goodbye: close once the queued frames are out
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        private volatile MessageCodec codec = JavaSerialCodec.INSTANCE;
+        private Server.ClientHandler handler;
+        private SelectionKey key;
+
+        private Connection(SocketChannel channel, Reactor reactor) {
+            this.channel = channel;
+            this.reactor = reactor;
+        }
+
+        /** Queues a message for writing; safe to call from any thread. */
+        void send(Message msg) throws IOException {
+            if (closed.get()) {
+                throw new IOException("Connection closed");
+            }
+            outbound.add(ByteBuffer.wrap(FrameCodec.encode(msg, codec)));
+            reactor.requestFlush(this);
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        // Called by the reactor; the worker is started only if none is running
+        private void deliver(Message msg) {
+            inbox.add(msg);
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("NioHandler").start(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Message msg;
+                while (!closed.get() && (msg = inbox.poll()) != null) {
+                    reactor.handle(this, msg);
+                }
+            } finally {
+                draining.set(false);
+                // A message that arrived after our last poll would otherwise wait for the next one
+                if (!closed.get() && !inbox.isEmpty() && draining.compareAndSet(false, true)) {
+                    Thread.ofVirtual().name("NioHandler").start(this::drain);
+                }
+            }
+        }
+
+        /**
+         * Closes the socket once; the reactor drops the key on its next pass.
+         * Returns false if the connection was already closed.
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing channel: {}", e.getMessage());
+            }
+            reactor.selector.wakeup();
+            return true;
+        }
+    }
+
+    private class Reactor implements Runnable {
+        private final int index;
+        private final Selector selector;
+        private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> pendingFlushes = new ConcurrentLinkedQueue<>();
+        private Thread thread;
+        private volatile boolean alive = true;
+
+        Reactor(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+        }
+
+        void assign(SocketChannel channel) {
+            pendingChannels.add(channel);
+            if (!alive) {
+                closePending(); // died while we were handing it over
+                return;
+            }
+            selector.wakeup();
+        }
+
+        void requestFlush(Connection conn) {
+            if (Thread.currentThread() == thread) {
+                flush(conn);
+            } else {
+                pendingFlushes.add(conn);
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                while (running) {
+                    selector.select();
+                    registerPending();
+                    drainFlushes();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Connection conn = (Connection) key.attachment();
+                        try {
+                            if (!key.isValid()) {
+                                disconnect(conn);
+                                continue;
+                            }
+                            if (key.isReadable()) {
+                                read(conn);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(conn);
+                            }
+                        } catch (RuntimeException e) {
+                            dropAfterFailure(conn, e);
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    log.error("Reactor {} stopped: {}", index, e.getMessage());
+                }
+            } catch (RuntimeException | Error e) {
+                log.error("Reactor {} died", index, e);
+                throw e;
+            } finally {
+                alive = false;
+                closePending();
+                for (SelectionKey key : selector.keys()) {
+                    disconnect((Connection) key.attachment());
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pendingChannels.poll()) != null) {
+                Connection conn = new Connection(channel, this);
+                try {
+                    conn.handler = new Server.ClientHandler(conn, manager);
+                    conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+                    log.info("New client connected: {}", conn.handler.getClientID());
+                } catch (IOException | RuntimeException e) {
+                    disconnect(conn);
+                }
+            }
+        }
+
+        private void drainFlushes() {
+            Connection conn;
+            while ((conn = pendingFlushes.poll()) != null) {
+                try {
+                    flush(conn);
+                } catch (RuntimeException e) {
+                    dropAfterFailure(conn, e);
+                }
+            }
+        }
+
+        // Sockets handed over but never registered: nobody else will close them
+        private void closePending() {
+            SocketChannel channel;
+            while ((channel = pendingChannels.poll()) != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void dropAfterFailure(Connection conn, RuntimeException e) {
+            log.error("Dropping {} after an unexpected failure", conn == null || conn.handler == null
+                    ? "connection" : conn.handler.getClientID(), e);
+            disconnect(conn);
+        }
+
+        private void read(Connection conn) {
+            int n;
+            try {
+                n = conn.channel.read(conn.readBuffer);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                disconnect(conn);
+                return;
+            }
+
+            ByteBuffer buf = conn.readBuffer;
+            buf.flip();
+            while (buf.remaining() >= FrameCodec.HEADER_BYTES) {
+                int length = buf.getInt(buf.position());
+                if (length < 0 || length > FrameCodec.MAX_FRAME_BYTES) {
+                    log.warn("Dropping client with bad frame length {}", length);
+                    disconnect(conn);
+                    return;
+                }
+                if (buf.remaining() < FrameCodec.HEADER_BYTES + length) {
+                    break;
+                }
+                int bodyStart = buf.position() + FrameCodec.HEADER_BYTES;
+                buf.position(bodyStart + length);
+                dispatch(conn, buf.array(), bodyStart, length);
+                if (conn.isClosed()) {
+                    return;
+                }
+            }
+
+            // Grow the buffer when the pending frame does not fit
+            if (buf.remaining() >= FrameCodec.HEADER_BYTES) {
+                int needed = FrameCodec.HEADER_BYTES + buf.getInt(buf.position());
+                if (needed > buf.capacity()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(needed);
+                    bigger.put(buf);
+                    conn.readBuffer = bigger;
+                    return;
+                }
+            }
+            buf.compact();
+        }
+
+        private void dispatch(Connection conn, byte[] body, int offset, int length) {
+            Message msg;
+            try {
+                msg = FrameCodec.decode(body, offset, length, conn.codec);
+            } catch (IOException | ClassNotFoundException e) {
+                log.warn("Undecodable frame: {}", e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                // whatever the payload's readObject threw: this client only
+                log.warn("Dropping {}, frame failed to decode: {}", conn.handler.getClientID(), String.valueOf(e));
+                disconnect(conn);
+                return;
+            }
+            conn.deliver(msg);
+        }
+
+        // Runs on the connection's worker, never on the reactor thread. HELLO goes
+        // through here too, so the codec only switches after earlier replies are queued.
+        private void handle(Connection conn, Message msg) {
+            if (msg.getMessageType() == MessageType.HELLO) {
+                negotiateCodec(conn, msg);
+                return;
+            }
+            try {
+                conn.handler.handleMessage(msg);
+            } catch (RuntimeException e) {
+                // One bad request must not end the session
+                conn.handler.replyFailed(msg, e);
+            }
+            if (!conn.handler.isConnected()) {
+                // EXIT: let the goodbye frame go out first
+                conn.closeWhenFlushed = true;
+                requestFlush(conn);
+            }
+        }
+
+        // Pick the first codec the client offered that we speak; the answer
+        // still goes out in the old codec, everything after it in the new one
+        private void negotiateCodec(Connection conn, Message hello) {
+            MessageCodec chosen = JavaSerialCodec.INSTANCE;
+            if (hello.getPayload() instanceof String[] offered) {
+                for (String name : offered) {
+                    MessageCodec candidate = FrameCodec.codecFor(name);
+                    if (candidate != null) {
+                        chosen = candidate;
+                        break;
+                    }
+                }
+            }
+            try {
+                conn.send(new Message(UUID.randomUUID().toString(), MessageType.OK, "SERVER",
+                        hello.getSender(), chosen.getName(), LocalDateTime.now()));
+                conn.codec = chosen;
+            } catch (IOException e) {
+                disconnect(conn);
+            }
+        }
+
+        private void flush(Connection conn) {
+            if (conn.isClosed() || conn.key == null || !conn.key.isValid()) {
+                return;
+            }
+            try {
+                ByteBuffer head;
+                while ((head = conn.outbound.peek()) != null) {
+                    conn.channel.write(head);
+                    if (head.hasRemaining()) {
+                        // socket buffer full, resume when writable
+                        conn.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    conn.outbound.poll();
+                }
+                if (conn.closeWhenFlushed) {
+                    disconnect(conn);
+                    return;
+                }
+                conn.key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException e) {
+                disconnect(conn);
+            }
+        }
+
+        // Safe from any thread: only the first caller closes and cleans up
+        private void disconnect(Connection conn) {
+            if (conn == null) {
+                return;
+            }
+            if (conn.key != null) {
+                conn.key.cancel();
+            }
+            if (conn.close() && conn.handler != null) {
+                conn.handler.cleanup();
+            }
+        }
+    }
+}
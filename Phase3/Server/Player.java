@@ -29,7 +29,7 @@ public class Player extends Account {
 
     public boolean hit(Card card){
         hand.addCard(card);
-        return hand.getValue() > 21; // true = bust
+        return hand.isBust(); // true = bust
     }
 
     public void stand(){
@@ -45,10 +45,16 @@ public class Player extends Account {
 
     public void updateBalance(double amount){
         this.balance += amount;
+        changed();
+    }
+
+    // Used when replaying the account journal; sets the balance without journaling it again
+    void restoreBalance(double balance){
+        this.balance = balance;
     }
 
     public boolean isBust(){
-        return hand.getValue() > 21;
+        return hand.isBust();
     }
 
     public double getBalance(){
@@ -3,10 +3,15 @@ package Server;
 import Enums.GameState;
 import Enums.MessageType;
 import Enums.PlayerAction;
+import Enums.ServerMode;
+import Enums.TableTimer;
+import Analytics.StrategyTable;
 import Message.Message;
+import Shared.TableDelta;
 import Shared.TableSnapshot;
 import java.io.*;
 import java.net.*;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -14,8 +19,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Central server entry point. Manages a shared LoginManager and
@@ -23,7 +31,9 @@ import java.util.concurrent.Executors;
  */
 public class Server {
     private static LoginManager manager;
+    private static final Log log = Log.get("Server");
     private static final int MAX_THREADS = 100;
+    private static final int NIO_IO_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
 
     // Tables by ID
     private static final Map<String, GameTable> tables = new ConcurrentHashMap<>();
@@ -31,25 +41,114 @@ public class Server {
     // For each table ID, which client handlers are attached (dealer + players)
     private static final Map<String, List<ClientHandler>> tableClients = new ConcurrentHashMap<>();
 
+    // How long a WAIT_TABLE_STATE is held before answering "unchanged"
+    private static final long LONG_POLL_TIMEOUT_MS = 25_000;
+
+    // How long the first player at a table waits before the round starts on its own
+    private static final long AUTO_START_DELAY_MS = 30_000;
+
+    // Table deadlines and long-poll timeouts all run off this one clock
+    private static final TableScheduler scheduler = TableScheduler.shared();
+
+    // Basic strategy behind REQUEST_ADVICE: read from -Dblackjack.strategyTable
+    // (default basic_strategy.bin), or generated and written there on first use
+    private static final class Advice {
+        static final StrategyTable TABLE = load();
+
+        private static StrategyTable load() {
+            String path = System.getProperty("blackjack.strategyTable", "basic_strategy.bin");
+            try {
+                return StrategyTable.loadOrGenerate(Paths.get(path), GameTable.SHOE_DECKS);
+            } catch (IOException e) {
+                log.warn("Could not store the strategy table in {}: {}", path, e.getMessage());
+                return StrategyTable.generate(GameTable.SHOE_DECKS);
+            }
+        }
+    }
+
+    /**
+     * (Re)starts the clock on whoever's turn it is now. Call after anything
+     * that can move the turn; the previous deadline is replaced, and if no
+     * round is in progress it is simply dropped. When the clock runs out the
+     * player is stood, the table hears about it, and the next player's clock
+     * starts.
+     *
+     * Deadlines carry the turn's sequence number as their generation, so a
+     * caller that read an older turn (another handler's call can overtake
+     * it) never replaces or cancels the deadline of a newer one.
+     */
+    static void scheduleTurnTimeout(GameTable table) {
+        String tableId = table.getTableID();
+        GameTable.Turn turn = table.getTurn();
+        long timeoutMs = table.getTurnTimeoutMs();
+        if (!turn.onTheClock() || timeoutMs <= 0) {
+            scheduler.cancel(tableId, TableTimer.TURN_TIMEOUT, turn.sequence());
+            return;
+        }
+        scheduler.schedule(tableId, TableTimer.TURN_TIMEOUT, turn.sequence(), timeoutMs, () -> {
+            if (table.timeOutTurn(turn.sequence())) {
+                broadcastTable(table);
+                scheduleTurnTimeout(table);
+            }
+        });
+    }
+
+    /**
+     * Tells every connection at the table that it changed: subscribed
+     * connections get a TABLE_DELTA/TABLE_SNAPSHOT push, a parked
+     * WAIT_TABLE_STATE gets its reply. Connections that already hold the
+     * current revision are skipped, so an idle table sends nothing; every
+     * other connection still gets its own snapshot built and diffed.
+     */
+    static void broadcastTable(GameTable table) {
+        List<ClientHandler> list = tableClients.get(table.getTableID());
+        if (list == null) {
+            return;
+        }
+        for (ClientHandler handler : list) {
+            if (handler.subscribed) {
+                handler.pushTableView(table);
+            }
+            handler.answerParkedPoll(table);
+        }
+    }
+
     /**
      * ClientHandler implementation embedded to avoid separate file.
+     * Runs either as a blocking Runnable over an object stream socket, or
+     * as the session state behind a NioServer connection.
      */
-    private static class ClientHandler implements Runnable {
+    static class ClientHandler implements Runnable {
         private final Socket socket;
+        private final NioServer.Connection connection;
         private final String clientID;
         private ObjectOutputStream out;
         private ObjectInputStream in;
-        private boolean connected;
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private volatile boolean connected;
         private final LoginManager manager;
         private Account account;
         private GameTable table;
 
         // new - which table this connection is attached to, if any
-        private GameTable currentTable;
+        private volatile GameTable currentTable;
         private String currentTableId;
 
+        // Last table view this connection was sent; deltas are computed against it.
+        // Guarded by viewLock, which is also held while the view is sent so
+        // deltas leave in revision order.
+        private TableSnapshot lastSnapshot;
+        private final ReentrantLock viewLock = new ReentrantLock();
+
+        // Push table views without being asked (SUBSCRIBE)
+        private volatile boolean subscribed;
+
+        // WAIT_TABLE_STATE waiting for the table to move, if any
+        private final AtomicReference<Message> parkedPoll = new AtomicReference<>();
+
         public ClientHandler(Socket socket, LoginManager manager) {
             this.socket = socket;
+            this.connection = null;
             this.manager = manager;
             this.clientID = UUID.randomUUID().toString();
             this.connected = false;
@@ -59,6 +158,19 @@ public class Server {
             this.table = null;
         }
 
+        // Non-blocking connection: the reactor owns the socket and feeds us decoded messages
+        ClientHandler(NioServer.Connection connection, LoginManager manager) {
+            this.socket = null;
+            this.connection = connection;
+            this.manager = manager;
+            this.clientID = UUID.randomUUID().toString();
+            this.connected = true;
+            this.account = null;
+            this.currentTable = null;
+            this.currentTableId = null;
+            this.table = null;
+        }
+
         @Override
         public void run() {
             try {
@@ -66,22 +178,26 @@ public class Server {
                 this.out.flush();
                 this.in = new ObjectInputStream(socket.getInputStream());
 
-                System.out.println("[Server] New client connected: " + clientID);
+                log.info("New client connected: {}", clientID);
                 connected = true;
 
                 while (connected) {
                     try {
                         Message msg = (Message) in.readObject();
-                        handleMessage(msg);
+                        try {
+                            handleMessage(msg);
+                        } catch (RuntimeException e) {
+                            replyFailed(msg, e);
+                        }
                     } catch (EOFException e) {
-                        System.out.println("[Server] Client " + clientID + " disconnected.");
+                        log.info("Client {} disconnected.", clientID);
                         connected = false;
                     } catch (ClassNotFoundException e) {
-                        System.err.println("[Server] Unknown message type: " + e.getMessage());
+                        log.warn("Unknown message type: {}", e.getMessage());
                     }
                 }
             } catch (IOException e) {
-                System.err.println("[Server] Error in ClientHandler: " + e.getMessage());
+                log.error("Error in ClientHandler: {}", e.getMessage());
             } finally {
                 cleanup();
             }
@@ -103,8 +219,8 @@ public class Server {
         
         
 
-        private void handleMessage(Message msg) {
-            System.out.println("[Server] Received from " + clientID + ": " + msg.getMessageType());
+        void handleMessage(Message msg) {
+            log.debug("Received from {}: {}", clientID, msg.getMessageType());
 
             switch (msg.getMessageType()) {
                 case LOGIN:
@@ -143,6 +259,15 @@ public class Server {
                 case REQUEST_TABLE_STATE:
                     handleRequestTableState(msg); //done (?)
                     break;
+                case SUBSCRIBE:
+                    handleSubscribe(msg);
+                    break;
+                case WAIT_TABLE_STATE:
+                    handleWaitTableState(msg);
+                    break;
+                case REQUEST_ADVICE:
+                    handleRequestAdvice(msg);
+                    break;
                 case START:
                     handleStart(msg);
                     break;
@@ -153,7 +278,7 @@ public class Server {
                     handleExit(msg); //done
                     break;
                 default:
-                    System.out.println("[Server] Unhandled message type: " + msg.getMessageType());
+                    log.warn("Unhandled message type: {}", msg.getMessageType());
             }
         }
 
@@ -175,18 +300,24 @@ public class Server {
 
             GameTable table = currentTable;
 
-            // Optional: only allow reset from RESULTS
-            if (table.getState() != GameState.RESULTS) {
+            // Optional: only allow reset from RESULTS.
+            // Check and reset in one table command so nothing slips in between.
+            boolean reset = table.callOnTable(() -> {
+                if (table.getState() != GameState.RESULTS) {
+                    return false;
+                }
+                // This clears hands, bets, flags, and goes back to BETTING
+                table.resetForNextRound();
+                return true;
+            });
+            if (!reset) {
                 sendMessage(createErrorResponse(msg, "Cannot reset round unless state is RESULTS"));
                 return;
             }
 
-            // This clears hands, bets, flags, and goes back to BETTING
-            table.resetForNextRound();
-
-            // Send updated snapshot back; others will see it via their polling
-            TableSnapshot snapshot = table.createSnapshotFor(null);
-            sendMessage(createOKResponse(msg, snapshot));
+            // Send updated snapshot back; others get it pushed
+            sendTableView(msg, table, null);
+            broadcastTable(table);
         }
 
 
@@ -198,23 +329,32 @@ public class Server {
 
             GameTable table = currentTable;
 
-            // If we are coming from a finished round, reset everything
-            if (table.getState() == GameState.RESULTS) {
-                table.resetForNextRound();
-            }
-
-            boolean started = table.startRound();
+            boolean started = table.callOnTable(() -> {
+                // If we are coming from a finished round, reset everything
+                if (table.getState() == GameState.RESULTS) {
+                    table.resetForNextRound();
+                }
+                return table.startRound();
+            });
             if (!started) {
                 sendMessage(createErrorResponse(msg,
                         "Error starting round. Make sure the table is in BETTING state and at least one player has a valid bet."));
                 return;
             }
+            scheduler.cancel(table.getTableID(), TableTimer.AUTO_START); // dealer started early
+            scheduleTurnTimeout(table);
 
-            TableSnapshot snapshot = table.createSnapshotFor(null);
-            sendMessage(createOKResponse(msg, snapshot));
+            sendTableView(msg, table, null);
+            broadcastTable(table);
         }
 
 
+        // Account changes are acknowledged only once the journal has them on disk. The
+        // wait happens off this thread so an NIO reactor never blocks on a disk flush.
+        private void replyWhenDurable(Message reply) {
+            manager.whenDurable().thenRunAsync(() -> sendMessage(reply), Thread::startVirtualThread);
+        }
+
         private void handleDeposit(Message msg){
             // 1. Validate payload type
             if(!(msg.getPayload() instanceof String)){
@@ -249,9 +389,21 @@ public class Server {
             // Replace "account" with however you track accounts
             // Example:
             // account.deposit(deposit);
-            if(account instanceof Player){
-                ((Player)account).updateBalance(deposit);
-                sendMessage(createOKResponse(msg, "Deposit successful: " + deposit));
+            if(account instanceof Player player){
+                GameTable table = currentTable;
+                if (table != null) {
+                    // The table settles bets into this balance, so change it on the table's thread
+                    table.runOnTable(() -> {
+                        player.updateBalance(deposit);
+                        table.markChanged(); // balance is part of the table view
+                    });
+                } else {
+                    player.updateBalance(deposit);
+                }
+                replyWhenDurable(createOKResponse(msg, "Deposit successful: " + deposit));
+                if (table != null) {
+                    broadcastTable(table);
+                }
                 return;
             }
 
@@ -280,7 +432,7 @@ public class Server {
             if (authenticatedAccount != null) {
                 this.account = authenticatedAccount;
                 sendMessage(createOKResponse(msg, authenticatedAccount));
-                System.out.println("[Server] User " + username + " logged in.");
+                log.info("User {} logged in.", username);
                 UserLogger.log(username, "LOGIN");
             } else {
                 sendMessage(createErrorResponse(msg, "Invalid credentials or account not active"));
@@ -289,7 +441,7 @@ public class Server {
 
         private void handleLogout(Message msg) {
             if (account != null) {
-                System.out.println("[Server] User " + account.getUsername() + " logged out.");
+                log.info("User {} logged out.", account.getUsername());
                 UserLogger.log(account.getUsername(), "LOGOUT");
                 account = null;
                 sendMessage(createOKResponse(msg, "Logout successful"));
@@ -316,8 +468,8 @@ public class Server {
 
             try {
                 Account newAccount = manager.createAccount(username, password, type);
-                sendMessage(createOKResponse(msg, newAccount));
-                System.out.println("[Server] New account registered: " + username);
+                replyWhenDurable(createOKResponse(msg, newAccount));
+                log.info("New account registered: {}", username);
                 UserLogger.log(username, "REGISTER");
                 this.account = newAccount;
                 return newAccount;
@@ -349,14 +501,15 @@ public class Server {
                 return;
             }
 
-            // Place the bet on this player's object
-            player.placeBet(amount);
-
             GameTable table = currentTable;
 
+            // Place the bet on this player's object
+            table.placeBet(player, amount);
+
             // Do NOT start the round here any more.
-            // Just broadcast an updated snapshot so everyone sees the bet.
-            broadcastSnapshot(table);
+            // Answer the bettor, then push the bet to everyone else.
+            sendTableView(msg, table, null);
+            broadcastTable(table);
         }
 
 
@@ -392,10 +545,10 @@ public class Server {
                 sendMessage(createErrorResponse(msg, "Action not allowed at this time"));
                 return;
             }
+            scheduleTurnTimeout(table);
 
-            TableSnapshot snap = table.createSnapshotFor(player.getUsername());
-            sendMessage(createOKResponse(msg, snap));
-
+            sendTableView(msg, table, null);
+            broadcastTable(table);
         }
 
 
@@ -424,8 +577,9 @@ public class Server {
                 return;
             }
 
-            boolean added = table.addPlayer(player);
-            if (!added) {
+            // Join and count in one table command so exactly one joiner is "first"
+            int seated = table.callOnTable(() -> table.addPlayer(player) ? table.getPlayerCount() : -1);
+            if (seated < 0) {
                 sendMessage(createErrorResponse(msg, "Table is full"));
                 return;
             }
@@ -433,16 +587,18 @@ public class Server {
             // Track which table this client is at
             currentTable = table;
             currentTableId = tableId;
-            tableClients.computeIfAbsent(tableId, k -> new ArrayList<>()).add(this);
+            tableClients.computeIfAbsent(tableId, k -> new CopyOnWriteArrayList<>()).add(this);
 
-            System.out.println("[Server] Player " + player.getUsername() + " joined table " + tableId);
+            log.info("Player {} joined table {}", player.getUsername(), tableId);
 
             // Start the 30 second countdown if this is the first player at this table
-            scheduleAutoStartIfNeeded(table);
+            if (seated == 1) {
+                scheduleAutoStart(table);
+            }
 
-            // Send an initial snapshot to this player
-            TableSnapshot snapshotForPlayer = table.createSnapshotFor(player.getUsername());
-            sendMessage(createOKResponse(msg, snapshotForPlayer));
+            // Send an initial snapshot to this player, then show the new seat to the rest
+            sendTableView(msg, table, null);
+            broadcastTable(table);
 
         }
 
@@ -470,28 +626,46 @@ public class Server {
                 }
             }
 
+            Account leaving = account;
+            int remaining = table.callOnTable(() -> {
+                if (leaving instanceof Player player) {
+                    table.removePlayer(player);
+                    player.resetForNewRound();
+                }
+
+                // If the round is in RESULTS state, wipe the dealer hand
+                if (table.getState() == GameState.RESULTS) {
+                    table.getDealer().getHand().clearHand();
+                    table.markChanged();
+                }
+                return table.getPlayerCount();
+            });
+            if (remaining == 0) {
+                scheduler.cancel(tableId, TableTimer.AUTO_START); // nobody left to start for
+            }
+            scheduleTurnTimeout(table);
+
             if (account instanceof Player player) {
-                table.removePlayer(player);
-                player.resetForNewRound();
-                System.out.println("[Server] Player " + player.getUsername() + " left table " + tableId);
+                log.info("Player {} left table {}", player.getUsername(), tableId);
             } else if (account instanceof Dealer dealer) {
                 // Dealer leaves - for now, just log it
-                System.out.println("[Server] Dealer " + dealer.getUsername() + " detached from table " + tableId);
-            }
-            
-            // If the round is in RESULTS state, wipe the dealer hand
-            if (table.getState() == GameState.RESULTS) {
-                table.getDealer().getHand().clearHand();
+                log.info("Dealer {} detached from table {}", dealer.getUsername(), tableId);
             }
 
             currentTable = null;
             currentTableId = null;
+            viewLock.lock();
+            try {
+                lastSnapshot = null;
+            } finally {
+                viewLock.unlock();
+            }
 
             sendMessage(createOKResponse(msg, "Left table"));
 
             // Notify remaining clients at that table
             if (tables.containsKey(tableId)) {
-                broadcastSnapshot(table);
+                broadcastTable(table);
             }
         }
 
@@ -522,16 +696,16 @@ public class Server {
             // Attach this connection to the table
             currentTable = table;
             currentTableId = tableId;
-            tableClients.computeIfAbsent(tableId, k -> new ArrayList<>()).add(this);
+            tableClients.computeIfAbsent(tableId, k -> new CopyOnWriteArrayList<>()).add(this);
 
-            // Initial snapshot for dealer (no "you" flag, so pass null as player id)
-            TableSnapshot snapshot = table.createSnapshotFor(null);
+            log.info("Dealer {} created table {}", dealer.getUsername(), tableId);
 
-            System.out.println("[Server] Dealer " + dealer.getUsername() + " created table " + tableId);
-            sendMessage(createOKResponse(msg, snapshot));
+            // Initial snapshot for dealer (no "you" flag)
+            sendTableView(msg, table, null);
         }
 
-        private void handleRequestTableState(Message msg) {
+        // Replies OK with the PlayerAction basic strategy picks for the sender's hand
+        private void handleRequestAdvice(Message msg) {
             if (account == null) {
                 sendMessage(createErrorResponse(msg, "Not logged in"));
                 return;
@@ -541,118 +715,252 @@ public class Server {
                 return;
             }
 
-            GameTable table = currentTable;
-
-            TableSnapshot snapshot;
-            if (account instanceof Player p) {
-                snapshot = table.createSnapshotFor(p.getUsername());
-            } else {
-                // dealer or something else
-                snapshot = table.createSnapshotFor(null);
+            PlayerAction advice = currentTable.bestAction(account.getUsername(), Advice.TABLE);
+            if (advice == null) {
+                sendMessage(createErrorResponse(msg, "No hand in play to advise on"));
+                return;
             }
-
-            sendMessage(createOKResponse(msg, snapshot));
+            sendMessage(createOKResponse(msg, advice));
         }
 
+        private void handleRequestTableState(Message msg) {
+            if (account == null) {
+                sendMessage(createErrorResponse(msg, "Not logged in"));
+                return;
+            }
+            if (currentTable == null) {
+                sendMessage(createErrorResponse(msg, "Not currently at a table"));
+                return;
+            }
 
+            // Payload is the revision the client already holds (Long), or null for a full resync
+            Long clientRevision = msg.getPayload() instanceof Long rev ? rev : null;
+            sendTableView(msg, currentTable, clientRevision);
+        }
 
-        private void handleExit(Message msg){
-            
-            sendMessage(createOKResponse(msg, "See you next time!"));
-            connected = false;
+        /*
+         * Start pushing table views to this connection. There is no OK reply:
+         * the client reads pushes on its own thread from here on, and the first
+         * push (a full snapshot if we are at a table) doubles as the ack.
+         * Sending SUBSCRIBE again forces a full resync.
+         */
+        private void handleSubscribe(Message msg) {
+            if (account == null) {
+                sendMessage(createErrorResponse(msg, "Not logged in"));
+                return;
+            }
+            viewLock.lock();
+            try {
+                subscribed = true;
+                lastSnapshot = null;
+            } finally {
+                viewLock.unlock();
+            }
+            GameTable table = currentTable;
+            if (table != null) {
+                pushTableView(table);
+            }
         }
 
-        
+        /*
+         * Long-poll for clients that cannot keep a push stream open. Payload is
+         * the revision the client holds; the reply (an OK with a delta or
+         * snapshot) goes out as soon as the table moves past it, or after
+         * LONG_POLL_TIMEOUT_MS with an empty delta.
+         */
+        private void handleWaitTableState(Message msg) {
+            if (account == null) {
+                sendMessage(createErrorResponse(msg, "Not logged in"));
+                return;
+            }
+            if (currentTable == null) {
+                sendMessage(createErrorResponse(msg, "Not currently at a table"));
+                return;
+            }
+            if (!(msg.getPayload() instanceof Long clientRevision)) {
+                sendMessage(createErrorResponse(msg, "Expected held revision (Long) as payload"));
+                return;
+            }
 
-        private void broadcastSnapshot(GameTable table) {
-            String tableId = table.getTableID();
-            List<ClientHandler> list = tableClients.get(tableId);
-            if (list == null || list.isEmpty()) {
+            GameTable table = currentTable;
+            if (table.getRevision() > clientRevision) {
+                sendTableView(msg, table, clientRevision);
                 return;
             }
 
-            for (ClientHandler handler : list) {
-                TableSnapshot snapshot;
+            // Park it; a newer poll replaces (and answers) an older one
+            Message previous = parkedPoll.getAndSet(msg);
+            if (previous != null) {
+                sendTableView(previous, table, (Long) previous.getPayload());
+            }
+            scheduler.after(LONG_POLL_TIMEOUT_MS, () -> {
+                GameTable now = currentTable;
+                if (parkedPoll.compareAndSet(msg, null)) {
+                    if (now != null) {
+                        sendTableView(msg, now, clientRevision);
+                    } else {
+                        sendMessage(createErrorResponse(msg, "Not currently at a table"));
+                    }
+                }
+            });
 
-                if (handler.account instanceof Player p) {
-                    // personalize snapshot for this player
-                    snapshot = table.createSnapshotFor(p.getUsername());
-                } else {
-                    // dealer or unknown, no "you" flag
-                    snapshot = table.createSnapshotFor(null);
+            // The table may have moved while we were parking
+            if (table.getRevision() > clientRevision) {
+                answerParkedPoll(table);
+            }
+        }
+
+        private void answerParkedPoll(GameTable table) {
+            Message poll = parkedPoll.getAndSet(null);
+            if (poll != null) {
+                sendTableView(poll, table, (Long) poll.getPayload());
+            }
+        }
+
+        /**
+         * OK reply carrying a delta against clientRevision, or a full snapshot if null.
+         * A delta is smaller on the wire, not cheaper to make: see tableUpdateFor.
+         */
+        private void sendTableView(Message request, GameTable table, Long clientRevision) {
+            viewLock.lock();
+            try {
+                Object update = clientRevision != null
+                        ? tableUpdateFor(table, clientRevision)
+                        : fullSnapshot(table);
+                sendMessage(createOKResponse(request, update));
+            } finally {
+                viewLock.unlock();
+            }
+        }
+
+        // Unrequested TABLE_DELTA/TABLE_SNAPSHOT; nothing is sent if the view did not change
+        private void pushTableView(GameTable table) {
+            viewLock.lock();
+            try {
+                if (table != currentTable) {
+                    return; // left (or moved tables) since the broadcast started
+                }
+                TableSnapshot held = lastSnapshot;
+                Object payload = held != null
+                        ? tableUpdateFor(table, held.getRevision())
+                        : fullSnapshot(table);
+                if (payload instanceof TableDelta delta && delta.isEmpty()) {
+                    return;
                 }
 
-                Message update = new Message(
+                sendMessage(new Message(
                         UUID.randomUUID().toString(),
-                        MessageType.TABLE_SNAPSHOT,     
+                        payload instanceof TableDelta ? MessageType.TABLE_DELTA : MessageType.TABLE_SNAPSHOT,
                         "SERVER",
-                        handler.getClientID(),
-                        snapshot,
+                        clientID,
+                        payload,
                         java.time.LocalDateTime.now()
-                );
+                ));
+            } finally {
+                viewLock.unlock();
+            }
+        }
+
+        private String viewerName() {
+            return account instanceof Player p ? p.getUsername() : null;
+        }
 
-                handler.sendMessage(update);
+        // Full snapshot for this connection, remembered as the base for later deltas.
+        // Caller holds viewLock.
+        private TableSnapshot fullSnapshot(GameTable table) {
+            TableSnapshot snapshot = table.createSnapshotFor(viewerName());
+            lastSnapshot = snapshot;
+            return snapshot;
+        }
+
+        /**
+         * What this connection needs to catch up from clientRevision: a TableDelta
+         * if that is the view we last sent it, otherwise a full TableSnapshot.
+         * A client that gets a delta it cannot apply just asks again with no revision.
+         * Caller holds viewLock.
+         *
+         * Deltas only save bandwidth. Whenever the revision has moved, the full
+         * per-viewer snapshot is still built (createSnapshotFor) and diffed against
+         * the last one sent, once per recipient, so the server does at least as
+         * much work as when it sent snapshots. Only an unchanged revision is cheap.
+         */
+        private Object tableUpdateFor(GameTable table, long clientRevision) {
+            TableSnapshot base = lastSnapshot;
+            if (base == null
+                    || base.getRevision() != clientRevision
+                    || !base.getTableId().equals(table.getTableID())) {
+                return fullSnapshot(table);
+            }
+            if (base.getRevision() == table.getRevision()) {
+                return TableDelta.unchanged(base.getTableId(), base.getRevision());
             }
+            TableSnapshot current = table.createSnapshotFor(viewerName());
+            lastSnapshot = current;
+            return TableDelta.between(base, current);
         }
 
 
 
+        private void handleExit(Message msg){
+            
+            sendMessage(createOKResponse(msg, "See you next time!"));
+            connected = false;
+        }
+
+        
 
         public void sendMessage(Message msg) {
+            if (connection != null) {
+                try {
+                    connection.send(msg);
+                    log.debug("Sent to {}: {}", clientID, msg.getMessageType());
+                } catch (IOException e) {
+                    log.warn("Failed to send to {}: {}", clientID, e.getMessage());
+                    connected = false;
+                }
+                return;
+            }
+
             if (!connected || out == null) {
-                System.err.println("[Server] Cannot send to " + clientID + ": not connected");
+                log.warn("Cannot send to {}: not connected", clientID);
                 return;
             }
 
             try {
-                synchronized (out) {
+                // A lock rather than synchronized so a virtual thread blocked
+                // in the write does not pin its carrier thread
+                writeLock.lock();
+                try {
                     out.writeObject(msg);
                     out.flush();
+                } finally {
+                    writeLock.unlock();
                 }
-                System.out.println("[Server] Sent to " + clientID + ": " + msg.getMessageType());
+                log.debug("Sent to {}: {}", clientID, msg.getMessageType());
             } catch (IOException e) {
-                System.err.println("[Server] Failed to send to " + clientID + ": " + e.getMessage());
+                log.warn("Failed to send to {}: {}", clientID, e.getMessage());
                 connected = false;
             }
         }
 
-                // Auto start countdown for the first player that joins a table
-        private void scheduleAutoStartIfNeeded(GameTable table) {
-            // We only care about the very first player at this table
-            int playerCount = table.getPlayers() != null ? table.getPlayers().size() : 0;
-            if (playerCount != 1) {
-                return;
-            }
-
+        // Auto start countdown for the first player that joins a table.
+        // Cancelled if the dealer starts early or the table empties.
+        private void scheduleAutoStart(GameTable table) {
             String tableId = table.getTableID();
-            System.out.println("[Server] First player joined table " + tableId
-                    + ", starting 30 second auto start timer.");
-
-            new Thread(() -> {
-                try {
-                    Thread.sleep(30_000);    // 30 seconds
-                } catch (InterruptedException ignored) {
-                }
-
-                try {
-                    // After 30 seconds, try to start the round on this table.
-                    // This will only succeed if the table is still in a valid state
-                    // and at least one player has a valid bet.
-                    boolean started = table.startRound();
-                    if (started) {
-                        System.out.println("[Server] Auto starting round for table " + tableId);
-                        // Do NOT broadcast here to avoid confusing the request-response flow.
-                        // Players will see the new state when they call REQUEST_TABLE_STATE.
-                    } else {
-                        System.out.println("[Server] Auto start timer expired for table "
-                                + tableId + ", but round did not start (maybe dealer started early, "
-                                + "no players left, or no valid bets).");
-                    }
-                } catch (Exception e) {
-                    System.err.println("[Server] Error in auto start timer for table "
-                            + tableId + ": " + e.getMessage());
+            log.info("First player joined table {}, starting 30 second auto start timer.", tableId);
+
+            scheduler.schedule(tableId, TableTimer.AUTO_START, AUTO_START_DELAY_MS, () -> {
+                // This will only succeed if the table is still in a valid state
+                // and at least one player has a valid bet.
+                boolean started = table.startRound();
+                if (started) {
+                    log.info("Auto starting round for table {}", tableId);
+                    scheduleTurnTimeout(table);
+                    broadcastTable(table);
+                } else {
+                    log.info("Auto start timer expired for table {}, but round did not start (no valid bets).", tableId);
                 }
-            }, "AutoStart-" + tableId).start();
+            });
         }
 
 
@@ -672,22 +980,33 @@ public class Server {
             sendMessage(createOKResponse(msg, ids));
         }
 
+        // A request whose handler threw: the sender gets an ERROR and the connection stays up
+        void replyFailed(Message request, RuntimeException e) {
+            log.warn("{} from {} failed: {}", request.getMessageType(), clientID, String.valueOf(e));
+            sendMessage(createErrorResponse(request, "Request failed: " + e.getMessage()));
+        }
+
         public String getClientID() {
             return clientID;
         }
 
-        private void cleanup() {
+        boolean isConnected() {
+            return connected;
+        }
+
+        void cleanup() {
             try {
                 connected = false;
                 if (account != null) {
                     manager.logout(account);
                 }
+                if (connection != null) connection.close();
                 if (out != null) out.close();
                 if (in != null) in.close();
                 if (socket != null && !socket.isClosed()) socket.close();
-                System.out.println("[Server] ClientHandler " + clientID + " cleaned up.");
+                log.info("ClientHandler {} cleaned up.", clientID);
             } catch (IOException e) {
-                System.err.println("[Server] Error during cleanup: " + e.getMessage());
+                log.error("Error during cleanup: {}", e.getMessage());
             }
         }
 
@@ -739,14 +1058,49 @@ public class Server {
     return "127.0.0.1";
 }
 
+    /**
+     * Executor that runs one blocking ClientHandler per connection.
+     * THREADS caps the server at MAX_THREADS concurrent clients; VIRTUAL
+     * gives every connection its own virtual thread with no cap.
+     */
+    public static ExecutorService newHandlerPool(ServerMode mode) {
+        if (mode == ServerMode.VIRTUAL) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(MAX_THREADS);
+    }
+
+    /** Blocking accept loop; returns by throwing once the server socket is closed. */
+    public static void acceptConnections(ServerSocket server, ExecutorService pool, LoginManager manager) throws IOException {
+        while (true) {
+            Socket client = server.accept();
+            log.info("New client connected: {}", client.getInetAddress().getHostAddress());
+            ClientHandler clientSock = new ClientHandler(client, manager);
+            pool.execute(clientSock);
+        }
+    }
+
+    // Usage: Server [threads|virtual|nio]
+    private static ServerMode parseMode(String[] args) {
+        if (args.length == 0) {
+            return ServerMode.THREADS;
+        }
+        try {
+            return ServerMode.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown server mode '" + args[0] + "', using THREADS");
+            return ServerMode.THREADS;
+        }
+    }
+
     public static void main(String[] args) {
+        ServerMode mode = parseMode(args);
         manager = new LoginManager();
         System.out.println("Loading user data...");
         manager.loadData();
-        System.out.println("User data loaded. Starting server.");
+        System.out.println("User data loaded. Loading strategy table...");
+        System.out.println("Strategy table ready for " + Advice.TABLE.getNumDecks() + " decks. Starting server.");
 
-        ExecutorService pool = Executors.newFixedThreadPool(MAX_THREADS);
-        ServerSocket server = null;
         int port = 8080;
 
         // NEW: Correct IP lookup
@@ -755,21 +1109,24 @@ public class Server {
         System.out.println("    Blackjack Server Started");
         System.out.println("    Local IP Address: " + ip);
         System.out.println("    Port: " + port);
+        System.out.println("    Mode: " + mode);
         System.out.println("    Other players should connect to:");
         System.out.println("        " + ip + ":" + port);
         System.out.println("======================================");
+
+        if (mode == ServerMode.NIO) {
+            runNio(port);
+            return;
+        }
+
+        ExecutorService pool = newHandlerPool(mode);
+        ServerSocket server = null;
         System.out.println("ServerSocket awaiting connections on port " + port + "...");
 
         try {
             server = new ServerSocket(port);
             server.setReuseAddress(true);
-
-            while (true) {
-                Socket client = server.accept();
-                System.out.print("\nNew client connected: " + client.getInetAddress().getHostAddress() + "\n");
-                ClientHandler clientSock = new ClientHandler(client, manager);
-                pool.execute(clientSock);
-            }
+            acceptConnections(server, pool, manager);
         } catch (IOException e) {
             System.err.println("Server encountered an I/O error: " + e.getMessage());
         } finally {
@@ -778,6 +1135,7 @@ public class Server {
                     server.close();
                     System.out.println("Server socket closed. Shutting down LoginManager.");
                     manager.save();
+                    manager.close();
                     pool.shutdown();
                 } catch (IOException e) {
                     System.err.println("Error closing server: " + e.getMessage());
@@ -785,7 +1143,23 @@ public class Server {
             }
         }
     }
-}
-
 
- 
\ No newline at end of file
+    private static void runNio(int port) {
+        NioServer server = null;
+        try {
+            server = new NioServer(port, NIO_IO_THREADS, manager);
+            System.out.println("NioServer awaiting connections on port " + port
+                    + " with " + NIO_IO_THREADS + " I/O threads...");
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Server encountered an I/O error: " + e.getMessage());
+        } finally {
+            if (server != null) {
+                server.stop();
+                System.out.println("NioServer stopped. Shutting down LoginManager.");
+                manager.save();
+                manager.close();
+            }
+        }
+    }
+}
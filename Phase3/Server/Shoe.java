@@ -1,59 +1,332 @@
 package Server;
 
-
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Shoe that contains multiple decks.
+ * Shoe that contains multiple decks, kept as one array of card codes (see
+ * Card.getCode) and a deal cursor. Dealing is an array read plus a lookup
+ * into the shared Card pool, and reshuffling reorders the same array in
+ * place, so a round allocates nothing.
+ *
+ * A table deals from one shoe across rounds with draw() and calls
+ * endRound() between rounds; the shoe is reshuffled only once the cut card
+ * (placed at the penetration fraction) has come out. With a background
+ * shuffle the next ordering is prepared on another thread as soon as the
+ * cut card appears, so the reshuffle at the round boundary is just a swap.
+ *
+ * Randomness comes from the shoe's ShuffleEngine. A fresh ordering is always
+ * the full shoe in code order permuted by one seed, so getShuffleSeed() is
+ * all it takes to rebuild it with replay(). The seed is drawn into a buffer
+ * the shoe owns, so reshuffling still allocates nothing. Shuffling only the
+ * undealt cards (shuffleAll, or recycling discards when a round runs the
+ * shoe dry) is recorded as a PartialShuffle on top of that seed, and
+ * replay() takes those too.
+ *
+ * The shoe also keeps the running count of each of its CountingSystems.
+ * Because the whole ordering is known as soon as it is made, the count
+ * after every position is worked out then (in the background, for a spare
+ * ordering), and dealing does no counting at all: the running count is a
+ * read at the cursor. Counts cover every card dealt and not shuffled back
+ * in, which by the next betting round includes the hole card.
  */
 public class Shoe {
-    private ArrayList<Deck> decks;
+    public static final double DEFAULT_PENETRATION = 0.75;
+
+    /**
+     * A shuffle of part of the ordering: the first rotation cards moved
+     * behind the rest, then cards from..end shuffled with seed.
+     */
+    public record PartialShuffle(int rotation, int from, ShuffleSeed seed) { }
+
+    private byte[] cards;
+    private int cursor;         // next card to deal
+    private int roundStart;     // first card of the current round; everything before it is discarded
+    private final int cutCard;  // index of the cut card
+    private final boolean backgroundShuffle;
+    private byte[] spare;       // next ordering, filled off-thread once the cut card is out
+    private CompletableFuture<Void> spareReady;
+    private byte[] spareSeed;
+    private final ShuffleEngine engine;
+    private byte[] shuffleSeed; // seed of the fresh ordering in this array, refilled in place
+    private final List<PartialShuffle> partialShuffles = new ArrayList<>(); // since that ordering
     private String shoeID;
     private int numDecks;
+    private final CountingSystem[] systems;
+    private int[][] counts;     // counts[s][i]: running count of systems[s] after the first i cards
+    private int[][] spareCounts;
 
     public Shoe(int numDecks) {
+        this(numDecks, DEFAULT_PENETRATION, false, ShuffleEngine.fast());
+    }
+
+    public Shoe(int numDecks, double penetration, boolean backgroundShuffle) {
+        this(numDecks, penetration, backgroundShuffle, ShuffleEngine.fast());
+    }
+
+    public Shoe(int numDecks, double penetration, boolean backgroundShuffle, ShuffleEngine engine) {
+        this(numDecks, penetration, backgroundShuffle, engine, List.of(CountingSystem.HI_LO));
+    }
+
+    /** The first of countingSystems is the one getRunningCount() and getTrueCount() report. */
+    public Shoe(int numDecks, double penetration, boolean backgroundShuffle, ShuffleEngine engine,
+                List<CountingSystem> countingSystems) {
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration must be in (0, 1]: " + penetration);
+        }
+        if (countingSystems.isEmpty()) {
+            throw new IllegalArgumentException("A shoe needs at least one counting system");
+        }
         this.numDecks = Math.max(1, numDecks);
         this.shoeID = UUID.randomUUID().toString();
-        this.decks = new ArrayList<>();
-        for (int i = 0; i < this.numDecks; i++) {
-            decks.add(new Deck());
+        this.cards = new byte[this.numDecks * Card.DISTINCT];
+        this.cutCard = Math.max(1, (int) Math.round(cards.length * penetration));
+        this.backgroundShuffle = backgroundShuffle;
+        this.engine = engine;
+        this.systems = countingSystems.toArray(new CountingSystem[0]);
+        this.shuffleSeed = new byte[engine.getSeedBytes()];
+        this.counts = new int[systems.length][cards.length + 1];
+        freshOrdering();
+    }
+
+    /** A shoe of numDecks decks dealing exactly the ordering the shuffle with this seed produced. */
+    public static Shoe replay(int numDecks, ShuffleSeed seed) {
+        return replay(numDecks, seed, List.of());
+    }
+
+    /**
+     * The ordering seed produced with the partial shuffles (see
+     * getPartialShuffles) applied on top, dealing on from where the last
+     * one left off: exactly the cards the original shoe dealt after it.
+     */
+    public static Shoe replay(int numDecks, ShuffleSeed seed, List<PartialShuffle> partials) {
+        Shoe shoe = new Shoe(numDecks, DEFAULT_PENETRATION, false, ShuffleEngine.forMode(seed.engine()));
+        fill(shoe.cards);
+        ShuffleEngine.permute(shoe.cards, 0, seed);
+        shoe.shuffleSeed = seed.bytes();
+        for (PartialShuffle p : partials) {
+            shoe.rotate(p.rotation());
+            ShuffleEngine.permute(shoe.cards, p.from(), p.seed());
+            shoe.cursor = p.from();
+            shoe.partialShuffles.add(p);
+        }
+        shoe.recount(shoe.cards, shoe.counts);
+        return shoe;
+    }
+
+    private static void fill(byte[] codes) {
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (i % Card.DISTINCT);
         }
-        shuffleAll();
     }
 
+    // The whole shoe from code order, so the seed alone reproduces it
+    private void freshOrdering() {
+        fill(cards);
+        engine.nextSeed(shuffleSeed);
+        engine.permute(cards, 0, shuffleSeed);
+        partialShuffles.clear();
+        recount(cards, counts);
+    }
+
+    // Shuffles the cards not dealt yet
     public void shuffleAll() {
-        for (Deck d : decks) {
-            d.shuffle();
+        shuffleRest(0);
+    }
+
+    // Rotation is already done; records it with the seed so replay can follow
+    private void shuffleRest(int rotation) {
+        ShuffleSeed seed = engine.shuffle(cards, cursor);
+        partialShuffles.add(new PartialShuffle(rotation, cursor, seed));
+        recount(cards, counts);
+    }
+
+    private void recount(byte[] codes, int[][] into) {
+        for (int s = 0; s < systems.length; s++) {
+            systems[s].prefixCounts(codes, into[s]);
         }
-        Collections.shuffle(decks);
     }
 
+    /** Next card, or null once the shoe is empty. */
     public Card dealCard() {
-        for (Deck d : decks) {
-            Card c = d.dealCard();
-            if (c != null) {
-                return c;
-            }
+        if (cursor == cards.length) {
+            return null; // no cards left
+        }
+        return Card.fromCode(cards[cursor++]);
+    }
+
+    /**
+     * Next card for a table; never null. If a round runs the shoe dry the
+     * discards from earlier rounds are shuffled back in behind the cards
+     * still in play.
+     */
+    public Card draw() {
+        if (cursor == cards.length) {
+            recycleDiscards();
+        }
+        Card card = Card.fromCode(cards[cursor++]);
+        if (cursor == cutCard && backgroundShuffle && spareReady == null) {
+            prepareSpare();
+        }
+        return card;
+    }
+
+    public boolean isCutCardOut() {
+        return cursor >= cutCard;
+    }
+
+    /**
+     * Call between rounds: reshuffles if the cut card came out, else keeps
+     * dealing on. Returns whether a new ordering was started.
+     */
+    public boolean endRound() {
+        boolean reshuffled = isCutCardOut();
+        if (reshuffled) {
+            reshuffle();
+        }
+        roundStart = cursor;
+        return reshuffled;
+    }
+
+    // A fresh ordering: the one prepared in the background if it is ready, else shuffle in place
+    private void reshuffle() {
+        CompletableFuture<Void> ready = spareReady;
+        cursor = 0;
+        roundStart = 0;
+        if (ready != null && ready.isDone() && !ready.isCompletedExceptionally()) {
+            byte[] t = cards;
+            cards = spare;
+            spare = t;
+            int[][] c = counts;
+            counts = spareCounts;
+            spareCounts = c;
+            spareReady = null;
+            byte[] s = shuffleSeed;
+            shuffleSeed = spareSeed;
+            spareSeed = s;
+            partialShuffles.clear();
+        } else {
+            freshOrdering(); // a background shuffle still running keeps its array for next time
+        }
+    }
+
+    private void prepareSpare() {
+        if (spare == null) {
+            spare = new byte[cards.length]; // once per shoe
+            spareCounts = new int[systems.length][cards.length + 1];
+            spareSeed = new byte[shuffleSeed.length];
+        }
+        byte[] next = spare;
+        int[][] nextCounts = spareCounts;
+        byte[] seed = spareSeed;
+        engine.nextSeed(seed); // drawn here: the engine belongs to the table thread
+        spareReady = CompletableFuture.runAsync(() -> {
+            fill(next);
+            engine.permute(next, 0, seed);
+            recount(next, nextCounts);
+        }, Thread::startVirtualThread);
+    }
+
+    // Rotates the cards of the current round to the front and shuffles the
+    // discards behind them: [discards | in play] -> [in play | shuffled discards]
+    private void recycleDiscards() {
+        if (roundStart == 0) {
+            resetShoe(); // one round used the whole shoe; nothing to recycle
+            return;
+        }
+        int rotation = roundStart;
+        rotate(rotation);
+        cursor = cards.length - rotation;
+        roundStart = 0;
+        shuffleRest(rotation);
+    }
+
+    // Moves the first n cards behind the rest
+    private void rotate(int n) {
+        reverse(0, n);
+        reverse(n, cards.length);
+        reverse(0, cards.length);
+    }
+
+    private void reverse(int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            byte t = cards[i];
+            cards[i] = cards[j];
+            cards[j] = t;
         }
-        return null; // no cards left
     }
 
     public int cardsRemaining() {
-        int total = 0;
-        for (Deck d : decks) {
-            total += d.cardsRemaining();
+        return cards.length - cursor;
+    }
+
+    /** Adds one to byCode[code] for every card not dealt yet (see Card.getCode). */
+    public void countRemaining(int[] byCode) {
+        for (int i = cursor; i < cards.length; i++) {
+            byCode[cards[i]]++;
         }
-        return total;
     }
 
+    // Every card goes back in: the array always holds the full shoe, only the cursor moves
     public void resetShoe() {
-        decks.clear();
-        for (int i = 0; i < this.numDecks; i++) {
-            decks.add(new Deck());
+        cursor = 0;
+        roundStart = 0;
+        freshOrdering();
+    }
+
+    /** Running count of the first counting system. */
+    public int getRunningCount() {
+        return counts[0][cursor];
+    }
+
+    public int getRunningCount(CountingSystem system) {
+        return counts[indexOf(system)][cursor];
+    }
+
+    /** True count of the first counting system: the running count per deck left. */
+    public double getTrueCount() {
+        return systems[0].trueCount(counts[0][cursor], cursor, cards.length - cursor);
+    }
+
+    public double getTrueCount(CountingSystem system) {
+        return system.trueCount(counts[indexOf(system)][cursor], cursor, cards.length - cursor);
+    }
+
+    public List<CountingSystem> getCountingSystems() {
+        return List.of(systems);
+    }
+
+    private int indexOf(CountingSystem system) {
+        for (int s = 0; s < systems.length; s++) {
+            if (systems[s] == system) {
+                return s;
+            }
         }
-        shuffleAll();
+        throw new IllegalArgumentException("Shoe does not count " + system.getName() + ": " + Arrays.toString(systems));
+    }
+
+    public int getNumDecks() {
+        return numDecks;
+    }
+
+    /**
+     * Seed of the current ordering, for the audit trail. Partial shuffles
+     * since then leave it alone; they are in getPartialShuffles().
+     */
+    public ShuffleSeed getShuffleSeed() {
+        return new ShuffleSeed(engine.getName(), shuffleSeed);
+    }
+
+    /** Partial shuffles applied to the current ordering, oldest first. */
+    public List<PartialShuffle> getPartialShuffles() {
+        return List.copyOf(partialShuffles);
+    }
+
+    public ShuffleEngine getShuffleEngine() {
+        return engine;
     }
 
     public String getShoeID() {
@@ -0,0 +1,240 @@
+package Server;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+
+/**
+ * Where a shoe's randomness comes from. Every shuffle is driven by one seed
+ * drawn from the engine, and the permutation is a pure function of that
+ * seed, so recording the seed is enough to replay the shuffle exactly (see
+ * permute). Engines are per table and not thread safe: the owning table
+ * draws seeds, and only the permute step may run elsewhere.
+ *
+ * FAST, for simulations, draws a 64-bit seed from a SplittableRandom and
+ * permutes with SplitMix64. SECURE, for real tables, draws a 256-bit seed
+ * from a SecureRandom and permutes with the AES-256-CTR keystream under that
+ * key, so neither the shoe nor the next one can be worked out from the cards
+ * seen, and the number of possible shoes is not capped at 2^64.
+ */
+public abstract class ShuffleEngine {
+    public static final String FAST = "fast";
+    public static final String SECURE = "secure";
+
+    private static final int SECURE_SEED_BYTES = 32;
+
+    public abstract String getName();
+
+    /** Length of this engine's seeds. */
+    public abstract int getSeedBytes();
+
+    /** Draws the seed for the next shuffle into seed (getSeedBytes long); allocates nothing. */
+    public abstract void nextSeed(byte[] seed);
+
+    /** Shuffles codes[from..] in place the way the shuffle that drew seed did. */
+    public abstract void permute(byte[] codes, int from, byte[] seed);
+
+    /** Seed for the next shuffle. */
+    public ShuffleSeed nextSeed() {
+        byte[] seed = new byte[getSeedBytes()];
+        nextSeed(seed);
+        return new ShuffleSeed(getName(), seed);
+    }
+
+    /** Shuffles codes[from..] in place and returns the seed that replays it. */
+    public ShuffleSeed shuffle(byte[] codes, int from) {
+        ShuffleSeed seed = nextSeed();
+        permute(codes, from, seed);
+        return seed;
+    }
+
+    /** Replays the shuffle that drew seed, with the algorithm of the engine that drew it. */
+    public static void permute(byte[] codes, int from, ShuffleSeed seed) {
+        switch (seed.engine()) {
+            case FAST:
+                permute(codes, from, longSeed(seed.bytes()));
+                break;
+            case SECURE:
+                permuteSecure(codes, from, seed.bytes());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shuffle engine: " + seed.engine());
+        }
+    }
+
+    // A fast seed is one long, big-endian
+    private static long longSeed(byte[] seed) {
+        if (seed.length != Long.BYTES) {
+            throw new IllegalArgumentException("Not a fast shuffle seed: " + seed.length + " bytes");
+        }
+        long v = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            v = v << 8 | (seed[i] & 0xFF);
+        }
+        return v;
+    }
+
+    /**
+     * Fisher-Yates over codes[from..] driven by a SplitMix64 stream started
+     * at seed. No allocation, and the same seed always gives the same order.
+     * Bounds are mapped with a multiply-shift, whose bias (under 2^-23 for a
+     * 7 deck shoe) is far below anything a table could observe.
+     */
+    public static void permute(byte[] codes, int from, long seed) {
+        long state = seed;
+        for (int i = codes.length - 1; i > from; i--) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            int j = from + (int) (((z >>> 32) * (i - from + 1)) >>> 32);
+            byte t = codes[i];
+            codes[i] = codes[j];
+            codes[j] = t;
+        }
+    }
+
+    /**
+     * Fisher-Yates over codes[from..] driven by the AES-256-CTR keystream
+     * under key (counter from zero). Bounds are drawn by rejection, so every
+     * ordering is exactly as likely as any other.
+     */
+    private static void permuteSecure(byte[] codes, int from, byte[] key) {
+        KeyStream stream = new KeyStream(key);
+        for (int i = codes.length - 1; i > from; i--) {
+            int j = from + stream.nextBelow(i - from + 1);
+            byte t = codes[i];
+            codes[i] = codes[j];
+            codes[j] = t;
+        }
+    }
+
+    private static final class KeyStream {
+        private final Cipher cipher;
+        private final byte[] zeros = new byte[1024];
+        private final byte[] buf = new byte[1024];
+        private int pos = buf.length;
+
+        KeyStream(byte[] key) {
+            try {
+                cipher = Cipher.getInstance("AES/CTR/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(new byte[16]));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES-256-CTR is not available", e);
+            }
+        }
+
+        int nextInt() {
+            if (pos == buf.length) {
+                try {
+                    // the CTR keystream is the cipher's output for zeros
+                    cipher.update(zeros, 0, zeros.length, buf, 0);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("AES-256-CTR keystream failed", e);
+                }
+                pos = 0;
+            }
+            int v = (buf[pos] & 0xFF) << 24 | (buf[pos + 1] & 0xFF) << 16 | (buf[pos + 2] & 0xFF) << 8 | (buf[pos + 3] & 0xFF);
+            pos += 4;
+            return v;
+        }
+
+        // Uniform in [0, bound): draw under the next power of two, retry past bound
+        int nextBelow(int bound) {
+            int mask = -1 >>> Integer.numberOfLeadingZeros(bound - 1);
+            int r;
+            do {
+                r = nextInt() & mask;
+            } while (r >= bound);
+            return r;
+        }
+    }
+
+    /** Engine for a mode name as used by -Dblackjack.shuffle: "fast" or "secure". */
+    public static ShuffleEngine forMode(String mode) {
+        switch (mode.toLowerCase()) {
+            case FAST:
+                return fast();
+            case SECURE:
+                return secure();
+            default:
+                throw new IllegalArgumentException("Unknown shuffle mode: " + mode);
+        }
+    }
+
+    public static ShuffleEngine fast() {
+        return new Fast(new SplittableRandom());
+    }
+
+    /** A reproducible run: the same root seed gives the same seeds in the same order. */
+    public static ShuffleEngine fast(long rootSeed) {
+        return new Fast(new SplittableRandom(rootSeed));
+    }
+
+    public static ShuffleEngine secure() {
+        return new Secure(new SecureRandom());
+    }
+
+    private static final class Fast extends ShuffleEngine {
+        private final SplittableRandom random;
+
+        Fast(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public String getName() {
+            return FAST;
+        }
+
+        @Override
+        public int getSeedBytes() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void nextSeed(byte[] seed) {
+            long v = random.nextLong();
+            for (int i = Long.BYTES - 1; i >= 0; i--, v >>>= 8) {
+                seed[i] = (byte) v;
+            }
+        }
+
+        @Override
+        public void permute(byte[] codes, int from, byte[] seed) {
+            ShuffleEngine.permute(codes, from, longSeed(seed));
+        }
+    }
+
+    private static final class Secure extends ShuffleEngine {
+        private final SecureRandom random;
+
+        Secure(SecureRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public String getName() {
+            return SECURE;
+        }
+
+        @Override
+        public int getSeedBytes() {
+            return SECURE_SEED_BYTES;
+        }
+
+        @Override
+        public void nextSeed(byte[] seed) {
+            random.nextBytes(seed);
+        }
+
+        @Override
+        public void permute(byte[] codes, int from, byte[] seed) {
+            permuteSecure(codes, from, seed);
+        }
+    }
+}
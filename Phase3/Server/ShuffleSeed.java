@@ -0,0 +1,45 @@
+package Server;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * What replays one shuffle: the name of the engine that made it ("fast" or
+ * "secure", which also names the permutation algorithm) and the seed it
+ * drew. Written to the audit trail as engine:hex, and read back by parse.
+ */
+public record ShuffleSeed(String engine, byte[] bytes) {
+
+    public ShuffleSeed {
+        bytes = bytes.clone();
+    }
+
+    /** The inverse of toString. */
+    public static ShuffleSeed parse(String text) {
+        int colon = text.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected engine:hex, got " + text);
+        }
+        return new ShuffleSeed(text.substring(0, colon), HexFormat.of().parseHex(text, colon + 1, text.length()));
+    }
+
+    @Override
+    public byte[] bytes() {
+        return bytes.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ShuffleSeed other && engine.equals(other.engine) && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return engine.hashCode() * 31 + Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return engine + ":" + HexFormat.of().formatHex(bytes);
+    }
+}
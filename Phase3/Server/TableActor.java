@@ -0,0 +1,127 @@
+package Server;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Mailbox for one GameTable. Commands from any thread are queued and run
+ * one at a time, in the order they arrived, on a small pool shared by every
+ * table. A table's state is therefore only ever touched by one thread at a
+ * time without a lock on it, while different tables run on different cores.
+ *
+ * Calls made from inside a command (a table method calling another one)
+ * run inline instead of queueing behind themselves.
+ */
+public class TableActor {
+    private static final Log log = Log.get("TableActor");
+
+    // Commands one table may run before giving its pool thread to the next table
+    private static final int BATCH = 64;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService sharedPool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "TableActor-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final Executor pool;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile Thread owner; // thread draining the mailbox right now, if any
+
+    public TableActor() {
+        this(sharedPool);
+    }
+
+    public TableActor(Executor pool) {
+        this.pool = pool;
+    }
+
+    /** Runs the command on the table and waits for its result. */
+    public <T> T call(Supplier<T> command) {
+        if (Thread.currentThread() == owner) {
+            return command.get();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tell(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Surface the command's own exception to the caller
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    /** Runs the command on the table and waits for it to finish. */
+    public void run(Runnable command) {
+        call(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /** Queues the command and returns without waiting. */
+    public void tell(Runnable command) {
+        mailbox.add(command);
+        schedule();
+    }
+
+    /** True when called from inside one of this table's commands. */
+    public boolean isOwner() {
+        return Thread.currentThread() == owner;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            pool.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        owner = Thread.currentThread();
+        try {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable next = mailbox.poll();
+                if (next == null) {
+                    break;
+                }
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    log.error("Command failed", e);
+                }
+            }
+        } finally {
+            owner = null;
+            scheduled.set(false);
+            // Something arrived after our last poll, or the batch ran out
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package Server;
+
+import Enums.TableTimer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One clock for every table's deadlines (auto-start, and anything else
+ * keyed by TableTimer). A single daemon thread keeps time; when a deadline
+ * fires its task is handed to a virtual thread, so a slow broadcast cannot
+ * hold up the next deadline. Scheduling the same (table, kind) again
+ * replaces the old deadline, and any deadline can be cancelled.
+ *
+ * Deadlines that belong to a numbered state of the table (the turn clock,
+ * numbered by GameTable.Turn) can carry that number as a generation: a
+ * schedule or cancel from a caller that read an older state then leaves a
+ * newer deadline alone, however the callers' threads interleave.
+ */
+public class TableScheduler {
+    private static final TableScheduler shared = new TableScheduler();
+
+    private final ScheduledThreadPoolExecutor clock;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    /** The scheduler the server's tables use. */
+    public static TableScheduler shared() {
+        return shared;
+    }
+
+    public TableScheduler() {
+        clock = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "TableScheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        clock.setRemoveOnCancelPolicy(true); // cancelled deadlines do not pile up in the queue
+    }
+
+    /** Runs task after delayMs unless cancelled or replaced first. */
+    public void schedule(String tableId, TableTimer kind, long delayMs, Runnable task) {
+        String key = key(tableId, kind);
+        Deadline deadline = new Deadline(Long.MIN_VALUE);
+        Deadline old = deadlines.put(key, deadline);
+        if (old != null) {
+            old.cancel();
+        }
+        start(key, deadline, delayMs, task);
+    }
+
+    /**
+     * Like schedule, but a pending deadline of a newer generation is kept and
+     * this one dropped. Returns whether task was scheduled.
+     */
+    public boolean schedule(String tableId, TableTimer kind, long generation, long delayMs, Runnable task) {
+        String key = key(tableId, kind);
+        Deadline deadline = new Deadline(generation);
+        Deadline[] replaced = new Deadline[1];
+        Deadline current = deadlines.compute(key, (k, old) -> {
+            if (old != null && old.generation > generation) {
+                return old;
+            }
+            replaced[0] = old;
+            return deadline;
+        });
+        if (current != deadline) {
+            return false;
+        }
+        if (replaced[0] != null) {
+            replaced[0].cancel();
+        }
+        start(key, deadline, delayMs, task);
+        return true;
+    }
+
+    // Only the deadline still registered under its key may fire
+    private void start(String key, Deadline deadline, long delayMs, Runnable task) {
+        deadline.future = clock.schedule(() -> {
+            if (deadlines.remove(key, deadline)) {
+                workers.execute(task);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Returns true if there was a pending deadline to cancel. */
+    public boolean cancel(String tableId, TableTimer kind) {
+        return cancel(tableId, kind, Long.MAX_VALUE);
+    }
+
+    /** Cancels the pending deadline unless its generation is newer than generation. */
+    public boolean cancel(String tableId, TableTimer kind, long generation) {
+        Deadline[] removed = new Deadline[1];
+        deadlines.computeIfPresent(key(tableId, kind), (k, old) -> {
+            if (old.generation > generation) {
+                return old;
+            }
+            removed[0] = old;
+            return null;
+        });
+        if (removed[0] == null) {
+            return false;
+        }
+        removed[0].cancel();
+        return true;
+    }
+
+    /** Drops every deadline a table has, e.g. when it is closed. */
+    public void cancelAll(String tableId) {
+        for (TableTimer kind : TableTimer.values()) {
+            cancel(tableId, kind);
+        }
+    }
+
+    public boolean isScheduled(String tableId, TableTimer kind) {
+        return deadlines.containsKey(key(tableId, kind));
+    }
+
+    /** One-off task that belongs to no table (e.g. a long-poll timeout). */
+    public ScheduledFuture<?> after(long delayMs, Runnable task) {
+        return clock.schedule(() -> workers.execute(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        clock.shutdownNow();
+        workers.shutdownNow();
+        deadlines.clear();
+    }
+
+    private static String key(String tableId, TableTimer kind) {
+        return tableId + "/" + kind;
+    }
+
+    private static class Deadline {
+        private final long generation;
+        private volatile ScheduledFuture<?> future;
+
+        Deadline(long generation) {
+            this.generation = generation;
+        }
+
+        void cancel() {
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+    }
+}
@@ -1,19 +1,180 @@
 package Server;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import Enums.LogOverflow;
+
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Audit log of user actions in user_log.txt, one "time,username,action"
+ * line per event. log() only drops the event into a lock-free ring buffer
+ * and returns; a single writer thread keeps the file open and writes the
+ * events in batches, flushing once FLUSH_BYTES have built up or
+ * FLUSH_INTERVAL_MS after the oldest unflushed event, whichever is first.
+ * So a login never waits on the disk.
+ *
+ * user_log.txt is only the newest segment: once it passes SEGMENT_BYTES or
+ * the date changes it is sealed into user_log/ with an index, see
+ * AuditSegmentWriter; query it all through auditLog().
+ *
+ * Tunables (system properties): blackjack.userLog.capacity (ring size,
+ * power of two), blackjack.userLog.overflow (BLOCK or DROP, see LogOverflow),
+ * blackjack.userLog.segmentBytes (segment size).
+ */
 public class UserLogger {
+    private static final Log log = Log.get("UserLogger");
     private static final String LOG_FILE = "user_log.txt";
+    private static final String SEGMENT_DIR = "user_log";
+    private static final long SEGMENT_BYTES = Long.getLong("blackjack.userLog.segmentBytes", 64L * 1024 * 1024);
+    private static final int CAPACITY = Integer.getInteger("blackjack.userLog.capacity", 1 << 16);
+    private static final LogOverflow OVERFLOW =
+            LogOverflow.valueOf(System.getProperty("blackjack.userLog.overflow", LogOverflow.BLOCK.name()));
+    private static final int FLUSH_BYTES = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    private record Event(LocalDateTime time, String username, String action) { }
+
+    private static final MpscRingBuffer<Event> ring = new MpscRingBuffer<>(CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final Thread writer;
+    private static volatile boolean writerParked;
+    private static volatile boolean flushRequested;
+    private static volatile long flushedUpTo;   // events below this count are in the file
+    private static volatile boolean stopping;
+
+    static {
+        writer = new Thread(UserLogger::writeLoop, "UserLogger");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(UserLogger::shutdown, "UserLoggerShutdown"));
+    }
 
     public static void log(String username, String action) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
-            writer.write(LocalDateTime.now() + "," + username + "," + action);
-            writer.newLine();
-        } catch (IOException e) {
-            e.printStackTrace();
+        Event event = new Event(LocalDateTime.now(), username, action);
+        while (!ring.offer(event)) {
+            if (OVERFLOW == LogOverflow.DROP || stopping) {
+                dropped.incrementAndGet();
+                return;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(50_000); // BLOCK: give the writer a moment to make room
+        }
+        if (writerParked) {
+            wakeWriter();
+        }
+    }
+
+    /** Waits until every event logged before this call is in the file. */
+    public static void flush() {
+        long target = ring.getOffered();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flushedUpTo < target && writer.isAlive() && System.nanoTime() < deadline) {
+            flushRequested = true;
+            wakeWriter();
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /** Writes out whatever is queued and stops the writer. Called by a shutdown hook. */
+    public static void shutdown() {
+        stopping = true;
+        wakeWriter();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Reader over every segment written so far, for time and user lookups. */
+    public static AuditLog auditLog() {
+        return new AuditLog(Paths.get(LOG_FILE), Paths.get(SEGMENT_DIR));
+    }
+
+    /** Events discarded because the buffer was full (DROP policy only). */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    private static void wakeWriter() {
+        LockSupport.unpark(writer);
+    }
+
+    private static void writeLoop() {
+        AuditSegmentWriter out = null;
+        int unflushedBytes = 0;
+        long firstUnflushedAt = 0;
+
+        while (true) {
+            // Write out what is queued, up to one flush worth
+            Event e;
+            while (unflushedBytes < FLUSH_BYTES && (e = ring.poll()) != null) {
+                try {
+                    if (out == null) {
+                        out = new AuditSegmentWriter(Paths.get(LOG_FILE), Paths.get(SEGMENT_DIR), SEGMENT_BYTES);
+                    } else if (unflushedBytes == 0) {
+                        out.reopenIfMoved(); // at the start of a batch only, it costs a stat
+                    }
+                    if (unflushedBytes == 0) {
+                        firstUnflushedAt = System.nanoTime();
+                    }
+                    unflushedBytes += out.append(e.time(), e.username(), e.action());
+                } catch (IOException ex) {
+                    log.error("Write failed, reopening the log", ex);
+                    out = close(out);
+                }
+            }
+
+            boolean idle = ring.isEmpty();
+            boolean due = unflushedBytes >= FLUSH_BYTES
+                    || (idle && (flushRequested || stopping))
+                    || System.nanoTime() - firstUnflushedAt >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+            if (due && unflushedBytes > 0) {
+                try {
+                    if (out != null) {
+                        out.flush();
+                    }
+                } catch (IOException ex) {
+                    log.error("Flush failed, reopening the log", ex);
+                    out = close(out);
+                }
+                unflushedBytes = 0;
+            }
+            if (unflushedBytes == 0) {
+                flushedUpTo = ring.getConsumed(); // everything taken so far is in the file
+                flushRequested = false;
+            }
+            if (stopping && idle && unflushedBytes == 0) {
+                close(out);
+                return;
+            }
+
+            if (idle) {
+                long waitNanos = unflushedBytes > 0
+                        ? TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS) - (System.nanoTime() - firstUnflushedAt)
+                        : TimeUnit.SECONDS.toNanos(1);
+                // Producers unpark us only when they see this flag, so set it before the last look
+                writerParked = true;
+                if (ring.isEmpty() && !flushRequested && !stopping && waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+                writerParked = false;
+            }
+        }
+    }
+
+    private static AuditSegmentWriter close(AuditSegmentWriter out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.error("Close failed", e);
+            }
         }
+        return null;
     }
 }
@@ -1,6 +1,7 @@
 package Shared;
 
 import java.io.Serializable;
+import java.util.Objects;
 import Enums.Rank;
 import Enums.Suit;
 
@@ -18,4 +19,16 @@ public class CardView implements Serializable {
     public Rank getRank() { return rank; }
     public Suit getSuit() { return suit; }
     public boolean isHidden() { return hidden; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CardView other)) return false;
+        return rank == other.rank && suit == other.suit && hidden == other.hidden;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rank, suit, hidden);
+    }
 }
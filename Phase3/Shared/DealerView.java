@@ -2,6 +2,7 @@ package Shared;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 public class DealerView implements Serializable {
     private List<CardView> cards;
@@ -14,4 +15,16 @@ public class DealerView implements Serializable {
 
     public List<CardView> getCards() { return cards; }
     public boolean hasHiddenCard() { return hasHiddenCard; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DealerView other)) return false;
+        return hasHiddenCard == other.hasHiddenCard && Objects.equals(cards, other.cards);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cards, hasHiddenCard);
+    }
 }
@@ -2,6 +2,7 @@ package Shared;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 public class PlayerView implements Serializable {
     private String username;
@@ -39,4 +40,23 @@ public class PlayerView implements Serializable {
     public boolean isYourTurn() { return isYourTurn; }
     public List<CardView> getCards() { return cards; }
     public double getBalance() { return balance; }   // NEW GETTER
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlayerView other)) return false;
+        return Double.compare(betAmount, other.betAmount) == 0
+                && handValue == other.handValue
+                && active == other.active
+                && you == other.you
+                && isYourTurn == other.isYourTurn
+                && Double.compare(balance, other.balance) == 0
+                && Objects.equals(username, other.username)
+                && Objects.equals(cards, other.cards);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, betAmount, handValue, active, you, isYourTurn, cards, balance);
+    }
 }
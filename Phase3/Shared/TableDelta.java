@@ -0,0 +1,144 @@
+package Shared;
+
+import Enums.GameState;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Changes between two snapshots of the same table, as seen by one viewer.
+ * Only what moved is carried: the game state, whose turn it is, the dealer
+ * hand, and the seats whose view changed (a card dealt, a bet placed, a
+ * balance settled). Players are matched by username.
+ *
+ * A delta only applies to a snapshot at exactly baseRevision; anything
+ * else means the client missed an update and should ask for a full resync.
+ */
+public class TableDelta implements Serializable {
+    private String tableId;
+    private long baseRevision;
+    private long revision;
+    private GameState state;                 // null = unchanged
+    private boolean turnChanged;
+    private String currentPlayerUsername;    // only meaningful if turnChanged
+    private DealerView dealer;               // null = unchanged
+    private List<PlayerView> changedPlayers; // new or changed seats
+    private List<String> removedPlayers;
+
+    public TableDelta(String tableId,
+                      long baseRevision,
+                      long revision,
+                      GameState state,
+                      boolean turnChanged,
+                      String currentPlayerUsername,
+                      DealerView dealer,
+                      List<PlayerView> changedPlayers,
+                      List<String> removedPlayers) {
+        this.tableId = tableId;
+        this.baseRevision = baseRevision;
+        this.revision = revision;
+        this.state = state;
+        this.turnChanged = turnChanged;
+        this.currentPlayerUsername = currentPlayerUsername;
+        this.dealer = dealer;
+        this.changedPlayers = changedPlayers;
+        this.removedPlayers = removedPlayers;
+    }
+
+    /** Delta that moves a client holding {@code from} to {@code to}. */
+    public static TableDelta between(TableSnapshot from, TableSnapshot to) {
+        GameState state = from.getState() == to.getState() ? null : to.getState();
+        boolean turnChanged = !Objects.equals(from.getCurrentPlayerUsername(), to.getCurrentPlayerUsername());
+        DealerView dealer = Objects.equals(from.getDealerView(), to.getDealerView()) ? null : to.getDealerView();
+
+        List<PlayerView> changed = new ArrayList<>();
+        for (PlayerView pv : to.getPlayers()) {
+            PlayerView old = find(from.getPlayers(), pv.getUsername());
+            if (!pv.equals(old)) {
+                changed.add(pv);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (PlayerView pv : from.getPlayers()) {
+            if (find(to.getPlayers(), pv.getUsername()) == null) {
+                removed.add(pv.getUsername());
+            }
+        }
+
+        return new TableDelta(to.getTableId(), from.getRevision(), to.getRevision(),
+                state, turnChanged, to.getCurrentPlayerUsername(), dealer,
+                changed.isEmpty() ? Collections.emptyList() : changed,
+                removed.isEmpty() ? Collections.emptyList() : removed);
+    }
+
+    /** Delta for "nothing changed since the revision you hold". */
+    public static TableDelta unchanged(String tableId, long revision) {
+        return new TableDelta(tableId, revision, revision, null, false, null, null,
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Rebuilds the newer snapshot from the one the client holds.
+     * Returns null if {@code base} is not the snapshot this delta was made against.
+     */
+    public TableSnapshot applyTo(TableSnapshot base) {
+        if (base == null || base.getRevision() != baseRevision || !Objects.equals(base.getTableId(), tableId)) {
+            return null;
+        }
+
+        List<PlayerView> players = new ArrayList<>(base.getPlayers().size() + changedPlayers.size());
+        for (PlayerView pv : base.getPlayers()) {
+            if (!removedPlayers.contains(pv.getUsername())) {
+                players.add(pv);
+            }
+        }
+        for (PlayerView pv : changedPlayers) {
+            int index = indexOf(players, pv.getUsername());
+            if (index >= 0) {
+                players.set(index, pv);
+            } else {
+                players.add(pv); // joined since the base
+            }
+        }
+
+        return new TableSnapshot(
+                tableId,
+                state != null ? state : base.getState(),
+                turnChanged ? currentPlayerUsername : base.getCurrentPlayerUsername(),
+                dealer != null ? dealer : base.getDealerView(),
+                players,
+                revision);
+    }
+
+    public boolean isEmpty() {
+        return state == null && !turnChanged && dealer == null
+                && changedPlayers.isEmpty() && removedPlayers.isEmpty();
+    }
+
+    private static PlayerView find(List<PlayerView> players, String username) {
+        int index = indexOf(players, username);
+        return index >= 0 ? players.get(index) : null;
+    }
+
+    private static int indexOf(List<PlayerView> players, String username) {
+        for (int i = 0; i < players.size(); i++) {
+            if (Objects.equals(players.get(i).getUsername(), username)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getTableId() { return tableId; }
+    public long getBaseRevision() { return baseRevision; }
+    public long getRevision() { return revision; }
+    public GameState getState() { return state; }
+    public boolean isTurnChanged() { return turnChanged; }
+    public String getCurrentPlayerUsername() { return currentPlayerUsername; }
+    public DealerView getDealerView() { return dealer; }
+    public List<PlayerView> getChangedPlayers() { return changedPlayers; }
+    public List<String> getRemovedPlayers() { return removedPlayers; }
+}
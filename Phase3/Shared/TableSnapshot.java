@@ -10,17 +10,28 @@ public class TableSnapshot implements Serializable {
     private String currentPlayerUsername;
     private DealerView dealer;
     private List<PlayerView> players;
+    private long revision;            // table revision this snapshot was taken at
 
     public TableSnapshot(String tableId,
                          GameState state,
                          String currentPlayerUsername,
                          DealerView dealer,
                          List<PlayerView> players) {
+        this(tableId, state, currentPlayerUsername, dealer, players, 0);
+    }
+
+    public TableSnapshot(String tableId,
+                         GameState state,
+                         String currentPlayerUsername,
+                         DealerView dealer,
+                         List<PlayerView> players,
+                         long revision) {
         this.tableId = tableId;
         this.state = state;
         this.currentPlayerUsername = currentPlayerUsername;
         this.dealer = dealer;
         this.players = players;
+        this.revision = revision;
     }
 
     public String getTableId() { return tableId; }
@@ -28,4 +39,5 @@ public class TableSnapshot implements Serializable {
     public String getCurrentPlayerUsername() { return currentPlayerUsername; }
     public DealerView getDealerView() { return dealer; }
     public List<PlayerView> getPlayers() { return players; }
+    public long getRevision() { return revision; }
 }
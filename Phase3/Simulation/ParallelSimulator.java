@@ -0,0 +1,98 @@
+package Simulation;
+
+import Server.Shoe;
+import Server.ShuffleEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs a simulation across a ForkJoinPool. The rounds are cut into fixed
+ * size chunks, and chunk i always gets the i-th seed split from the run's
+ * seed and a shoe and Simulator of its own. What a chunk plays therefore
+ * depends only on the seed and the chunk size, never on the number of
+ * threads or on scheduling, and the chunk results are merged in chunk order:
+ * the same seed gives a bit-identical result on any machine.
+ *
+ * Chunks share nothing, so throughput grows with cores until there are
+ * fewer chunks than threads.
+ */
+public class ParallelSimulator {
+    public static final int DEFAULT_CHUNK_ROUNDS = 1 << 18;
+
+    private final int numDecks;
+    private final double penetration;
+    private final int seats;
+    private final Supplier<Strategy> strategies;
+    private final int chunkRounds;
+    private final ForkJoinPool pool;
+
+    /** strategies supplies one Strategy per chunk, so strategies that keep state stay per thread. */
+    public ParallelSimulator(int numDecks, double penetration, int seats, Supplier<Strategy> strategies) {
+        this(numDecks, penetration, seats, strategies, DEFAULT_CHUNK_ROUNDS, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSimulator(int numDecks, double penetration, int seats, Supplier<Strategy> strategies,
+                             int chunkRounds, ForkJoinPool pool) {
+        if (chunkRounds < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkRounds);
+        }
+        this.numDecks = numDecks;
+        this.penetration = penetration;
+        this.seats = seats;
+        this.strategies = strategies;
+        this.chunkRounds = chunkRounds;
+        this.pool = pool;
+    }
+
+    public SimulationResult run(long rounds, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<SimulationResult>> chunks = new ArrayList<>();
+        for (long start = 0; start < rounds; start += chunkRounds) {
+            long chunkSeed = root.split().nextLong();
+            long length = Math.min(chunkRounds, rounds - start);
+            chunks.add(() -> new Simulator(numDecks, penetration, seats, strategies.get(), ShuffleEngine.fast(chunkSeed))
+                    .run(length));
+        }
+
+        SimulationResult total = new SimulationResult();
+        for (Future<SimulationResult> chunk : pool.invokeAll(chunks)) {
+            try {
+                total.merge(chunk.get());
+            } catch (Exception e) {
+                throw new IllegalStateException("Simulation chunk failed", e);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Runs a parallel simulation from the command line:
+     *   java Simulation.ParallelSimulator [rounds] [stand|mimic|neverbust] [decks] [seats] [seed] [threads]
+     */
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        String strategy = args.length > 1 ? args[1] : "mimic";
+        int decks = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int seats = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ParallelSimulator simulator = new ParallelSimulator(decks, Shoe.DEFAULT_PENETRATION, seats,
+                () -> Strategy.forName(strategy), DEFAULT_CHUNK_ROUNDS, pool);
+        long began = System.nanoTime();
+        SimulationResult result = simulator.run(rounds, seed);
+        long took = System.nanoTime() - began;
+        pool.shutdown();
+
+        System.out.println(result);
+        System.out.printf("seed %d, %d threads, %,d hands/s%n",
+                seed, threads, result.getHands() * 1_000_000_000L / Math.max(1, took));
+    }
+}
@@ -0,0 +1,148 @@
+package Simulation;
+
+import Enums.BetStatus;
+
+/**
+ * Totals of a simulation run, one hand being one seat's bet of one unit in
+ * one round. Results of runs over separate shoes can be merged.
+ *
+ * Every hand result is a multiple of half a unit, so the sums behind the
+ * mean and variance are exact in a double (up to 2^50 hands or so) and a
+ * merge gives the same bits whatever order the parts are added in.
+ */
+public class SimulationResult {
+    // Hand results from -3 to +3 units in half unit steps; a doubled blackjack pays +3
+    private static final int MAX_HALF_UNITS = 6;
+
+    private long rounds;
+    private long hands;
+    private double net;          // units won, negative when lost
+    private double netSquares;   // sum of squared per-hand results, for the variance
+    private long wins;
+    private long blackjacks;     // paid 3:2
+    private long pushes;
+    private long losses;
+    private long playerBusts;
+    private long dealerBusts;
+    private long doubles;
+    private final long[] histogram = new long[2 * MAX_HALF_UNITS + 1];
+
+    void addRound(boolean dealerBust) {
+        rounds++;
+        if (dealerBust) {
+            dealerBusts++;
+        }
+    }
+
+    void addHand(BetStatus outcome, double result, boolean bust, boolean doubled) {
+        hands++;
+        net += result;
+        netSquares += result * result;
+        histogram[bucket(result)]++;
+        switch (outcome) {
+            case BLACKJACK: blackjacks++; break;
+            case WIN:       wins++;       break;
+            case PUSH:      pushes++;     break;
+            default:        losses++;     break;
+        }
+        if (bust) {
+            playerBusts++;
+        }
+        if (doubled) {
+            doubles++;
+        }
+    }
+
+    public void merge(SimulationResult other) {
+        rounds += other.rounds;
+        hands += other.hands;
+        net += other.net;
+        netSquares += other.netSquares;
+        wins += other.wins;
+        blackjacks += other.blackjacks;
+        pushes += other.pushes;
+        losses += other.losses;
+        playerBusts += other.playerBusts;
+        dealerBusts += other.dealerBusts;
+        doubles += other.doubles;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    private static int bucket(double result) {
+        int halfUnits = (int) Math.round(result * 2);
+        return Math.max(-MAX_HALF_UNITS, Math.min(MAX_HALF_UNITS, halfUnits)) + MAX_HALF_UNITS;
+    }
+
+    /** Hands that ended with this result in units, e.g. -2 for a lost double, 1.5 for a blackjack. */
+    public long getHandsWithResult(double result) {
+        return histogram[bucket(result)];
+    }
+
+    /** Expected result of one hand, in units bet (negative is the house edge). */
+    public double getExpectedValue() {
+        return hands == 0 ? 0 : net / hands;
+    }
+
+    /** Variance of one hand's result, in units squared. */
+    public double getVariance() {
+        if (hands == 0) {
+            return 0;
+        }
+        double mean = net / hands;
+        return netSquares / hands - mean * mean;
+    }
+
+    /** Standard error of getExpectedValue. */
+    public double getStandardError() {
+        return hands == 0 ? 0 : Math.sqrt(getVariance() / hands);
+    }
+
+    public double getPlayerBustRate() {
+        return hands == 0 ? 0 : (double) playerBusts / hands;
+    }
+
+    public double getDealerBustRate() {
+        return rounds == 0 ? 0 : (double) dealerBusts / rounds;
+    }
+
+    public long getRounds() { return rounds; }
+    public long getHands() { return hands; }
+    public double getNet() { return net; }
+    public long getWins() { return wins; }
+    public long getBlackjacks() { return blackjacks; }
+    public long getPushes() { return pushes; }
+    public long getLosses() { return losses; }
+    public long getPlayerBusts() { return playerBusts; }
+    public long getDealerBusts() { return dealerBusts; }
+    public long getDoubles() { return doubles; }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%,d rounds, %,d hands%n"
+                        + "EV %+.5f units/hand (+/- %.5f), variance %.4f%n"
+                        + "win %.4f  blackjack %.4f  push %.4f  lose %.4f  doubled %.4f%n"
+                        + "player bust %.4f  dealer bust %.4f%n"
+                        + "results %s",
+                rounds, hands,
+                getExpectedValue(), getStandardError(), getVariance(),
+                rate(wins), rate(blackjacks), rate(pushes), rate(losses), rate(doubles),
+                getPlayerBustRate(), getDealerBustRate(), histogramText());
+    }
+
+    private String histogramText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                sb.append(String.format("%+.1f:%.4f ", (i - MAX_HALF_UNITS) / 2.0, rate(histogram[i])));
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private double rate(long count) {
+        return hands == 0 ? 0 : (double) count / hands;
+    }
+}
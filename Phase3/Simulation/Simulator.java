@@ -0,0 +1,131 @@
+package Simulation;
+
+import Enums.BetStatus;
+import Enums.PlayerAction;
+import Server.Bet;
+import Server.Card;
+import Server.Dealer;
+import Server.Hand;
+import Server.Shoe;
+import Server.ShuffleEngine;
+
+/**
+ * Plays blackjack rounds headless, for house edge and bankroll analysis:
+ * GameTable's deal order, turn rules, Dealer.mustHit and Bet's settlement
+ * and payout, with no table thread, snapshots or sockets. Every seat bets
+ * one unit and plays the same Strategy; bankrolls are unlimited, so a
+ * double is never refused for lack of funds.
+ *
+ * A simulator owns its shoe and hands and reuses them every round, so a
+ * round allocates nothing. Not thread safe: run one per thread.
+ */
+public class Simulator {
+    private final Shoe shoe;
+    private final Dealer dealer = new Dealer("simulator", "");
+    private final Hand[] seats;
+    private final boolean[] doubled;
+    private final Strategy strategy;
+
+    public Simulator(Strategy strategy, ShuffleEngine engine) {
+        this(7, Shoe.DEFAULT_PENETRATION, 1, strategy, engine);
+    }
+
+    public Simulator(int numDecks, double penetration, int seats, Strategy strategy, ShuffleEngine engine) {
+        if (seats < 1 || seats > 7) {
+            throw new IllegalArgumentException("A table seats 1 to 7 players: " + seats);
+        }
+        this.shoe = new Shoe(numDecks, penetration, false, engine);
+        this.seats = new Hand[seats];
+        for (int i = 0; i < seats; i++) {
+            this.seats[i] = new Hand();
+        }
+        this.doubled = new boolean[seats];
+        this.strategy = strategy;
+    }
+
+    public SimulationResult run(long rounds) {
+        SimulationResult result = new SimulationResult();
+        run(rounds, result);
+        return result;
+    }
+
+    /** Plays rounds more rounds, adding them to result. */
+    public void run(long rounds, SimulationResult result) {
+        for (long r = 0; r < rounds; r++) {
+            playRound(result);
+        }
+    }
+
+    private void playRound(SimulationResult result) {
+        Hand dealerHand = dealer.getHand();
+        dealerHand.clearHand();
+        for (int s = 0; s < seats.length; s++) {
+            seats[s].clearHand();
+            doubled[s] = false;
+        }
+
+        // Same order as GameTable: two cards to each player, then two to the dealer
+        for (Hand seat : seats) {
+            seat.addCard(shoe.draw());
+            seat.addCard(shoe.draw());
+        }
+        dealerHand.addCard(shoe.draw());
+        dealerHand.addCard(shoe.draw());
+        Card upCard = dealerHand.getCards().get(0); // the second card is the hole card
+
+        for (int s = 0; s < seats.length; s++) {
+            doubled[s] = playTurn(seats[s], upCard);
+        }
+
+        // The dealer plays out even when every player has bust, as at the table
+        while (dealer.mustHit(dealerHand.getValue())) {
+            dealerHand.addCard(shoe.draw());
+        }
+
+        result.addRound(dealerHand.isBust());
+        for (int s = 0; s < seats.length; s++) {
+            Hand hand = seats[s];
+            BetStatus outcome = Bet.outcome(hand, dealerHand);
+            result.addHand(outcome, Bet.payout(outcome, 1.0, doubled[s]), hand.isBust(), doubled[s]);
+        }
+        shoe.endRound();
+    }
+
+    // One player's turn; returns whether they doubled
+    private boolean playTurn(Hand hand, Card upCard) {
+        while (true) {
+            PlayerAction action = strategy.decide(hand, upCard);
+            if (action == PlayerAction.STAND) {
+                return false;
+            }
+            if (action == PlayerAction.DOUBLE && hand.size() == 2) {
+                hand.addCard(shoe.draw());
+                return true;
+            }
+            hand.addCard(shoe.draw()); // HIT, or a double the table would refuse
+            if (hand.isBust()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Runs a simulation from the command line:
+     *   java Simulation.Simulator [rounds] [stand|mimic|neverbust] [decks] [seats] [seed]
+     */
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        Strategy strategy = Strategy.forName(args.length > 1 ? args[1] : "mimic");
+        int decks = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int seats = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        ShuffleEngine engine = args.length > 4 ? ShuffleEngine.fast(Long.parseLong(args[4])) : ShuffleEngine.fast();
+
+        Simulator simulator = new Simulator(decks, Shoe.DEFAULT_PENETRATION, seats, strategy, engine);
+        long began = System.nanoTime();
+        SimulationResult result = simulator.run(rounds);
+        long took = System.nanoTime() - began;
+
+        System.out.println(result);
+        System.out.printf("%,d hands/s%n", result.getHands() * 1_000_000_000L / Math.max(1, took));
+    }
+}
@@ -0,0 +1,44 @@
+package Simulation;
+
+import Enums.PlayerAction;
+import Server.Card;
+import Server.Hand;
+
+/**
+ * How a simulated player plays a hand: asked for an action until it stands,
+ * busts or doubles. DOUBLE on more than two cards is taken as HIT, as the
+ * table would refuse it.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    PlayerAction decide(Hand hand, Card dealerUpCard);
+
+    /** Never takes a card. */
+    static Strategy standAlways() {
+        return (hand, up) -> PlayerAction.STAND;
+    }
+
+    /** Plays like the dealer: hits below 17, whatever the dealer shows. */
+    static Strategy mimicDealer() {
+        return (hand, up) -> hand.getValue() < 17 ? PlayerAction.HIT : PlayerAction.STAND;
+    }
+
+    /** Hits only while no card can bust the hand. */
+    static Strategy neverBust() {
+        return (hand, up) -> hand.isSoft() || hand.getValue() < 12 ? PlayerAction.HIT : PlayerAction.STAND;
+    }
+
+    static Strategy forName(String name) {
+        switch (name) {
+            case "stand":
+                return standAlways();
+            case "mimic":
+                return mimicDealer();
+            case "neverbust":
+                return neverBust();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package Tests;
+
+import Enums.AccState;
+import Server.Account;
+import Server.AccountJournal;
+import Server.LoginManager;
+import Server.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private LoginManager open() {
+        LoginManager manager = new LoginManager(dir.resolve("accounts.txt").toString());
+        manager.loadData();
+        return manager;
+    }
+
+    @Test
+    void changesSurviveACrashWithoutSave() {
+        LoginManager before = open();
+        Player pat = (Player) before.createAccount("pat", "pw", "PLAYER");
+        before.createAccount("dana", "pw", "DEALER");
+        pat.updateBalance(250);
+        pat.setAccState(AccState.SUSPENDED);
+        before.sync();
+        // no save(): the process "dies" here
+
+        LoginManager after = open();
+        Account reloaded = after.login("pat", "pw");
+        assertNotNull(reloaded);
+        assertEquals(1250, ((Player) reloaded).getBalance());
+        assertEquals(AccState.SUSPENDED, reloaded.getAccState());
+        assertNotNull(after.login("dana", "pw"));
+        before.close();
+        after.close();
+    }
+
+    @Test
+    void saveFoldsTheJournalIntoTheSnapshot() throws Exception {
+        LoginManager manager = open();
+        Player lee = (Player) manager.createAccount("lee", "pw", "PLAYER");
+        lee.updateBalance(-100);
+        manager.save();
+
+        assertEquals(0, Files.size(dir.resolve("accounts.journal")));
+        assertFalse(Files.exists(dir.resolve("accounts.journal.old")));
+        List<String> snapshot = Files.readAllLines(dir.resolve("accounts.txt"));
+        assertEquals(List.of("lee,pw,Player,900.0,ACTIVE,0"), snapshot);
+
+        // changes after the compaction still survive a restart
+        lee.updateBalance(50);
+        manager.sync();
+        manager.close();
+        assertEquals(950, ((Player) open().login("lee", "pw")).getBalance());
+    }
+
+    @Test
+    void oldThreeColumnSnapshotStillLoads() throws Exception {
+        Files.writeString(dir.resolve("accounts.txt"), "old,pw,Player\n");
+        LoginManager manager = open();
+        assertEquals(1000, ((Player) manager.login("old", "pw")).getBalance());
+        manager.close();
+    }
+
+    @Test
+    void tornLastRecordIsDropped() throws Exception {
+        LoginManager manager = open();
+        manager.createAccount("kim", "pw", "PLAYER");
+        manager.sync();
+        manager.close();
+        // crash in the middle of the next record
+        Files.write(dir.resolve("accounts.journal"), "UPD,kim,12".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Account kim = open().login("kim", "pw");
+        assertNotNull(kim);
+        assertEquals(1000, ((Player) kim).getBalance());
+    }
+
+    @Test
+    void concurrentAppendsShareFlushes() throws Exception {
+        try (AccountJournal journal = new AccountJournal(dir.resolve("group.journal"))) {
+            List<CompletableFuture<Void>> pending = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                pending.add(journal.append("UPD,user" + i + ",1.0,ACTIVE"));
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+
+            assertEquals(2_000, AccountJournal.readRecords(dir.resolve("group.journal")).size());
+            assertTrue(journal.getSyncCount() < 2_000, "Appends should be batched, saw " + journal.getSyncCount() + " flushes");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package Tests;
+
+import Server.AuditLog;
+import Server.AuditSegmentWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private Path active() {
+        return dir.resolve("user_log.txt");
+    }
+
+    private Path segments() {
+        return dir.resolve("user_log");
+    }
+
+    // 10 segments of 1000 events each, one event per second, users u0..u9
+    // except that "rare" only logs in during the 8th segment
+    private void writeHistory() throws Exception {
+        try (AuditSegmentWriter out = new AuditSegmentWriter(active(), segments(), 40_000)) {
+            for (int i = 0; i < 10_000; i++) {
+                String user = i == 7_500 ? "rare" : "u" + (i % 10);
+                out.append(T0.plusSeconds(i), user, "LOGIN");
+            }
+        }
+    }
+
+    @Test
+    void timeWindowReadsOnlyTheSegmentsThatCoverIt() throws Exception {
+        writeHistory();
+        long sealed;
+        try (var files = Files.list(segments())) {
+            sealed = files.filter(p -> p.toString().endsWith(".log")).count();
+        }
+        assertTrue(sealed >= 5, "Expected the history to be split, got " + sealed + " segments");
+
+        AuditLog log = new AuditLog(active(), segments());
+        List<String> hits = log.query(null, T0.plusSeconds(100), T0.plusSeconds(199));
+
+        assertEquals(100, hits.size());
+        assertTrue(hits.get(0).startsWith(T0.plusSeconds(100).toString()));
+        assertTrue(log.getLastSegmentsRead() <= 3, "Read " + log.getLastSegmentsRead() + " segments for a 100s window");
+    }
+
+    @Test
+    void usernameLookupSkipsSegmentsWithoutThem() throws Exception {
+        writeHistory();
+        AuditLog log = new AuditLog(active(), segments());
+
+        List<String> hits = log.query("rare", null, null);
+
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).contains(",rare,LOGIN"));
+        assertTrue(log.getLastSegmentsRead() <= 3, "Bloom filters should rule out most segments, read " + log.getLastSegmentsRead());
+    }
+
+    @Test
+    void bloomFilterScalesWithTheUsersInASegment() throws Exception {
+        // far more users than a fixed 1 << 16 bit filter can tell apart
+        try (AuditSegmentWriter out = new AuditSegmentWriter(active(), segments(), Long.MAX_VALUE)) {
+            for (int i = 0; i < 50_000; i++) {
+                out.append(T0.plusNanos(i), "player" + i, "LOGIN");
+            }
+            out.append(T0.plusDays(1), "player0", "LOGOUT");
+        }
+        AuditLog log = new AuditLog(active(), segments());
+
+        int segmentsRead = 0;
+        for (int i = 0; i < 200; i++) {
+            assertTrue(log.query("absent" + i, null, null).isEmpty());
+            segmentsRead += log.getLastSegmentsRead() - 1; // the active file is always read
+        }
+        assertTrue(segmentsRead <= 20, "Bloom filter let " + segmentsRead + " of 200 absent users through");
+        assertEquals(1, log.query("player49999", null, null).size());
+    }
+
+    @Test
+    void newDayStartsANewSegment() throws Exception {
+        try (AuditSegmentWriter out = new AuditSegmentWriter(active(), segments(), Long.MAX_VALUE)) {
+            out.append(T0, "ann", "LOGIN");
+            out.append(T0.plusDays(1), "ann", "LOGOUT");
+        }
+        assertTrue(Files.exists(segments().resolve("segment-000001.log")));
+        assertTrue(Files.exists(segments().resolve("segment-000001.idx")));
+        assertEquals(1, Files.readAllLines(active()).size());
+    }
+
+    @Test
+    void restartContinuesTheActiveFileAndNumbering() throws Exception {
+        try (AuditSegmentWriter out = new AuditSegmentWriter(active(), segments(), 100)) {
+            for (int i = 0; i < 5; i++) {
+                out.append(T0.plusSeconds(i), "bo", "LOGIN");
+            }
+        }
+        // lose one index: it is rebuilt from its log
+        Files.delete(segments().resolve("segment-000001.idx"));
+        try (AuditSegmentWriter out = new AuditSegmentWriter(active(), segments(), 100)) {
+            for (int i = 5; i < 10; i++) {
+                out.append(T0.plusSeconds(i), "bo", "LOGIN");
+            }
+        }
+
+        List<String> all = new AuditLog(active(), segments()).query("bo", null, null);
+        assertEquals(10, all.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(all.get(i).startsWith(T0.plusSeconds(i).toString()), all.get(i));
+        }
+    }
+}
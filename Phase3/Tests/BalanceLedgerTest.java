@@ -0,0 +1,72 @@
+package Tests;
+
+import Enums.AccState;
+import Server.BalanceLedger;
+import Server.LoginManager;
+import Server.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void settlementsAreWrittenInPlace() throws Exception {
+        LoginManager manager = new LoginManager(dir.resolve("accounts.txt").toString());
+        manager.loadData();
+        Player ray = (Player) manager.createAccount("ray", "pw", "PLAYER");
+        manager.sync();
+        long journalSize = Files.size(dir.resolve("accounts.journal"));
+
+        for (int i = 0; i < 100; i++) {
+            ray.updateBalance(1);
+        }
+        manager.sync();
+        manager.close();
+
+        // only the registration went to the journal, the balance lives in the ledger
+        assertEquals(journalSize, Files.size(dir.resolve("accounts.journal")));
+        try (BalanceLedger ledger = new BalanceLedger(dir.resolve("accounts.ledger"))) {
+            assertEquals(1100, ledger.getBalance(0));
+            assertEquals(101, ledger.getSequence(0)); // registration plus 100 settlements
+        }
+
+        LoginManager restarted = new LoginManager(dir.resolve("accounts.txt").toString());
+        restarted.loadData();
+        assertEquals(1100, ((Player) restarted.login("ray", "pw")).getBalance());
+        restarted.close();
+    }
+
+    @Test
+    void recordForAnotherAccountIsNotTrusted() throws Exception {
+        try (BalanceLedger ledger = new BalanceLedger(dir.resolve("slots.ledger"))) {
+            ledger.write(3, "ghost", 5, AccState.LOCKED);
+            assertTrue(ledger.owns(3, "ghost"));
+            assertFalse(ledger.owns(3, "someoneElse"));
+            assertFalse(ledger.owns(4, "ghost"));
+        }
+    }
+
+    @Test
+    void ledgerGrowsPastItsFirstMapping() throws Exception {
+        Path file = dir.resolve("grow.ledger");
+        try (BalanceLedger ledger = new BalanceLedger(file)) {
+            int far = ledger.getCapacity() * 3;
+            ledger.write(far, "late", 42.5, AccState.ACTIVE);
+            ledger.write(1, "early", 7, AccState.SUSPENDED);
+        }
+        try (BalanceLedger reopened = new BalanceLedger(file)) {
+            int far = 1024 * 3;
+            assertTrue(reopened.owns(far, "late"));
+            assertEquals(42.5, reopened.getBalance(far));
+            assertEquals(AccState.SUSPENDED, reopened.getState(1));
+        }
+    }
+}
@@ -52,4 +52,17 @@ public class CardTest {
         assertTrue(s.contains("HEARTS"), "toString should include the suit name");
         assertEquals("FOUR of HEARTS", s, "toString should match 'RANK of SUIT' format");
     }
+
+    @Test
+    void pooledCardsAreSharedAndRoundTripTheirCode() {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                Card pooled = Card.of(rank, suit);
+                assertSame(pooled, Card.of(rank, suit));
+                assertSame(pooled, Card.fromCode(pooled.getCode()));
+                assertEquals(rank, pooled.getRank());
+                assertEquals(suit, pooled.getSuit());
+            }
+        }
+    }
 }
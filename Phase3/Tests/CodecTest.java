@@ -0,0 +1,188 @@
+package Tests;
+
+import Enums.GameState;
+import Enums.MessageType;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Message.BinaryCodec;
+import Message.FrameCodec;
+import Message.JavaSerialCodec;
+import Message.Message;
+import Message.MessageCodec;
+import Shared.CardView;
+import Shared.DealerView;
+import Shared.PlayerView;
+import Shared.TableSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecTest {
+
+    private final MessageCodec binary = BinaryCodec.INSTANCE;
+
+    private Message message(MessageType type, Object payload) {
+        return new Message(UUID.randomUUID().toString(), type, "CLIENT", "SERVER", payload, LocalDateTime.now());
+    }
+
+    private Message roundTrip(MessageCodec codec, Message msg) throws Exception {
+        byte[] body = codec.encode(msg);
+        return codec.decode(body, 0, body.length);
+    }
+
+    static TableSnapshot sampleSnapshot() {
+        DealerView dealer = new DealerView(List.of(
+                new CardView(Rank.KING, Suit.SPADES, false),
+                new CardView(Rank.ACE, Suit.HEARTS, true)), true);
+        PlayerView sam = new PlayerView("sam", 25.0, 19, true, true, true,
+                List.of(new CardView(Rank.NINE, Suit.CLUBS, false), new CardView(Rank.TEN, Suit.DIAMONDS, false)),
+                975.5);
+        PlayerView ann = new PlayerView("ann", 10.0, 12, true, false, false,
+                List.of(new CardView(Rank.TWO, Suit.HEARTS, false), new CardView(Rank.QUEEN, Suit.CLUBS, false)),
+                490.0);
+        return new TableSnapshot("T1", GameState.IN_PROGRESS, "sam", dealer, List.of(sam, ann));
+    }
+
+    @Test
+    void envelopeFieldsSurvive() throws Exception {
+        Message in = message(MessageType.LOGIN, new String[] {"sam", "pw"});
+        Message out = roundTrip(binary, in);
+
+        assertEquals(in.getMessageID(), out.getMessageID());
+        assertEquals(in.getMessageType(), out.getMessageType());
+        assertEquals(in.getSender(), out.getSender());
+        assertEquals(in.getRecipient(), out.getRecipient());
+        assertEquals(in.getTimestamp(), out.getTimestamp());
+        assertArrayEquals((String[]) in.getPayload(), (String[]) out.getPayload());
+    }
+
+    @Test
+    void nonUuidIdAndNullsSurvive() throws Exception {
+        Message in = new Message("custom-id", MessageType.EXIT, null, null, null, null);
+        Message out = roundTrip(binary, in);
+
+        assertEquals("custom-id", out.getMessageID());
+        assertNull(out.getSender());
+        assertNull(out.getRecipient());
+        assertNull(out.getPayload());
+        assertNull(out.getTimestamp());
+    }
+
+    @Test
+    void gamePayloadsSurvive() throws Exception {
+        assertEquals(42.5, roundTrip(binary, message(MessageType.BET_PLACED, 42.5)).getPayload());
+        assertEquals(PlayerAction.DOUBLE, roundTrip(binary, message(MessageType.PLAYER_ACTION, PlayerAction.DOUBLE)).getPayload());
+        assertEquals("T3", roundTrip(binary, message(MessageType.JOIN_TABLE, "T3")).getPayload());
+        assertEquals(List.of("T1", "T2"), roundTrip(binary, message(MessageType.OK, List.of("T1", "T2"))).getPayload());
+    }
+
+    @Test
+    void snapshotSurvives() throws Exception {
+        TableSnapshot in = sampleSnapshot();
+        TableSnapshot out = (TableSnapshot) roundTrip(binary, message(MessageType.TABLE_SNAPSHOT, in)).getPayload();
+
+        assertEquals("T1", out.getTableId());
+        assertEquals(GameState.IN_PROGRESS, out.getState());
+        assertEquals("sam", out.getCurrentPlayerUsername());
+        assertTrue(out.getDealerView().hasHiddenCard());
+        assertTrue(out.getDealerView().getCards().get(1).isHidden());
+        assertEquals(Rank.KING, out.getDealerView().getCards().get(0).getRank());
+
+        PlayerView sam = out.getPlayers().get(0);
+        assertEquals("sam", sam.getUsername());
+        assertEquals(25.0, sam.getBetAmount());
+        assertEquals(19, sam.getHandValue());
+        assertTrue(sam.isYou());
+        assertTrue(sam.isYourTurn());
+        assertEquals(975.5, sam.getBalance());
+        assertEquals(Suit.DIAMONDS, sam.getCards().get(1).getSuit());
+        assertFalse(out.getPlayers().get(1).isYou());
+    }
+
+    @Test
+    void unknownPayloadFallsBackToJavaSerialization() throws Exception {
+        java.util.HashMap<String, Integer> map = new java.util.HashMap<>();
+        map.put("a", 1);
+        assertEquals(map, roundTrip(binary, message(MessageType.OK, map)).getPayload());
+    }
+
+    @Test
+    void binaryIsSmallerThanJavaSerialization() throws Exception {
+        Message msg = message(MessageType.TABLE_SNAPSHOT, sampleSnapshot());
+        int javaBytes = JavaSerialCodec.INSTANCE.encode(msg).length;
+        int binaryBytes = binary.encode(msg).length;
+
+        assertTrue(binaryBytes * 4 < javaBytes, "binary=" + binaryBytes + " java=" + javaBytes);
+    }
+
+    @Test
+    void frameHeaderCarriesBodyLength() throws Exception {
+        Message msg = message(MessageType.OK, "hello");
+        byte[] frame = FrameCodec.encode(msg, binary);
+        int length = ((frame[0] & 0xFF) << 24) | ((frame[1] & 0xFF) << 16) | ((frame[2] & 0xFF) << 8) | (frame[3] & 0xFF);
+
+        assertEquals(frame.length - FrameCodec.HEADER_BYTES, length);
+        assertEquals("hello", FrameCodec.decode(frame, FrameCodec.HEADER_BYTES, length, binary).getPayload());
+    }
+
+    // Envelope with null id, sender and recipient: the timestamp flag is at 5, nanos at 14
+    private byte[] bareEnvelope(LocalDateTime time, Object payload) throws Exception {
+        return binary.encode(new Message(null, MessageType.OK, null, null, payload, time));
+    }
+
+    private static void putInt(byte[] body, int at, int value) {
+        body[at] = (byte) (value >>> 24);
+        body[at + 1] = (byte) (value >>> 16);
+        body[at + 2] = (byte) (value >>> 8);
+        body[at + 3] = (byte) value;
+    }
+
+    @Test
+    void outOfRangeNanosIsAnIOException() throws Exception {
+        byte[] body = bareEnvelope(LocalDateTime.now(), null);
+        putInt(body, 14, 1_000_000_000);
+
+        assertThrows(IOException.class, () -> binary.decode(body, 0, body.length));
+    }
+
+    @Test
+    void javaPayloadLengthIsCheckedAgainstTheFrame() throws Exception {
+        // no timestamp: payload tag at 6, blob length at 7
+        byte[] body = bareEnvelope(null, Map.of("a", 1));
+        for (int bad : new int[] {-1, Integer.MAX_VALUE, body.length}) {
+            putInt(body, 7, bad);
+            assertThrows(IOException.class, () -> binary.decode(body, 0, body.length), "length " + bad);
+        }
+    }
+
+    @Test
+    void unknownEnumIndexIsAnIOException() throws Exception {
+        byte[] body = bareEnvelope(null, null);
+        body[1] = 120; // message type
+
+        assertThrows(IOException.class, () -> binary.decode(body, 0, body.length));
+    }
+
+    @Test
+    void oversizedStringArrayFallsBackToJavaSerialization() throws Exception {
+        String[] big = new String[70_000];
+        Arrays.fill(big, "x");
+
+        assertArrayEquals(big, (String[]) roundTrip(binary, message(MessageType.OK, big)).getPayload());
+    }
+
+    @Test
+    void codecLookupByName() {
+        assertSame(BinaryCodec.INSTANCE, FrameCodec.codecFor("binary"));
+        assertSame(JavaSerialCodec.INSTANCE, FrameCodec.codecFor("java"));
+        assertNull(FrameCodec.codecFor("protobuf"));
+    }
+}
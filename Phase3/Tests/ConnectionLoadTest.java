@@ -0,0 +1,163 @@
+package Tests;
+
+import Enums.MessageType;
+import Enums.ServerMode;
+import Message.Message;
+import Server.LoginManager;
+import Server.Server;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opens many idle lobby connections against the blocking server and counts
+ * how many of them actually get served. The JUnit cases keep the numbers
+ * small; run main() for the full comparison, e.g.
+ *   java Tests.ConnectionLoadTest 5000
+ */
+public class ConnectionLoadTest {
+
+    private static final int READ_TIMEOUT_MS = 2000;
+
+    /** Result of one load run. */
+    static class LoadResult {
+        final ServerMode mode;
+        final int attempted;
+        final int served;
+        final int threadsAdded;
+        final long heapBytesAdded;
+
+        LoadResult(ServerMode mode, int attempted, int served, int threadsAdded, long heapBytesAdded) {
+            this.mode = mode;
+            this.attempted = attempted;
+            this.served = served;
+            this.threadsAdded = threadsAdded;
+            this.heapBytesAdded = heapBytesAdded;
+        }
+
+        @Override
+        public String toString() {
+            long perConnection = served == 0 ? 0 : heapBytesAdded / served;
+            return String.format("%-8s attempted=%6d served=%6d platformThreads+=%5d heap/conn=%7d B",
+                    mode, attempted, served, threadsAdded, perConnection);
+        }
+    }
+
+    /** One idle client: connected, said one thing, waiting for the next. */
+    private static class IdleClient {
+        final Socket socket;
+        ObjectOutputStream out;
+        ObjectInputStream in;
+
+        IdleClient(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(READ_TIMEOUT_MS);
+        }
+
+        // true if the server answered a request on this connection
+        boolean ping() {
+            try {
+                out = new ObjectOutputStream(socket.getOutputStream());
+                out.flush();
+                in = new ObjectInputStream(socket.getInputStream());
+                out.writeObject(new Message(UUID.randomUUID().toString(), MessageType.LOGIN,
+                        "CLIENT", "SERVER", new String[] {"nobody", "pw"}, LocalDateTime.now()));
+                out.flush();
+                return in.readObject() instanceof Message;
+            } catch (SocketTimeoutException e) {
+                return false; // never picked up by a handler thread
+            } catch (IOException | ClassNotFoundException e) {
+                return false;
+            }
+        }
+    }
+
+    static LoadResult run(ServerMode mode, int connections) throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0, connections);
+        ExecutorService pool = Server.newHandlerPool(mode);
+        LoginManager manager = new LoginManager();
+        Thread acceptor = new Thread(() -> {
+            try {
+                Server.acceptConnections(serverSocket, pool, manager);
+            } catch (IOException ignored) {
+                // socket closed, run finished
+            }
+        }, "LoadTestAcceptor");
+        acceptor.start();
+
+        System.gc();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapBefore = usedHeap();
+
+        List<IdleClient> clients = new ArrayList<>();
+        int served = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                clients.add(new IdleClient(serverSocket.getLocalPort()));
+            }
+            // Ping in parallel so the stalled connections time out together
+            List<Thread> pingers = new ArrayList<>();
+            boolean[] answered = new boolean[clients.size()];
+            for (int i = 0; i < clients.size(); i++) {
+                final int idx = i;
+                pingers.add(Thread.ofVirtual().start(() -> answered[idx] = clients.get(idx).ping()));
+            }
+            for (Thread t : pingers) {
+                t.join();
+            }
+            for (boolean b : answered) {
+                if (b) served++;
+            }
+
+            int threadsAdded = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+            System.gc();
+            long heapAdded = usedHeap() - heapBefore;
+            return new LoadResult(mode, connections, served, threadsAdded, heapAdded);
+        } finally {
+            for (IdleClient c : clients) {
+                c.socket.close();
+            }
+            serverSocket.close();
+            pool.shutdownNow();
+            acceptor.join();
+        }
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    void threadsModeStopsServingAtTheCap() throws Exception {
+        LoadResult result = run(ServerMode.THREADS, 110);
+
+        assertEquals(100, result.served, "Fixed pool should serve exactly MAX_THREADS clients");
+    }
+
+    @Test
+    void virtualModeServesPastTheCap() throws Exception {
+        LoadResult result = run(ServerMode.VIRTUAL, 300);
+
+        assertEquals(300, result.served, "Virtual threads should serve every connection");
+        assertTrue(result.threadsAdded < 100, "Idle virtual threads should not add platform threads");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println(run(ServerMode.THREADS, connections));
+        System.out.println(run(ServerMode.VIRTUAL, connections));
+    }
+}
@@ -0,0 +1,64 @@
+package Tests;
+
+import Server.CountSurveillance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountSurveillanceTest {
+
+    @Test
+    void betRampWithTheCountIsFlaggedOnce() {
+        List<CountSurveillance.Alert> alerts = new ArrayList<>();
+        CountSurveillance watch = new CountSurveillance(20, 0.5, alerts::add);
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < 100; i++) {
+            double trueCount = random.nextDouble(-4, 4);
+            double amount = trueCount >= 2 ? 100 : trueCount >= 1 ? 40 : 10; // a classic 1-10 spread
+            watch.recordBet("Counter", "T1", trueCount, amount);
+        }
+
+        assertEquals(1, alerts.size(), "One alert per player, not one per bet");
+        assertEquals("Counter", alerts.get(0).username());
+        assertEquals(20, alerts.get(0).bets(), "Flagged as soon as there were enough bets");
+        assertTrue(watch.isFlagged("counter"));
+        assertTrue(watch.getCorrelation("counter") > 0.7);
+        assertEquals(100, watch.getBetCount("counter"));
+    }
+
+    @Test
+    void flatAndRandomBettorsAreNotFlagged() {
+        List<CountSurveillance.Alert> alerts = new ArrayList<>();
+        CountSurveillance watch = new CountSurveillance(20, 0.5, alerts::add);
+        SplittableRandom random = new SplittableRandom(2);
+
+        for (int i = 0; i < 500; i++) {
+            double trueCount = random.nextDouble(-4, 4);
+            watch.recordBet("flat", "T1", trueCount, 25);
+            watch.recordBet("random", "T1", trueCount, 5 + random.nextInt(100));
+        }
+
+        assertTrue(alerts.isEmpty(), alerts.toString());
+        assertTrue(Double.isNaN(watch.getCorrelation("flat")), "No spread, nothing to correlate");
+        assertTrue(Math.abs(watch.getCorrelation("random")) < 0.2);
+        assertTrue(Double.isNaN(watch.getCorrelation("nobody")));
+    }
+
+    @Test
+    void clearStartsAPlayerOver() {
+        List<CountSurveillance.Alert> alerts = new ArrayList<>();
+        CountSurveillance watch = new CountSurveillance(2, 0.5, alerts::add);
+        watch.recordBet("amy", "T1", -1, 10);
+        watch.recordBet("amy", "T1", 3, 50);
+        assertTrue(watch.isFlagged("amy"));
+
+        watch.clear("amy");
+        assertFalse(watch.isFlagged("amy"));
+        assertEquals(0, watch.getBetCount("amy"));
+    }
+}
@@ -0,0 +1,103 @@
+package Tests;
+
+import Analytics.DealerOutcome;
+import Analytics.DealerProbabilities;
+import Analytics.ShoeComposition;
+import Enums.Rank;
+import Enums.Suit;
+import Server.Card;
+import Server.Dealer;
+import Server.Hand;
+import Server.Shoe;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DealerProbabilitiesTest {
+
+    private static double sum(DealerOutcome o) {
+        double s = o.bust();
+        for (int t = 17; t <= 21; t++) {
+            s += o.probabilityOf(t);
+        }
+        return s;
+    }
+
+    @Test
+    void forcedShoesGiveCertainOutcomes() {
+        DealerProbabilities odds = new DealerProbabilities();
+
+        // 6 up, only tens left: 16, must hit, bust
+        DealerOutcome bust = odds.forUpcard(Rank.SIX, ShoeComposition.of(0, 0, 0, 0, 0, 0, 0, 0, 0, 8));
+        assertEquals(1.0, bust.bust(), 1e-12);
+
+        // Ace up, only sixes left: soft 17, and the dealer stands on it
+        DealerOutcome soft17 = odds.forUpcard(Rank.ACE, ShoeComposition.of(0, 0, 0, 0, 0, 4, 0, 0, 0, 0));
+        assertEquals(1.0, soft17.probabilityOf(17), 1e-12);
+    }
+
+    @Test
+    void probabilitiesSumToOneAndMatchKnownValues() {
+        DealerProbabilities odds = new DealerProbabilities();
+        ShoeComposition shoe = ShoeComposition.ofDecks(8);
+        shoe.remove(Card.of(Rank.SIX, Suit.HEARTS)); // the upcard itself is seen
+
+        DealerOutcome six = odds.forUpcard(Rank.SIX, shoe);
+        assertEquals(1.0, sum(six), 1e-9);
+        assertEquals(0.42, six.bust(), 0.01, "Dealer standing on soft 17 busts about 42% under a 6");
+
+        for (Rank up : Rank.values()) {
+            assertEquals(1.0, sum(odds.forUpcard(up, ShoeComposition.ofDecks(1))), 1e-9, up.name());
+        }
+    }
+
+    // Next card of a one deck shoe, skipping the ten of clubs that is already up
+    private static Card nextUnseen(Shoe shoe) {
+        Card c = shoe.dealCard();
+        return c.getRank() == Rank.TEN && c.getSuit() == Suit.CLUBS ? shoe.dealCard() : c;
+    }
+
+    @Test
+    void matchesDealingItOut() {
+        Card up = Card.of(Rank.TEN, Suit.CLUBS);
+        ShoeComposition unseen = ShoeComposition.ofDecks(1);
+        unseen.remove(up);
+        DealerOutcome exact = new DealerProbabilities().forUpcard(Rank.TEN, unseen);
+
+        Dealer dealer = new Dealer("test", "");
+        Hand hand = dealer.getHand();
+        Shoe shoe = new Shoe(1);
+        int trials = 200_000;
+        int busts = 0;
+        for (int i = 0; i < trials; i++) {
+            shoe.resetShoe();
+            hand.clearHand();
+            hand.addCard(up);
+            hand.addCard(nextUnseen(shoe)); // the hole card
+            while (dealer.mustHit(hand.getValue())) {
+                hand.addCard(nextUnseen(shoe));
+            }
+            if (hand.isBust()) {
+                busts++;
+            }
+        }
+        assertEquals(exact.bust(), (double) busts / trials, 0.005);
+    }
+
+    @Test
+    void repeatedQueriesComeFromTheCache() {
+        DealerProbabilities odds = new DealerProbabilities();
+        DealerOutcome first = odds.forUpcard(Rank.TWO, ShoeComposition.ofDecks(6));
+        DealerOutcome again = odds.forUpcard(Rank.TWO, ShoeComposition.ofDecks(6));
+
+        assertSame(first, again);
+        assertEquals(1, odds.getCacheMisses());
+        assertEquals(1, odds.getCacheHits());
+
+        DealerProbabilities tiny = new DealerProbabilities(1);
+        tiny.forUpcard(Rank.TWO, ShoeComposition.ofDecks(1));
+        tiny.forUpcard(Rank.THREE, ShoeComposition.ofDecks(1)); // evicts the TWO entry
+        tiny.forUpcard(Rank.TWO, ShoeComposition.ofDecks(1));
+        assertEquals(3, tiny.getCacheMisses());
+    }
+}
@@ -0,0 +1,90 @@
+package Tests;
+
+import Analytics.EvCalculator;
+import Analytics.ShoeComposition;
+import Analytics.StrategyTable;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Server.Card;
+import Server.Hand;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvCalculatorTest {
+
+    // Hand of ranks against upcard, with those cards taken out of a numDecks shoe
+    private static EvCalculator.Evaluation evaluate(EvCalculator ev, int numDecks, Rank upcard, Rank... ranks) {
+        ShoeComposition unseen = ShoeComposition.ofDecks(numDecks);
+        Hand hand = new Hand();
+        for (Rank r : ranks) {
+            Card c = Card.of(r, Suit.SPADES);
+            hand.addCard(c);
+            unseen.remove(c);
+        }
+        unseen.remove(Card.of(upcard, Suit.HEARTS));
+        return ev.evaluate(hand, upcard, unseen);
+    }
+
+    private static EvCalculator exact() {
+        return new EvCalculator(1 << 16, 1 << 18, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void forcedShoeHasKnownValues() {
+        // 20 against a 6 with only tens left: the dealer makes 16 and busts for sure
+        ShoeComposition tens = ShoeComposition.of(0, 0, 0, 0, 0, 0, 0, 0, 0, 20);
+        Hand twenty = new Hand();
+        twenty.addCard(Card.of(Rank.KING, Suit.SPADES));
+        twenty.addCard(Card.of(Rank.QUEEN, Suit.SPADES));
+
+        EvCalculator.Evaluation e = exact().evaluate(twenty, Rank.SIX, tens);
+        assertEquals(1.0, e.getStand(), 1e-12);
+        assertEquals(-1.0, e.getHit(), 1e-12);
+        assertEquals(-2.0, e.getDouble(), 1e-12);
+        assertEquals(PlayerAction.STAND, e.best());
+    }
+
+    @Test
+    void agreesWithBasicStrategyOnAFullShoe() {
+        StrategyTable table = StrategyTable.generate(6);
+        EvCalculator ev = exact();
+        Rank[][] hands = {{Rank.TEN, Rank.SIX}, {Rank.SIX, Rank.FIVE}, {Rank.TEN, Rank.SEVEN}, {Rank.ACE, Rank.SEVEN}};
+        for (Rank up : new Rank[] {Rank.TWO, Rank.SIX, Rank.TEN, Rank.ACE}) {
+            for (Rank[] ranks : hands) {
+                Hand hand = new Hand();
+                for (Rank r : ranks) {
+                    hand.addCard(Card.of(r, Suit.SPADES));
+                }
+                assertEquals(table.bestAction(hand, up), evaluate(ev, 6, up, ranks).best(), ranks[0] + "+" + ranks[1] + " vs " + up);
+            }
+        }
+    }
+
+    @Test
+    void boundedWorkStaysCloseToExact() {
+        EvCalculator bounded = new EvCalculator();
+        EvCalculator exact = exact();
+        for (Rank up : new Rank[] {Rank.TWO, Rank.SEVEN, Rank.ACE}) {
+            EvCalculator.Evaluation b = evaluate(bounded, 2, up, Rank.TWO, Rank.FOUR);
+            EvCalculator.Evaluation x = evaluate(exact, 2, up, Rank.TWO, Rank.FOUR);
+            assertEquals(x.getStand(), b.getStand(), 1e-12, "Standing now is always exact");
+            assertEquals(x.getHit(), b.getHit(), 0.002);
+            assertEquals(x.getDouble(), b.getDouble(), 0.002);
+        }
+    }
+
+    @Test
+    void repeatedQueriesHitTheTranspositionTables() {
+        EvCalculator ev = exact();
+        EvCalculator.Evaluation first = evaluate(ev, 1, Rank.NINE, Rank.TEN, Rank.TWO);
+        long misses = ev.getCacheMisses();
+        EvCalculator.Evaluation again = evaluate(ev, 1, Rank.NINE, Rank.TEN, Rank.TWO);
+
+        assertEquals(first.getHit(), again.getHit());
+        assertTrue(ev.getCacheMisses() - misses < 5, "Second query should be answered from the tables");
+        assertTrue(Double.isNaN(evaluate(ev, 1, Rank.NINE, Rank.TEN, Rank.TWO, Rank.THREE).getDouble()),
+                "No doubling on three cards");
+    }
+}
@@ -0,0 +1,127 @@
+package Tests;
+
+import Analytics.EvCalculator;
+import Analytics.StrategyTable;
+import Enums.GameState;
+import Enums.PlayerAction;
+import Server.CountSurveillance;
+import Server.Dealer;
+import Server.GameTable;
+import Server.Log;
+import Server.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameTableTest {
+
+    private GameTable table;
+    private Player sam;
+    private Player ann;
+
+    @BeforeEach
+    void setUp() {
+        table = new GameTable(new Dealer("dealer", "pw"));
+        sam = new Player("sam", "pw", 500);
+        ann = new Player("ann", "pw", 500);
+        table.addPlayer(sam);
+        table.addPlayer(ann);
+        table.placeBet(sam, 10);
+        table.placeBet(ann, 10);
+    }
+
+    @Test
+    void shuffleSeedIsLoggedOnlyOnceTheShoeIsRetired() {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        Log.flush();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            GameTable fresh = new GameTable(new Dealer("dealer2", "pw"));
+            Log.flush();
+            String live = captured.toString(StandardCharsets.UTF_8);
+            assertTrue(live.contains(fresh.getTableID() + ": new shoe"), live);
+            assertFalse(live.contains("seed"), "A live shoe's seed gives away its cards: " + live);
+
+            fresh.resetTable();
+            Log.flush();
+            assertTrue(captured.toString(StandardCharsets.UTF_8).contains(fresh.getTableID() + ": shoe retired"));
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    @Test
+    void noTurnBeforeTheRoundStarts() {
+        assertEquals(-1, table.getTurnSequence());
+        assertFalse(table.timeOutTurn(0));
+    }
+
+    @Test
+    void timeoutStandsThePlayerOnTheClock() {
+        assertTrue(table.startRound());
+        assertEquals("sam", table.getCurrentPlayerUsername());
+        long turn = table.getTurnSequence();
+        long revision = table.getRevision();
+
+        assertTrue(table.timeOutTurn(turn));
+
+        assertEquals("ann", table.getCurrentPlayerUsername());
+        assertNotEquals(turn, table.getTurnSequence());
+        assertTrue(table.getRevision() > revision, "Clients must see the auto-stand");
+    }
+
+    @Test
+    void staleTimeoutIsIgnoredOnceThePlayerActed() {
+        assertTrue(table.startRound());
+        long samsTurn = table.getTurnSequence();
+
+        // sam stood just before the clock ran out
+        assertTrue(table.handlePlayerAction("sam", PlayerAction.STAND));
+
+        assertFalse(table.timeOutTurn(samsTurn), "Must not stand ann on sam's timer");
+        assertEquals("ann", table.getCurrentPlayerUsername());
+    }
+
+    @Test
+    void lastPlayerTimingOutFinishesTheRound() {
+        assertTrue(table.startRound());
+        assertTrue(table.timeOutTurn(table.getTurnSequence()));
+        assertTrue(table.timeOutTurn(table.getTurnSequence()));
+
+        assertEquals(GameState.RESULTS, table.getState());
+        assertEquals(-1, table.getTurnSequence());
+    }
+
+    @Test
+    void adviceOnlyWhileAHandIsInPlay() {
+        StrategyTable strategy = StrategyTable.generate(GameTable.SHOE_DECKS);
+        EvCalculator ev = new EvCalculator();
+        assertNull(table.bestAction("sam", strategy), "No advice before the deal");
+        assertNull(table.evaluateHand("sam", ev));
+
+        assertTrue(table.startRound());
+        assertNotNull(table.bestAction("sam", strategy));
+        EvCalculator.Evaluation e = table.evaluateHand("ann", ev);
+        assertNotNull(e);
+        assertTrue(e.getStand() >= -1 && e.getStand() <= 1.5);
+        assertNull(table.bestAction("nobody", strategy));
+    }
+
+    @Test
+    void betsAreReportedToSurveillanceWithTheCount() {
+        Player cora = new Player("cora-surveillance", "pw", 500);
+        table.addPlayer(cora);
+        long before = CountSurveillance.shared().getBetCount(cora.getUsername());
+
+        table.placeBet(cora, 25);
+
+        assertEquals(before + 1, CountSurveillance.shared().getBetCount(cora.getUsername()));
+        assertEquals(0, table.getTrueCount(), "Nothing dealt from the new shoe yet");
+    }
+}
@@ -135,4 +135,42 @@ public class HandTest {
         assertTrue(s.contains("value"), "toString should include the hand value");
         assertTrue(s.contains("ACE") && s.contains("FOUR"), "toString should include card ranks");
     }
+
+    @Test
+    public void testSoftHandTurnsHardWhenTheAceMustCountAsOne() {
+        Hand hand = new Hand();
+        hand.addCard(new Card(Rank.ACE, Suit.SPADES));
+        hand.addCard(new Card(Rank.SIX, Suit.HEARTS));
+        assertTrue(hand.isSoft(), "Ace + 6 is a soft 17");
+        assertEquals(7, hand.getHardTotal());
+
+        hand.addCard(new Card(Rank.NINE, Suit.CLUBS));
+        assertFalse(hand.isSoft(), "Ace + 6 + 9 can only be a hard 16");
+        assertEquals(16, hand.getValue());
+    }
+
+    @Test
+    public void testManySmallCardsFromSeveralDecks() {
+        Hand hand = new Hand();
+        for (int i = 0; i < 16; i++) { // more cards than the initial capacity
+            hand.addCard(new Card(Rank.ACE, Suit.values()[i % 4]));
+        }
+
+        assertEquals(16, hand.size());
+        assertEquals(16, hand.getCards().size());
+        assertEquals(Rank.ACE, hand.getCards().get(15).getRank());
+        assertFalse(hand.isSoft(), "With 16 Aces, one counted as 11 would make 26");
+        assertEquals(16, hand.getValue());
+    }
+
+    @Test
+    public void testGetCardsKeepsDealOrder() {
+        Hand hand = new Hand();
+        hand.addCard(new Card(Rank.KING, Suit.CLUBS));
+        hand.addCard(new Card(Rank.TWO, Suit.HEARTS));
+
+        assertEquals(Rank.KING, hand.getCards().get(0).getRank());
+        assertEquals(Suit.HEARTS, hand.getCards().get(1).getSuit());
+        assertThrows(UnsupportedOperationException.class, () -> hand.getCards().add(new Card(Rank.TWO, Suit.CLUBS)));
+    }
 }
@@ -0,0 +1,97 @@
+package Tests;
+
+import Enums.LogLevel;
+import Server.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogTest {
+
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private PrintStream console;
+    private final Log log = Log.get("LogTest");
+
+    @BeforeEach
+    void captureConsole() {
+        Log.flush(); // nothing from earlier tests may land in our capture
+        console = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        Log.setLevel("LogTest", LogLevel.INFO);
+    }
+
+    @AfterEach
+    void restoreConsole() {
+        Log.flush();
+        System.setOut(console);
+    }
+
+    private String output() {
+        Log.flush();
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void placeholdersAreFilledInOrder() {
+        log.info("Player {} joined table {}", "sam", "T7");
+        assertTrue(output().contains("[LogTest] Player sam joined table T7"));
+    }
+
+    @Test
+    void linesBelowTheLevelAreNotWritten() {
+        log.debug("Sent to {}: {}", "c1", "OK");
+        log.info("kept");
+
+        String out = output();
+        assertFalse(out.contains("Sent to"));
+        assertTrue(out.contains("kept"));
+    }
+
+    @Test
+    void disabledCallNeverTouchesItsArguments() {
+        Log.setLevel("LogTest", LogLevel.OFF);
+        Object loud = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("formatted although the level is off");
+            }
+        };
+
+        log.error("{}", loud);
+        assertEquals("", output());
+    }
+
+    @Test
+    void errorWithThrowableWritesTheStackTrace() {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+        try {
+            log.error("Command failed at {}", "T7", new IllegalStateException("boom"));
+            Log.flush();
+        } finally {
+            System.setErr(stderr);
+        }
+
+        String err = errors.toString(StandardCharsets.UTF_8);
+        assertTrue(err.contains("[LogTest] Command failed at T7"));
+        assertTrue(err.contains("java.lang.IllegalStateException: boom"));
+        assertTrue(err.contains("at Tests.LogTest.errorWithThrowableWritesTheStackTrace"));
+    }
+
+    @Test
+    void levelsArePerCategory() {
+        Log.setLevel("LogTest", LogLevel.DEBUG);
+        Log.setLevel("LogTestQuiet", LogLevel.WARN);
+
+        assertTrue(log.isDebugEnabled());
+        assertFalse(Log.get("LogTestQuiet").isEnabled(LogLevel.INFO));
+        assertTrue(Log.get("LogTestQuiet").isEnabled(LogLevel.ERROR));
+    }
+}
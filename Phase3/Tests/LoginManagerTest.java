@@ -6,6 +6,9 @@ import Server.Player;
 import Server.Dealer;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class LoginManagerTest {
@@ -90,4 +93,46 @@ public class LoginManagerTest {
         assertTrue(s.contains("Dealer") || s.contains("dealer"),
                 "toString should include the 'Dealer' type label");
     }
+
+    @Test
+    public void testLoginNameMustMatchExactly() {
+        LoginManager manager = new LoginManager();
+        manager.createAccount("Grace", "pw", "PLAYER");
+
+        assertNotNull(manager.login("Grace", "pw"));
+        assertNull(manager.login("grace", "pw"), "Login compares the username case-sensitively");
+    }
+
+    @Test
+    public void testConcurrentRegistrationOfSameNameHasOneWinner() throws Exception {
+        LoginManager manager = new LoginManager();
+        int threads = 16;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            final String name = (i % 2 == 0) ? "heidi" : "HEIDI";
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    manager.createAccount(name, "pw", "PLAYER");
+                    created.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread t : workers) {
+            t.join();
+        }
+
+        assertEquals(1, created.get(), "Exactly one registration should win the name");
+        assertEquals(threads - 1, rejected.get());
+        assertEquals(1, manager.getAccountCount());
+    }
 }
@@ -0,0 +1,225 @@
+package Tests;
+
+import Enums.MessageType;
+import Client.Client;
+import Client.MainApp;
+import Message.BinaryCodec;
+import Message.FramedChannel;
+import Message.Message;
+import Server.Account;
+import Server.LoginManager;
+import Server.NioServer;
+import Shared.TableSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NioServerTest {
+
+    private NioServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new NioServer(0, 2, new LoginManager());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private Message newRequest(MessageType type, Object payload) {
+        return new Message(
+                UUID.randomUUID().toString(),
+                type,
+                "CLIENT",
+                "SERVER",
+                payload,
+                LocalDateTime.now()
+        );
+    }
+
+    @Test
+    void badLoginGetsErrorFrame() throws Exception {
+        try (FramedChannel channel = new FramedChannel(new Socket("localhost", server.getPort()))) {
+            channel.send(newRequest(MessageType.LOGIN, new String[] {"nobody", "pw"}));
+            Message resp = channel.receive();
+
+            assertEquals(MessageType.ERROR, resp.getMessageType());
+            assertTrue(((String) resp.getPayload()).contains("Invalid credentials"));
+        }
+    }
+
+    @Test
+    void registerThenLoginOnSameConnection() throws Exception {
+        try (FramedChannel channel = new FramedChannel(new Socket("localhost", server.getPort()))) {
+            channel.send(newRequest(MessageType.REGISTER, new String[] {"nioUser", "pw", "PLAYER"}));
+            assertEquals(MessageType.OK, channel.receive().getMessageType());
+
+            channel.send(newRequest(MessageType.LOGIN, new String[] {"nioUser", "pw"}));
+            assertEquals(MessageType.OK, channel.receive().getMessageType());
+        }
+    }
+
+    @Test
+    void handshakeSwitchesToBinaryCodec() throws Exception {
+        try (FramedChannel channel = new FramedChannel(new Socket("localhost", server.getPort()))) {
+            assertSame(BinaryCodec.INSTANCE, channel.handshake(BinaryCodec.INSTANCE));
+
+            channel.send(newRequest(MessageType.REGISTER, new String[] {"binUser", "pw", "PLAYER"}));
+            assertEquals(MessageType.OK, channel.receive().getMessageType());
+
+            channel.send(newRequest(MessageType.LIST_TABLES, null));
+            Message resp = channel.receive();
+            assertEquals(MessageType.OK, resp.getMessageType());
+            assertTrue(resp.getPayload() instanceof List);
+        }
+    }
+
+    @Test
+    void mainAppConnectionNegotiatesBinaryCodec() throws Exception {
+        Client client = MainApp.connect("localhost", server.getPort(), true);
+        try {
+            assertSame(BinaryCodec.INSTANCE, client.getWireCodec());
+            assertTrue(client.register("mainAppUser", "pw", "PLAYER"));
+        } finally {
+            client.sendExit();
+        }
+    }
+
+    // Deserializing this on the server throws, as a hostile or broken payload could
+    static class Poison implements Serializable {
+        private void readObject(ObjectInputStream in) {
+            throw new IllegalStateException("poison");
+        }
+    }
+
+    @Test
+    void frameThatThrowsWhileDecodingDropsOnlyItsConnection() throws Exception {
+        server.stop();
+        server = new NioServer(0, 1, new LoginManager());
+        server.start();
+
+        try (FramedChannel other = new FramedChannel(new Socket("localhost", server.getPort()));
+             Socket poisonSocket = new Socket("localhost", server.getPort());
+             FramedChannel poisoned = new FramedChannel(poisonSocket)) {
+            other.send(newRequest(MessageType.REGISTER, new String[] {"bystander", "pw", "PLAYER"}));
+            assertEquals(MessageType.OK, other.receive().getMessageType());
+
+            poisoned.send(newRequest(MessageType.OK, new Poison()));
+            poisonSocket.setSoTimeout(5000);
+            assertThrows(IOException.class, poisoned::receive); // closed by the server
+
+            other.send(newRequest(MessageType.LOGIN, new String[] {"bystander", "pw"}));
+            assertEquals(MessageType.OK, other.receive().getMessageType());
+            try (FramedChannel late = new FramedChannel(new Socket("localhost", server.getPort()))) {
+                late.send(newRequest(MessageType.EXIT, null));
+                assertEquals(MessageType.OK, late.receive().getMessageType());
+            }
+        }
+    }
+
+    @Test
+    void servesMoreConnectionsThanTheOldThreadCap() throws Exception {
+        // The blocking server stops answering at 100 concurrent clients
+        List<FramedChannel> channels = new ArrayList<>();
+        try {
+            for (int i = 0; i < 250; i++) {
+                channels.add(new FramedChannel(new Socket("localhost", server.getPort())));
+            }
+            for (FramedChannel channel : channels) {
+                channel.send(newRequest(MessageType.EXIT, null));
+            }
+            for (FramedChannel channel : channels) {
+                Message resp = channel.receive();
+                assertEquals(MessageType.OK, resp.getMessageType());
+                assertTrue(((String) resp.getPayload()).contains("See you next time"));
+            }
+        } finally {
+            for (FramedChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    @Test
+    void failingRequestDoesNotTakeDownTheReactor() throws Exception {
+        NioServer single = new NioServer(0, 1, new LoginManager()); // every connection on the same reactor
+        single.start();
+        try (FramedChannel dealer = new FramedChannel(new Socket("localhost", single.getPort()));
+             FramedChannel player = new FramedChannel(new Socket("localhost", single.getPort()))) {
+            dealer.send(newRequest(MessageType.REGISTER, new String[] {"nioDealer", "pw", "DEALER"}));
+            assertEquals(MessageType.OK, dealer.receive().getMessageType());
+            dealer.send(newRequest(MessageType.CREATE_TABLE, null));
+            Message created = dealer.receive();
+            String tableId = ((TableSnapshot) created.getPayload()).getTableId();
+
+            player.send(newRequest(MessageType.REGISTER, new String[] {"nioBettor", "pw", "PLAYER"}));
+            assertEquals(MessageType.OK, player.receive().getMessageType());
+            player.send(newRequest(MessageType.JOIN_TABLE, tableId));
+            assertEquals(MessageType.OK, player.receive().getMessageType());
+
+            // More than the 1000 balance: Bet's constructor throws on the table
+            player.send(newRequest(MessageType.BET_PLACED, 5000.0));
+            Message refused = player.receive();
+            assertEquals(MessageType.ERROR, refused.getMessageType());
+            assertTrue(((String) refused.getPayload()).contains("Invalid bet amount"));
+
+            dealer.send(newRequest(MessageType.LIST_TABLES, null));
+            assertEquals(MessageType.OK, dealer.receive().getMessageType(), "Other clients on the reactor still get replies");
+            player.send(newRequest(MessageType.BET_PLACED, 10.0));
+            assertEquals(MessageType.OK, player.receive().getMessageType(), "So does the client whose request failed");
+        } finally {
+            single.stop();
+        }
+    }
+
+    @Test
+    void blockedHandlerDoesNotStallTheReactor() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LoginManager slow = new LoginManager() {
+            @Override
+            public Account login(String username, String password) {
+                if (username.equals("stuck")) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS); // stands in for a slow table command
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.login(username, password);
+            }
+        };
+        NioServer single = new NioServer(0, 1, slow);
+        single.start();
+        Socket otherSocket = new Socket("localhost", single.getPort());
+        otherSocket.setSoTimeout(2000); // a stalled reactor fails the read instead of answering late
+        try (FramedChannel stuck = new FramedChannel(new Socket("localhost", single.getPort()));
+             FramedChannel other = new FramedChannel(otherSocket)) {
+            stuck.send(newRequest(MessageType.LOGIN, new String[] {"stuck", "pw"}));
+
+            other.send(newRequest(MessageType.REGISTER, new String[] {"notStuck", "pw", "PLAYER"}));
+            assertEquals(MessageType.OK, other.receive().getMessageType(), "Answered while the other handler is blocked");
+
+            release.countDown();
+            assertEquals(MessageType.ERROR, stuck.receive().getMessageType()); // no such account
+        } finally {
+            release.countDown();
+            single.stop();
+        }
+    }
+}
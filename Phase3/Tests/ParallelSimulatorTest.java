@@ -0,0 +1,52 @@
+package Tests;
+
+import Simulation.ParallelSimulator;
+import Simulation.SimulationResult;
+import Simulation.Strategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSimulatorTest {
+
+    private static SimulationResult run(int threads, long rounds, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new ParallelSimulator(6, 0.75, 2, Strategy::mimicDealer, 5_000, pool).run(rounds, seed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnThreadCount() {
+        SimulationResult one = run(1, 52_345, 11L);
+        SimulationResult four = run(4, 52_345, 11L);
+
+        assertEquals(Double.doubleToLongBits(one.getNet()), Double.doubleToLongBits(four.getNet()));
+        assertEquals(Double.doubleToLongBits(one.getVariance()), Double.doubleToLongBits(four.getVariance()));
+        assertEquals(one.getPlayerBusts(), four.getPlayerBusts());
+        assertEquals(one.getDealerBusts(), four.getDealerBusts());
+        assertEquals(one.getHandsWithResult(1.5), four.getHandsWithResult(1.5));
+    }
+
+    @Test
+    void everyRoundIsPlayedOnceAcrossUnevenChunks() {
+        SimulationResult r = run(3, 12_001, 5L);
+
+        assertEquals(12_001, r.getRounds());
+        assertEquals(24_002, r.getHands());
+        long histogram = 0;
+        for (double units = -3; units <= 3; units += 0.5) {
+            histogram += r.getHandsWithResult(units);
+        }
+        assertEquals(r.getHands(), histogram);
+    }
+
+    @Test
+    void differentSeedsDiffer() {
+        assertNotEquals(run(2, 20_000, 1L).getNet(), run(2, 20_000, 2L).getNet());
+    }
+}
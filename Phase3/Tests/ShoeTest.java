@@ -2,11 +2,15 @@ package Tests;
 
 import Server.Shoe;
 import Server.Card;
+import Server.CountingSystem;
+import Server.ShuffleEngine;
 import Enums.Rank;
 import Enums.Suit;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,4 +93,142 @@ public class ShoeTest {
         assertNotNull(shoe.getShoeID());
         assertEquals(shoe.getShoeID(), shoe.getShoeID());
     }
+
+    @Test
+    void dealingAndReshufflingAllocateNothing() {
+        Shoe shoe = new Shoe(7);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int warm = 0; warm < 200; warm++) { // let the JIT settle first
+            while (shoe.dealCard() != null) { }
+            shoe.resetShoe();
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < 100; round++) {
+            while (shoe.dealCard() != null) { }
+            shoe.resetShoe();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(allocated < 1024, "100 full shoes allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void reshuffleKeepsDealtCardsOut() {
+        Shoe shoe = new Shoe(1);
+        Map<String, Integer> dealt = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            Card c = shoe.dealCard();
+            dealt.merge(c.toString(), 1, Integer::sum);
+        }
+
+        shoe.shuffleAll(); // only the 32 undealt cards move
+        assertEquals(32, shoe.cardsRemaining());
+        Card c;
+        while ((c = shoe.dealCard()) != null) {
+            dealt.merge(c.toString(), 1, Integer::sum);
+        }
+        assertEquals(52, dealt.size());
+    }
+
+    @Test
+    void cutCardDecidesWhenToReshuffle() {
+        Shoe shoe = new Shoe(1, 0.5, false);
+        for (int i = 0; i < 25; i++) {
+            shoe.draw();
+        }
+        assertFalse(shoe.isCutCardOut());
+        shoe.endRound();
+        assertEquals(27, shoe.cardsRemaining(), "No reshuffle before the cut card");
+
+        shoe.draw();
+        assertTrue(shoe.isCutCardOut());
+        shoe.endRound();
+        assertEquals(52, shoe.cardsRemaining(), "Cut card out, the next round starts on a full shoe");
+    }
+
+    @Test
+    void drawRecyclesDiscardsInsteadOfRunningDry() {
+        Shoe shoe = new Shoe(1, 1.0, false);
+        Map<String, Integer> inPlay = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            shoe.draw(); // earlier rounds, now discards
+        }
+        shoe.endRound();
+
+        for (int i = 0; i < 30; i++) { // runs past the end of the shoe
+            Card c = shoe.draw();
+            assertNotNull(c);
+            inPlay.merge(c.toString(), 1, Integer::sum);
+        }
+        for (int count : inPlay.values()) {
+            assertEquals(1, count, "A card still in play was dealt twice");
+        }
+    }
+
+    @Test
+    void backgroundShuffleIsSwappedInAtTheRoundBoundary() throws Exception {
+        Shoe shoe = new Shoe(2, 0.25, true);
+        while (!shoe.isCutCardOut()) {
+            shoe.draw();
+        }
+        Thread.sleep(100); // give the background shuffle time to finish
+        shoe.endRound();
+        assertEquals(104, shoe.cardsRemaining());
+
+        Map<String, Integer> counts = new HashMap<>();
+        Card c;
+        while ((c = shoe.dealCard()) != null) {
+            counts.merge(c.toString(), 1, Integer::sum);
+        }
+        assertEquals(52, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(2, count);
+        }
+    }
+
+    @Test
+    void runningCountFollowsTheCardsDealt() {
+        List<CountingSystem> systems = List.of(CountingSystem.HI_LO, CountingSystem.OMEGA_II);
+        Shoe shoe = new Shoe(2, 0.5, true, ShuffleEngine.fast(7), systems);
+        int hiLo = 0;
+        int omega = 0;
+        for (int i = 0; i < 500; i++) { // rounds of 9 cards, across several reshuffles
+            if (i % 9 == 0 && shoe.endRound()) {
+                hiLo = 0;
+                omega = 0;
+            }
+            Card c = shoe.draw();
+            hiLo += CountingSystem.HI_LO.tag(c);
+            omega += CountingSystem.OMEGA_II.tag(c);
+            assertEquals(hiLo, shoe.getRunningCount());
+            assertEquals(omega, shoe.getRunningCount(CountingSystem.OMEGA_II));
+        }
+        assertThrows(IllegalArgumentException.class, () -> shoe.getRunningCount(CountingSystem.KO));
+    }
+
+    @Test
+    void trueCountIsTheRunningCountPerDeckLeft() {
+        Shoe shoe = new Shoe(1);
+        assertEquals(0, shoe.getTrueCount());
+        for (int i = 0; i < 26; i++) {
+            shoe.dealCard();
+        }
+        assertEquals(shoe.getRunningCount() * 2.0, shoe.getTrueCount(), 1e-9); // half a deck left
+
+        while (shoe.dealCard() != null) { }
+        assertEquals(0, shoe.getRunningCount(), "Hi-Lo is balanced over a whole deck");
+    }
+
+    @Test
+    void unbalancedCountIsMeasuredAgainstAnEvenShoe() {
+        Shoe shoe = new Shoe(1, 1.0, false, ShuffleEngine.fast(), List.of(CountingSystem.KO));
+        while (shoe.dealCard() != null) { }
+        assertEquals(4, shoe.getRunningCount(), "KO tags sum to +4 over a deck");
+
+        assertFalse(CountingSystem.KO.isBalanced());
+        assertEquals(0, CountingSystem.KO.trueCount(2, 26, 26), 1e-9, "Half a deck at half the deck sum is neutral");
+        assertEquals(4, CountingSystem.HI_LO.trueCount(2, 26, 26), 1e-9);
+    }
 }
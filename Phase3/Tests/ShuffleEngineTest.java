@@ -0,0 +1,166 @@
+package Tests;
+
+import Server.Card;
+import Server.Shoe;
+import Server.ShuffleEngine;
+import Server.ShuffleSeed;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShuffleEngineTest {
+
+    private static byte[] ordered(int n) {
+        byte[] codes = new byte[n];
+        for (int i = 0; i < n; i++) {
+            codes[i] = (byte) i;
+        }
+        return codes;
+    }
+
+    @Test
+    void sameSeedSamePermutation() {
+        byte[] a = ordered(52);
+        byte[] b = ordered(52);
+        ShuffleEngine.permute(a, 0, 42L);
+        ShuffleEngine.permute(b, 0, 42L);
+        assertArrayEquals(a, b);
+
+        ShuffleEngine.permute(b, 0, 43L);
+        assertFalse(Arrays.equals(a, b));
+    }
+
+    @Test
+    void everyModeGivesAValidPermutation() {
+        for (String mode : new String[] {"fast", "secure"}) {
+            ShuffleEngine engine = ShuffleEngine.forMode(mode);
+            assertEquals(mode, engine.getName());
+            byte[] codes = ordered(52);
+            engine.shuffle(codes, 10);
+
+            assertArrayEquals(ordered(10), Arrays.copyOf(codes, 10), "Cards before from must not move");
+            byte[] sorted = codes.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(ordered(52), sorted);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ShuffleEngine.forMode("dice"));
+    }
+
+    @Test
+    void fastEnginesWithTheSameRootAgree() {
+        ShuffleEngine a = ShuffleEngine.fast(7L);
+        ShuffleEngine b = ShuffleEngine.fast(7L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(a.nextSeed(), b.nextSeed());
+        }
+    }
+
+    @Test
+    void allOrderingsAreEquallyLikely() {
+        Map<String, Integer> counts = new HashMap<>();
+        ShuffleEngine engine = ShuffleEngine.fast(1L);
+        int trials = 24_000;
+        for (int i = 0; i < trials; i++) {
+            byte[] codes = ordered(4);
+            engine.shuffle(codes, 0);
+            counts.merge(Arrays.toString(codes), 1, Integer::sum);
+        }
+        assertEquals(24, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - 1000) < 150, "Skewed ordering count " + count);
+        }
+    }
+
+    @Test
+    void secureSeedsAre256BitsAndReplayExactly() {
+        ShuffleEngine engine = ShuffleEngine.secure();
+        byte[] codes = ordered(7 * 52);
+        ShuffleSeed seed = engine.shuffle(codes, 0);
+
+        assertEquals("secure", seed.engine());
+        assertEquals(32, seed.bytes().length);
+        byte[] again = ordered(7 * 52);
+        ShuffleEngine.permute(again, 0, ShuffleSeed.parse(seed.toString()));
+        assertArrayEquals(codes, again);
+
+        byte[] otherKey = seed.bytes();
+        otherKey[31] ^= 1;
+        byte[] other = ordered(7 * 52);
+        ShuffleEngine.permute(other, 0, new ShuffleSeed("secure", otherKey));
+        assertFalse(Arrays.equals(codes, other));
+    }
+
+    @Test
+    void secureOrderingsAreEquallyLikely() {
+        Map<String, Integer> counts = new HashMap<>();
+        ShuffleEngine engine = ShuffleEngine.secure();
+        int trials = 24_000;
+        for (int i = 0; i < trials; i++) {
+            byte[] codes = ordered(4);
+            engine.shuffle(codes, 0);
+            counts.merge(Arrays.toString(codes), 1, Integer::sum);
+        }
+        assertEquals(24, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - 1000) < 150, "Skewed ordering count " + count);
+        }
+    }
+
+    @Test
+    void recordedSeedReplaysTheShoe() {
+        Shoe shoe = new Shoe(6, Shoe.DEFAULT_PENETRATION, false, ShuffleEngine.secure());
+        Shoe replay = Shoe.replay(6, shoe.getShuffleSeed());
+
+        Card c;
+        while ((c = shoe.dealCard()) != null) {
+            assertSame(c, replay.dealCard());
+        }
+        assertNull(replay.dealCard());
+    }
+
+    @Test
+    void recycledShoeReplaysFromItsPartialShuffles() {
+        Shoe shoe = new Shoe(1, 1.0, false, ShuffleEngine.secure());
+        ShuffleSeed seed = shoe.getShuffleSeed();
+        for (int i = 0; i < 40; i++) {
+            shoe.draw(); // earlier rounds, now discards
+        }
+        shoe.endRound();
+        for (int i = 0; i < 12; i++) {
+            shoe.draw(); // the current round reaches the end of the shoe
+        }
+        Card first = shoe.draw(); // recycles the 40 discards behind the 12 in play
+
+        assertEquals(seed, shoe.getShuffleSeed(), "A partial shuffle must not replace the shoe's seed");
+        assertEquals(1, shoe.getPartialShuffles().size());
+        Shoe replay = Shoe.replay(1, seed, shoe.getPartialShuffles());
+        assertSame(first, replay.dealCard());
+        Card c;
+        while ((c = shoe.dealCard()) != null) {
+            assertSame(c, replay.dealCard());
+        }
+        assertNull(replay.dealCard());
+    }
+
+    @Test
+    void backgroundShuffleSeedIsRecordedToo() throws Exception {
+        Shoe shoe = new Shoe(2, 0.25, true, ShuffleEngine.fast());
+        ShuffleSeed first = shoe.getShuffleSeed();
+        while (!shoe.isCutCardOut()) {
+            shoe.draw();
+        }
+        Thread.sleep(100); // give the background shuffle time to finish
+        assertTrue(shoe.endRound());
+        assertNotEquals(first, shoe.getShuffleSeed());
+
+        Shoe replay = Shoe.replay(2, shoe.getShuffleSeed());
+        Card c;
+        while ((c = shoe.dealCard()) != null) {
+            assertSame(c, replay.dealCard());
+        }
+    }
+}
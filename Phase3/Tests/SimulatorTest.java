@@ -0,0 +1,75 @@
+package Tests;
+
+import Enums.BetStatus;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Server.Bet;
+import Server.Card;
+import Server.Hand;
+import Server.ShuffleEngine;
+import Simulation.SimulationResult;
+import Simulation.Simulator;
+import Simulation.Strategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    private static Hand hand(Rank... ranks) {
+        Hand hand = new Hand();
+        for (Rank r : ranks) {
+            hand.addCard(Card.of(r, Suit.SPADES));
+        }
+        return hand;
+    }
+
+    @Test
+    void settlementFollowsTheTableRules() {
+        assertEquals(BetStatus.BLACKJACK, Bet.outcome(hand(Rank.ACE, Rank.KING), hand(Rank.TEN, Rank.NINE)));
+        assertEquals(BetStatus.PUSH, Bet.outcome(hand(Rank.ACE, Rank.KING), hand(Rank.ACE, Rank.QUEEN)));
+        assertEquals(BetStatus.LOSE, Bet.outcome(hand(Rank.TEN, Rank.SIX, Rank.KING), hand(Rank.TEN, Rank.SIX, Rank.NINE)),
+                "A bust player loses even when the dealer busts too");
+        assertEquals(BetStatus.WIN, Bet.outcome(hand(Rank.TEN, Rank.TWO), hand(Rank.TEN, Rank.SIX, Rank.NINE)));
+        assertEquals(BetStatus.LOSE, Bet.outcome(hand(Rank.TEN, Rank.SEVEN), hand(Rank.TEN, Rank.EIGHT)));
+        assertEquals(-2.0, Bet.payout(BetStatus.LOSE, 1.0, true), 1e-9);
+    }
+
+    @Test
+    void sameSeedSameResult() {
+        SimulationResult a = new Simulator(Strategy.mimicDealer(), ShuffleEngine.fast(99L)).run(20_000);
+        SimulationResult b = new Simulator(Strategy.mimicDealer(), ShuffleEngine.fast(99L)).run(20_000);
+
+        assertEquals(a.getNet(), b.getNet());
+        assertEquals(a.getPlayerBusts(), b.getPlayerBusts());
+    }
+
+    @Test
+    void everyHandIsSettledOnce() {
+        SimulationResult r = new Simulator(6, 0.75, 5, Strategy.mimicDealer(), ShuffleEngine.fast(1L)).run(10_000);
+
+        assertEquals(10_000, r.getRounds());
+        assertEquals(50_000, r.getHands());
+        assertEquals(r.getHands(), r.getWins() + r.getBlackjacks() + r.getPushes() + r.getLosses());
+    }
+
+    @Test
+    void standingPlayerNeverBustsAndTheDealerBustsAboutAQuarterOfTheTime() {
+        SimulationResult r = new Simulator(Strategy.standAlways(), ShuffleEngine.fast(2L)).run(200_000);
+
+        assertEquals(0, r.getPlayerBusts());
+        // standing on all 17s the dealer busts about 28% of the time
+        assertTrue(r.getDealerBustRate() > 0.26 && r.getDealerBustRate() < 0.30, "Dealer bust rate " + r.getDealerBustRate());
+        assertTrue(r.getExpectedValue() < 0, "Never drawing is a losing game");
+    }
+
+    @Test
+    void alwaysDoublingDoublesEveryHand() {
+        Strategy alwaysDouble = (hand, up) -> PlayerAction.DOUBLE;
+        SimulationResult r = new Simulator(7, 0.75, 1, alwaysDouble, ShuffleEngine.fast(3L)).run(10_000);
+
+        assertEquals(r.getHands(), r.getDoubles());
+        assertEquals(4.0, r.getVariance(), 0.5, "Almost every result is a doubled win or loss of 2 units");
+    }
+}
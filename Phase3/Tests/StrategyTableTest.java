@@ -0,0 +1,77 @@
+package Tests;
+
+import Analytics.StrategyTable;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Server.Card;
+import Server.Hand;
+import Server.ShuffleEngine;
+import Simulation.SimulationResult;
+import Simulation.Simulator;
+import Simulation.Strategy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StrategyTableTest {
+    private static StrategyTable table;
+
+    @BeforeAll
+    static void generate() {
+        table = StrategyTable.generate(7);
+    }
+
+    private static Hand hand(Rank... ranks) {
+        Hand hand = new Hand();
+        for (Rank r : ranks) {
+            hand.addCard(Card.of(r, Suit.HEARTS));
+        }
+        return hand;
+    }
+
+    @Test
+    void textbookSituations() {
+        assertEquals(PlayerAction.DOUBLE, table.bestAction(hand(Rank.SIX, Rank.FIVE), Rank.SIX));
+        assertEquals(PlayerAction.HIT, table.bestAction(hand(Rank.TEN, Rank.SIX), Rank.TEN));
+        assertEquals(PlayerAction.STAND, table.bestAction(hand(Rank.TEN, Rank.SIX), Rank.SIX));
+        assertEquals(PlayerAction.STAND, table.bestAction(hand(Rank.TEN, Rank.SEVEN), Rank.ACE));
+        assertEquals(PlayerAction.STAND, table.bestAction(hand(Rank.TEN, Rank.SIX, Rank.KING), Rank.TWO), "Bust hands just stand");
+    }
+
+    @Test
+    void doubleOnlyOnTheFirstTwoCards() {
+        assertEquals(PlayerAction.DOUBLE, table.bestAction(hand(Rank.SEVEN, Rank.FOUR), Rank.FIVE));
+        assertEquals(PlayerAction.HIT, table.bestAction(hand(Rank.TWO, Rank.FIVE, Rank.FOUR), Rank.FIVE));
+    }
+
+    @Test
+    void storedTableReadsBackTheSame(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("basic_strategy.bin");
+        StrategyTable loaded = StrategyTable.loadOrGenerate(file, 7);
+        assertTrue(Files.exists(file));
+        assertTrue(Files.size(file) < 1024, "One byte per situation");
+
+        StrategyTable again = StrategyTable.read(file);
+        for (Rank up : Rank.values()) {
+            Hand soft = hand(Rank.ACE, Rank.SEVEN);
+            assertEquals(loaded.bestAction(soft, up), again.bestAction(soft, up));
+            assertEquals(table.bestAction(soft, up), again.bestAction(soft, up));
+        }
+    }
+
+    @Test
+    void playsBetterThanMimickingTheDealer() {
+        Strategy basic = (hand, up) -> table.bestAction(hand, up.getRank());
+        SimulationResult withTable = new Simulator(basic, ShuffleEngine.fast(8L)).run(200_000);
+        SimulationResult mimic = new Simulator(Strategy.mimicDealer(), ShuffleEngine.fast(8L)).run(200_000);
+
+        assertTrue(withTable.getExpectedValue() > mimic.getExpectedValue() + 0.01,
+                withTable.getExpectedValue() + " vs " + mimic.getExpectedValue());
+    }
+}
@@ -0,0 +1,81 @@
+package Tests;
+
+import Server.TableActor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableActorTest {
+
+    // Plain fields on purpose: the actor is the only thing keeping them consistent
+    private int counter;
+    private final List<Integer> order = new ArrayList<>();
+
+    @Test
+    void commandsFromManyThreadsNeverOverlap() throws Exception {
+        TableActor actor = new TableActor();
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            callers.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    actor.run(() -> counter++);
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        callers.shutdown();
+        assertEquals(threads * perThread, (int) actor.call(() -> counter));
+    }
+
+    @Test
+    void toldCommandsRunInOrder() {
+        TableActor actor = new TableActor();
+        for (int i = 0; i < 500; i++) {
+            final int n = i;
+            actor.tell(() -> order.add(n));
+        }
+
+        List<Integer> seen = actor.call(() -> new ArrayList<>(order));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    void nestedCallsRunInline() {
+        TableActor actor = new TableActor();
+
+        int result = actor.call(() -> {
+            assertTrue(actor.isOwner());
+            return actor.call(() -> 41) + 1; // would deadlock if it queued behind itself
+        });
+
+        assertEquals(42, result);
+        assertFalse(actor.isOwner());
+    }
+
+    @Test
+    void commandExceptionReachesCaller() {
+        TableActor actor = new TableActor();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> actor.run(() -> { throw new IllegalStateException("bad move"); }));
+        assertEquals("bad move", e.getMessage());
+
+        // and the mailbox keeps going
+        assertEquals("ok", actor.call(() -> "ok"));
+    }
+}
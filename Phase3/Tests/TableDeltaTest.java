@@ -0,0 +1,116 @@
+package Tests;
+
+import Enums.GameState;
+import Enums.MessageType;
+import Enums.Rank;
+import Enums.Suit;
+import Message.BinaryCodec;
+import Message.Message;
+import Shared.CardView;
+import Shared.DealerView;
+import Shared.PlayerView;
+import Shared.TableDelta;
+import Shared.TableSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableDeltaTest {
+
+    private static PlayerView seat(String name, double bet, CardView... cards) {
+        return new PlayerView(name, bet, 0, true, false, false, List.of(cards), 500.0);
+    }
+
+    private static CardView card(Rank rank, Suit suit) {
+        return new CardView(rank, suit, false);
+    }
+
+    private static TableSnapshot snapshot(long revision, GameState state, String turn, List<PlayerView> players) {
+        DealerView dealer = new DealerView(List.of(card(Rank.KING, Suit.SPADES)), true);
+        return new TableSnapshot("T1", state, turn, dealer, players, revision);
+    }
+
+    @Test
+    void onlyChangedSeatsAreSent() {
+        PlayerView sam = seat("sam", 10.0, card(Rank.NINE, Suit.CLUBS));
+        PlayerView ann = seat("ann", 10.0, card(Rank.TWO, Suit.HEARTS));
+        TableSnapshot before = snapshot(4, GameState.IN_PROGRESS, "sam", List.of(sam, ann));
+
+        PlayerView samHit = seat("sam", 10.0, card(Rank.NINE, Suit.CLUBS), card(Rank.FIVE, Suit.HEARTS));
+        TableSnapshot after = snapshot(5, GameState.IN_PROGRESS, "sam", List.of(samHit, ann));
+
+        TableDelta delta = TableDelta.between(before, after);
+
+        assertEquals(4, delta.getBaseRevision());
+        assertEquals(5, delta.getRevision());
+        assertNull(delta.getState());
+        assertFalse(delta.isTurnChanged());
+        assertNull(delta.getDealerView());
+        assertEquals(List.of(samHit), delta.getChangedPlayers());
+        assertTrue(delta.getRemovedPlayers().isEmpty());
+    }
+
+    @Test
+    void applyingDeltaRebuildsTheNewSnapshot() {
+        PlayerView sam = seat("sam", 10.0);
+        PlayerView ann = seat("ann", 10.0);
+        TableSnapshot before = snapshot(1, GameState.BETTING, null, List.of(sam, ann));
+
+        PlayerView bob = seat("bob", 0.0);
+        TableSnapshot after = snapshot(2, GameState.IN_PROGRESS, "ann", List.of(ann, bob));
+
+        TableSnapshot rebuilt = TableDelta.between(before, after).applyTo(before);
+
+        assertEquals(2, rebuilt.getRevision());
+        assertEquals(GameState.IN_PROGRESS, rebuilt.getState());
+        assertEquals("ann", rebuilt.getCurrentPlayerUsername());
+        assertEquals(after.getPlayers(), rebuilt.getPlayers());
+        assertEquals(after.getDealerView(), rebuilt.getDealerView());
+    }
+
+    @Test
+    void deltaAgainstWrongRevisionIsRejected() {
+        TableSnapshot before = snapshot(3, GameState.IN_PROGRESS, "sam", List.of(seat("sam", 10.0)));
+        TableSnapshot after = snapshot(4, GameState.RESULTS, null, List.of(seat("sam", 0.0)));
+        TableDelta delta = TableDelta.between(before, after);
+
+        TableSnapshot stale = snapshot(2, GameState.IN_PROGRESS, "sam", List.of(seat("sam", 10.0)));
+        assertNull(delta.applyTo(stale), "Client must resync when it missed an update");
+    }
+
+    @Test
+    void unchangedDeltaIsEmpty() {
+        TableDelta delta = TableDelta.unchanged("T1", 7);
+
+        assertTrue(delta.isEmpty());
+        TableSnapshot base = snapshot(7, GameState.IN_PROGRESS, "sam", List.of(seat("sam", 10.0)));
+        assertEquals(base.getPlayers(), delta.applyTo(base).getPlayers());
+    }
+
+    @Test
+    void deltaSurvivesBinaryCodecAndIsSmallerThanSnapshot() throws Exception {
+        PlayerView sam = seat("sam", 10.0, card(Rank.NINE, Suit.CLUBS));
+        PlayerView ann = seat("ann", 20.0, card(Rank.TWO, Suit.HEARTS));
+        PlayerView bob = seat("bob", 30.0, card(Rank.ACE, Suit.SPADES));
+        TableSnapshot before = snapshot(8, GameState.IN_PROGRESS, "sam", List.of(sam, ann, bob));
+        PlayerView samHit = seat("sam", 10.0, card(Rank.NINE, Suit.CLUBS), card(Rank.THREE, Suit.CLUBS));
+        TableSnapshot after = snapshot(9, GameState.IN_PROGRESS, "sam", List.of(samHit, ann, bob));
+        TableDelta delta = TableDelta.between(before, after);
+
+        byte[] deltaBytes = BinaryCodec.INSTANCE.encode(message(MessageType.TABLE_DELTA, delta));
+        byte[] fullBytes = BinaryCodec.INSTANCE.encode(message(MessageType.TABLE_SNAPSHOT, after));
+        TableDelta decoded = (TableDelta) BinaryCodec.INSTANCE.decode(deltaBytes, 0, deltaBytes.length).getPayload();
+
+        assertEquals(after.getPlayers(), decoded.applyTo(before).getPlayers());
+        assertTrue(deltaBytes.length < fullBytes.length,
+                "delta " + deltaBytes.length + " B should beat snapshot " + fullBytes.length + " B");
+    }
+
+    private static Message message(MessageType type, Object payload) {
+        return new Message(UUID.randomUUID().toString(), type, "SERVER", "sam", payload, LocalDateTime.now());
+    }
+}
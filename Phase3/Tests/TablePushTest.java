@@ -0,0 +1,195 @@
+package Tests;
+
+import Client.Client;
+import Enums.GameState;
+import Enums.ServerMode;
+import Server.GameTable;
+import Server.LoginManager;
+import Server.Server;
+import Shared.PlayerView;
+import Shared.TableSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Server push (SUBSCRIBE), the WAIT_TABLE_STATE long-poll and timer driven
+ * updates, end to end over real sockets against the blocking server.
+ */
+public class TablePushTest {
+
+    private ServerSocket serverSocket;
+    private ExecutorService pool;
+    private Thread acceptor;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        pool = Server.newHandlerPool(ServerMode.VIRTUAL);
+        LoginManager manager = new LoginManager();
+        acceptor = new Thread(() -> {
+            try {
+                Server.acceptConnections(serverSocket, pool, manager);
+            } catch (IOException ignored) {
+                // socket closed, test finished
+            }
+        }, "PushTestAcceptor");
+        acceptor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Socket s : sockets) {
+            s.close();
+        }
+        serverSocket.close();
+        pool.shutdownNow();
+        acceptor.join();
+    }
+
+    private Client connect(String username, String type) throws IOException {
+        Socket socket = new Socket("localhost", serverSocket.getLocalPort());
+        sockets.add(socket);
+        Client client = new Client(Client.openChannel(socket, false));
+        assertTrue(client.register(username, "pw", type));
+        return client;
+    }
+
+    private String newTable(String dealerName) throws IOException {
+        TableSnapshot created = connect(dealerName, "DEALER").createTable();
+        assertNotNull(created);
+        return created.getTableId();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GameTable serverTable(String tableId) throws Exception {
+        Field f = Server.class.getDeclaredField("tables");
+        f.setAccessible(true);
+        return ((Map<String, GameTable>) f.get(null)).get(tableId);
+    }
+
+    private static PlayerView seat(TableSnapshot snap, String username) {
+        for (PlayerView pv : snap.getPlayers()) {
+            if (pv.getUsername().equals(username)) {
+                return pv;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void subscriberSeesJoinsAndBetsWithoutAsking() throws Exception {
+        String tableId = newTable("pushDealer");
+        Client alice = connect("pushAlice", "PLAYER");
+        assertNotNull(alice.joinTable(tableId));
+
+        BlockingQueue<TableSnapshot> pushes = new LinkedBlockingQueue<>();
+        alice.subscribe(pushes::add);
+        TableSnapshot first = pushes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first, "Subscribing at a table should push the current view");
+        assertEquals(1, first.getPlayers().size());
+
+        Client bob = connect("pushBob", "PLAYER");
+        assertNotNull(bob.joinTable(tableId));
+        TableSnapshot afterJoin = pushes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(afterJoin);
+        assertNotNull(seat(afterJoin, "pushBob"));
+
+        bob.placeBet(25.0);
+        TableSnapshot afterBet = pushes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(afterBet);
+        assertEquals(25.0, seat(afterBet, "pushBob").getBetAmount());
+
+        // Requests still get their own replies while the reader owns the socket
+        TableSnapshot polled = alice.requestTableState();
+        assertNotNull(polled);
+        assertEquals(afterBet.getRevision(), polled.getRevision());
+    }
+
+    @Test
+    void idleTablePushesNothing() throws Exception {
+        String tableId = newTable("idleDealer");
+        Client alice = connect("idleAlice", "PLAYER");
+        assertNotNull(alice.joinTable(tableId));
+
+        BlockingQueue<TableSnapshot> pushes = new LinkedBlockingQueue<>();
+        alice.subscribe(pushes::add);
+        assertNotNull(pushes.poll(5, TimeUnit.SECONDS));
+
+        assertNull(pushes.poll(500, TimeUnit.MILLISECONDS), "No change, no traffic");
+    }
+
+    @Test
+    void longPollAnswersOnceTheTableMoves() throws Exception {
+        String tableId = newTable("pollDealer");
+        Client carol = connect("pollCarol", "PLAYER");
+        TableSnapshot joined = carol.joinTable(tableId);
+        assertNotNull(joined);
+
+        CompletableFuture<TableSnapshot> waiting = CompletableFuture.supplyAsync(carol::waitForTableChange);
+        Thread.sleep(300);
+        assertFalse(waiting.isDone(), "Long-poll should hold while nothing changes");
+
+        Client dave = connect("pollDave", "PLAYER");
+        assertNotNull(dave.joinTable(tableId));
+
+        TableSnapshot moved = waiting.get(5, TimeUnit.SECONDS);
+        assertNotNull(moved);
+        assertTrue(moved.getRevision() > joined.getRevision());
+        assertNotNull(seat(moved, "pollDave"));
+    }
+
+    @Test
+    void longPollBehindTheTableAnswersImmediately() throws Exception {
+        String tableId = newTable("lateDealer");
+        Client erin = connect("lateErin", "PLAYER");
+        TableSnapshot joined = erin.joinTable(tableId);
+        assertNotNull(joined);
+
+        Client frank = connect("lateFrank", "PLAYER");
+        assertNotNull(frank.joinTable(tableId));
+
+        TableSnapshot caughtUp = CompletableFuture.supplyAsync(erin::waitForTableChange).get(2, TimeUnit.SECONDS);
+        assertNotNull(seat(caughtUp, "lateFrank"));
+    }
+
+    @Test
+    void idlePlayerIsStoodAndTheTableHearsAboutIt() throws Exception {
+        Client dealer = connect("afkDealer", "DEALER");
+        String tableId = dealer.createTable().getTableId();
+        serverTable(tableId).setTurnTimeoutMs(200);
+
+        Client gina = connect("afkGina", "PLAYER");
+        assertNotNull(gina.joinTable(tableId));
+        gina.placeBet(10.0);
+
+        BlockingQueue<TableSnapshot> pushes = new LinkedBlockingQueue<>();
+        gina.subscribe(pushes::add);
+        assertNotNull(pushes.poll(5, TimeUnit.SECONDS));
+
+        dealer.startRound();
+
+        // gina never acts; her clock runs out, she stands, and the dealer finishes the round
+        TableSnapshot snap;
+        do {
+            snap = pushes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(snap, "Turn timeout should push the round forward");
+        } while (snap.getState() != GameState.RESULTS);
+    }
+}
@@ -0,0 +1,98 @@
+package Tests;
+
+import Enums.TableTimer;
+import Server.TableScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableSchedulerTest {
+
+    private final TableScheduler scheduler = new TableScheduler();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void deadlineFiresOnce() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        scheduler.schedule("T1", TableTimer.AUTO_START, 50, fired::countDown);
+
+        assertTrue(scheduler.isScheduled("T1", TableTimer.AUTO_START));
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(scheduler.isScheduled("T1", TableTimer.AUTO_START));
+    }
+
+    @Test
+    void cancelledDeadlineNeverFires() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        scheduler.schedule("T1", TableTimer.AUTO_START, 100, fired::incrementAndGet);
+
+        assertTrue(scheduler.cancel("T1", TableTimer.AUTO_START));
+        assertFalse(scheduler.cancel("T1", TableTimer.AUTO_START));
+        Thread.sleep(300);
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    void reschedulingReplacesTheOldDeadline() throws Exception {
+        AtomicInteger first = new AtomicInteger();
+        CountDownLatch second = new CountDownLatch(1);
+        scheduler.schedule("T1", TableTimer.AUTO_START, 100, first::incrementAndGet);
+        scheduler.schedule("T1", TableTimer.AUTO_START, 150, second::countDown);
+
+        assertTrue(second.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0, first.get());
+    }
+
+    @Test
+    void olderGenerationLeavesANewerDeadlineAlone() throws Exception {
+        AtomicInteger stale = new AtomicInteger();
+        CountDownLatch current = new CountDownLatch(1);
+        assertTrue(scheduler.schedule("T1", TableTimer.TURN_TIMEOUT, 5, 150, current::countDown));
+
+        // a caller that read turn 4 arrives late
+        assertFalse(scheduler.schedule("T1", TableTimer.TURN_TIMEOUT, 4, 50, stale::incrementAndGet));
+        assertFalse(scheduler.cancel("T1", TableTimer.TURN_TIMEOUT, 4));
+
+        assertTrue(current.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0, stale.get());
+    }
+
+    @Test
+    void newerGenerationReplacesAndCancels() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        scheduler.schedule("T1", TableTimer.TURN_TIMEOUT, 5, 100, fired::incrementAndGet);
+        assertTrue(scheduler.schedule("T1", TableTimer.TURN_TIMEOUT, 6, 100, fired::incrementAndGet));
+
+        assertTrue(scheduler.cancel("T1", TableTimer.TURN_TIMEOUT, 6));
+        Thread.sleep(300);
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    void thousandsOfTablesShareOneClockThread() throws Exception {
+        int tables = 5_000;
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        CountDownLatch fired = new CountDownLatch(tables);
+
+        for (int i = 0; i < tables; i++) {
+            scheduler.schedule("T" + i, TableTimer.AUTO_START, 200, fired::countDown);
+        }
+        int threadsAdded = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+        assertTrue(threadsAdded < 10, "Pending deadlines should not each hold a thread, added " + threadsAdded);
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+    }
+}
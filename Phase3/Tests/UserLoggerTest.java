@@ -33,6 +33,7 @@ public class UserLoggerTest {
         String action = "LOGIN";
 
         UserLogger.log(username, action);
+        UserLogger.flush(); // log() is asynchronous
 
         assertTrue(Files.exists(Paths.get("user_log.txt")), "Log file should exist");
 
@@ -52,6 +53,7 @@ public class UserLoggerTest {
         UserLogger.log("user2", "LOGOUT");
         UserLogger.log("user3", "CREATE_TABLE");
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         long newEntries = lines.stream()
                 .filter(line -> line.contains("user1") || line.contains("user2") || line.contains("user3"))
@@ -65,6 +67,7 @@ public class UserLoggerTest {
     void testEmptyUsername() throws IOException {
         UserLogger.log("", "SOME_ACTION");
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         String lastLine = lines.get(lines.size() - 1);
 
@@ -76,6 +79,7 @@ public class UserLoggerTest {
     void testEmptyAction() throws IOException {
         UserLogger.log("testUser", "");
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         String lastLine = lines.get(lines.size() - 1);
 
@@ -90,6 +94,7 @@ public class UserLoggerTest {
 
         UserLogger.log(username, action);
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         String lastLine = lines.get(lines.size() - 1);
 
@@ -118,6 +123,7 @@ public class UserLoggerTest {
         Files.deleteIfExists(logPath);
 
         UserLogger.log("newUser", "FIRST_LOG");
+        UserLogger.flush();
 
         assertTrue(Files.exists(logPath), "Log file should be created if it doesn't exist");
     }
@@ -132,6 +138,7 @@ public class UserLoggerTest {
             UserLogger.log("testUser", action);
         }
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         long matchCount = lines.stream()
                 .filter(line -> line.contains("testUser"))
@@ -163,6 +170,7 @@ public class UserLoggerTest {
             thread.join();
         }
 
+        UserLogger.flush(); // log() is asynchronous
         List<String> lines = Files.readAllLines(Paths.get("user_log.txt"));
         long newEntries = lines.stream()
                 .filter(line -> line.contains("user") && line.contains("ACTION_"))
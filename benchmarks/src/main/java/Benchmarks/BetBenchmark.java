@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import Enums.BetStatus;
+import Enums.Rank;
+import Enums.Suit;
+import Server.Bet;
+import Server.Card;
+import Server.Hand;
+import Server.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settling a bet: Bet.outcome comparing two finished hands, and Bet.settle
+ * paying the result into the player's balance. The player has no account
+ * manager behind it, so no ledger write is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BetBenchmark {
+
+    @State(Scope.Thread)
+    public static class Settling {
+        @Param({"WIN", "LOSE", "BLACKJACK", "PUSH"})
+        BetStatus outcome;
+
+        Bet bet;
+
+        @Setup
+        public void setUp() {
+            bet = new Bet(new Player("player", "pw", 1_000_000), 25);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hands {
+        final Hand player = new Hand();
+        final Hand dealer = new Hand();
+
+        @Setup
+        public void setUp() {
+            player.addCard(Card.of(Rank.TEN, Suit.HEARTS));
+            player.addCard(Card.of(Rank.NINE, Suit.CLUBS));
+            dealer.addCard(Card.of(Rank.KING, Suit.SPADES));
+            dealer.addCard(Card.of(Rank.SEVEN, Suit.DIAMONDS));
+        }
+    }
+
+    @Benchmark
+    public Bet settle(Settling state) {
+        state.bet.settle(state.outcome);
+        return state.bet;
+    }
+
+    @Benchmark
+    public BetStatus outcome(Hands hands) {
+        return Bet.outcome(hands.player, hands.dealer);
+    }
+}
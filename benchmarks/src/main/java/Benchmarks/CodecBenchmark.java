@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import Enums.GameState;
+import Enums.MessageType;
+import Enums.PlayerAction;
+import Enums.Rank;
+import Enums.Suit;
+import Message.BinaryCodec;
+import Message.JavaSerialCodec;
+import Message.Message;
+import Message.MessageCodec;
+import Shared.CardView;
+import Shared.DealerView;
+import Shared.PlayerView;
+import Shared.TableSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode, decode and a full round trip of a Message for each wire codec,
+ * from the smallest frames to a full table snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({"java", "binary"})
+    String codec;
+
+    @Param({"login", "bet", "action", "snapshot"})
+    String frame;
+
+    private MessageCodec messageCodec;
+    private Message message;
+    private byte[] body;
+
+    private static Message message(MessageType type, Object payload) {
+        return new Message(UUID.randomUUID().toString(), type, "CLIENT", "SERVER", payload, LocalDateTime.now());
+    }
+
+    // A full 7 seat table mid-round, the biggest frame the server sends
+    private static TableSnapshot fullTable() {
+        List<PlayerView> players = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            List<CardView> cards = List.of(
+                    new CardView(Rank.values()[i], Suit.HEARTS, false),
+                    new CardView(Rank.values()[i + 2], Suit.SPADES, false),
+                    new CardView(Rank.TWO, Suit.CLUBS, false));
+            players.add(new PlayerView("player" + i, 25.0, 17, true, i == 0, i == 3, cards, 1000.0 - i));
+        }
+        DealerView dealer = new DealerView(List.of(
+                new CardView(Rank.KING, Suit.DIAMONDS, false),
+                new CardView(Rank.SIX, Suit.CLUBS, true)), true);
+        return new TableSnapshot("T1", GameState.IN_PROGRESS, "player3", dealer, players);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        messageCodec = codec.equals("binary") ? BinaryCodec.INSTANCE : JavaSerialCodec.INSTANCE;
+        switch (frame) {
+            case "login":
+                message = message(MessageType.LOGIN, new String[] {"player0", "secret"});
+                break;
+            case "bet":
+                message = message(MessageType.BET_PLACED, 25.0);
+                break;
+            case "action":
+                message = message(MessageType.PLAYER_ACTION, PlayerAction.HIT);
+                break;
+            default:
+                message = message(MessageType.TABLE_SNAPSHOT, fullTable());
+                break;
+        }
+        body = messageCodec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return messageCodec.encode(message);
+    }
+
+    @Benchmark
+    public Message decode() throws Exception {
+        return messageCodec.decode(body, 0, body.length);
+    }
+
+    @Benchmark
+    public Message roundTrip() throws Exception {
+        byte[] b = messageCodec.encode(message);
+        return messageCodec.decode(b, 0, b.length);
+    }
+}
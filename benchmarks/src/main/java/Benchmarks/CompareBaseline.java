@@ -0,0 +1,96 @@
+package Benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json) benchmark by benchmark,
+ * parameters included, and exits with status 1 if anything got slower than
+ * the tolerance. A change only counts as a regression if it is also larger
+ * than the current run's error bar, so noise on a busy machine does not fail
+ * a build. The baseline's own error bar is left out: a baseline recorded on
+ * a noisy machine would otherwise excuse almost any slowdown. Run with
+ *   java -cp benchmarks.jar Benchmarks.CompareBaseline baseline.json current.json [tolerancePercent]
+ */
+public class CompareBaseline {
+
+    record Result(String mode, double score, double error, String unit) {
+        // avgt, sample and ss report time per operation; thrpt reports operations per time
+        boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+    }
+
+    /** Results keyed by "benchmark {param=value, ...}", in file order. */
+    static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (Reader in = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(in).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                Map<String, String> params = new TreeMap<>();
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> p : run.getAsJsonObject("params").entrySet()) {
+                        params.put(p.getKey(), p.getValue().getAsString());
+                    }
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").isJsonPrimitive() ? metric.get("scoreError").getAsDouble() : 0;
+                results.put(run.get("benchmark").getAsString() + (params.isEmpty() ? "" : " " + params),
+                        new Result(run.get("mode").getAsString(), metric.get("score").getAsDouble(),
+                                Double.isNaN(error) ? 0 : error, metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return results;
+    }
+
+    /** True if current is worse than baseline by more than tolerance and by more than the current run's error. */
+    static boolean isRegression(Result baseline, Result current, double tolerance) {
+        double worse = baseline.higherIsBetter() ? baseline.score() - current.score() : current.score() - baseline.score();
+        return worse > baseline.score() * tolerance && worse > current.error();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareBaseline baseline.json current.json [tolerancePercent]");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        double tolerance = (args.length > 2 ? Double.parseDouble(args[2]) : 10) / 100;
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %-9s new%n", entry.getKey(), "-", now.score(), now.unit());
+                continue;
+            }
+            boolean regressed = isRegression(before, now, tolerance);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %-9s %+7.1f%%%s%n", entry.getKey(), before.score(), now.score(), now.unit(),
+                    (now.score() - before.score()) * 100 / before.score(), regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-80s missing from the current run%n", key);
+            }
+        }
+
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, tolerance * 100);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+}
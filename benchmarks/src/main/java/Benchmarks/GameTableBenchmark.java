@@ -0,0 +1,59 @@
+package Benchmarks;
+
+import Enums.LogLevel;
+import Server.Dealer;
+import Server.GameTable;
+import Server.Log;
+import Server.Player;
+import Shared.TableSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameTable.createSnapshotFor on a table mid-round, the call behind every
+ * snapshot pushed to a client. It goes through the table's actor, so the
+ * hand-off to the table thread is part of the cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameTableBenchmark {
+
+    @Param({"1", "7"})
+    int seats;
+
+    private GameTable table;
+
+    @Setup
+    public void setUp() {
+        Log.setLevel("GameTable", LogLevel.WARN); // no "new shoe" lines in the results
+        table = new GameTable(new Dealer("dealer", "pw"));
+        for (int i = 0; i < seats; i++) {
+            Player player = new Player("player" + i, "pw", 1000);
+            table.addPlayer(player);
+            table.placeBet(player, 25);
+        }
+        if (!table.startRound()) {
+            throw new IllegalStateException("Round did not start");
+        }
+    }
+
+    @Benchmark
+    public TableSnapshot createSnapshotFor() {
+        return table.createSnapshotFor("player0");
+    }
+}
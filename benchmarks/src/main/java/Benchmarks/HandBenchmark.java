@@ -0,0 +1,66 @@
+package Benchmarks;
+
+import Enums.Rank;
+import Enums.Suit;
+import Server.Card;
+import Server.Hand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand.getValue on a finished hand, and building a hand card by card with
+ * the value read after every card, as a table does while a hand is played.
+ * The hands mix aces in so the soft total is exercised.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+    private static final Rank[] DRAWS = {Rank.ACE, Rank.FIVE, Rank.ACE, Rank.TWO, Rank.THREE, Rank.ACE, Rank.FOUR};
+
+    @Param({"2", "3", "5"})
+    int cards;
+
+    private final Hand hand = new Hand();
+    private final Hand building = new Hand();
+    private Card[] draws;
+
+    @Setup
+    public void setUp() {
+        draws = new Card[cards];
+        for (int i = 0; i < cards; i++) {
+            draws[i] = Card.of(DRAWS[i], Suit.values()[i % Suit.values().length]);
+            hand.addCard(draws[i]);
+        }
+    }
+
+    @Benchmark
+    public int getValue() {
+        return hand.getValue();
+    }
+
+    @Benchmark
+    public int playHand() {
+        building.clearHand();
+        int value = 0;
+        for (Card card : draws) {
+            building.addCard(card);
+            value += building.getValue();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package Benchmarks;
+
+import Enums.LogLevel;
+import Server.Account;
+import Server.Log;
+import Server.LoginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginManager.login of a random existing account as the account count
+ * grows, from one thread and from every core at once. The manager is in
+ * memory only (no loadData), so no journal is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int accounts;
+
+    private LoginManager manager;
+    private String[] usernames;
+    private String[] passwords;
+
+    @Setup
+    public void setUp() {
+        Log.setLevel("LoginManager", LogLevel.WARN); // createAccount logs every account
+        manager = new LoginManager();
+        usernames = new String[accounts];
+        passwords = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            usernames[i] = "user" + i;
+            passwords[i] = "pw" + i;
+            manager.createAccount(usernames[i], passwords[i], "PLAYER");
+        }
+    }
+
+    private Account loginRandom() {
+        int i = ThreadLocalRandom.current().nextInt(accounts);
+        Account account = manager.login(usernames[i], passwords[i]);
+        if (account == null) {
+            throw new IllegalStateException("login failed for " + usernames[i]);
+        }
+        return account;
+    }
+
+    @Benchmark
+    public Account login() {
+        return loginRandom();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Account loginAllCores() {
+        return loginRandom();
+    }
+}
@@ -0,0 +1,61 @@
+package Benchmarks;
+
+import Server.Card;
+import Server.Shoe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a shoe, dealing from it, and reshuffling it in place. dealCard
+ * includes the reshuffle once every shoe, as a table would see it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShoeBenchmark {
+
+    @Param({"1", "7"})
+    int decks;
+
+    private Shoe shoe;
+
+    @Setup
+    public void setUp() {
+        shoe = new Shoe(decks);
+    }
+
+    @Benchmark
+    public Shoe construct() {
+        return new Shoe(decks);
+    }
+
+    @Benchmark
+    public Card dealCard() {
+        Card card = shoe.dealCard();
+        if (card == null) {
+            shoe.resetShoe();
+            card = shoe.dealCard();
+        }
+        return card;
+    }
+
+    @Benchmark
+    public int reshuffle() {
+        shoe.resetShoe();
+        return shoe.cardsRemaining();
+    }
+}
@@ -0,0 +1,87 @@
+package Benchmarks;
+
+import Server.Deck;
+import Server.ShuffleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shuffle of a 7 deck shoe for each way of shuffling it: the two
+ * ShuffleEngine modes, a Fisher-Yates driven straight by a SecureRandom for
+ * comparison, and the Collections.shuffle of a card list the tables used
+ * before the byte array shoe. Deck.shuffle, a single 52 card deck, is here
+ * too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    private final byte[] codes = new byte[7 * 52];
+    private final List<Byte> list = new ArrayList<>();
+    private final ShuffleEngine fast = ShuffleEngine.fast();
+    private final ShuffleEngine secure = ShuffleEngine.secure();
+    private final SecureRandom direct = new SecureRandom();
+    private final Deck deck = new Deck();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (i % 52);
+            list.add(codes[i]);
+        }
+    }
+
+    @Benchmark
+    public byte engineFast() {
+        fast.shuffle(codes, 0);
+        return codes[0];
+    }
+
+    @Benchmark
+    public byte engineSecure() {
+        secure.shuffle(codes, 0);
+        return codes[0];
+    }
+
+    @Benchmark
+    public byte secureRandomPerCard() {
+        for (int i = codes.length - 1; i > 0; i--) {
+            int j = direct.nextInt(i + 1);
+            byte t = codes[i];
+            codes[i] = codes[j];
+            codes[j] = t;
+        }
+        return codes[0];
+    }
+
+    @Benchmark
+    public List<Byte> collectionsShuffle() {
+        Collections.shuffle(list, ThreadLocalRandom.current());
+        return list;
+    }
+
+    @Benchmark
+    public Deck deckShuffle() {
+        deck.shuffle();
+        return deck;
+    }
+}
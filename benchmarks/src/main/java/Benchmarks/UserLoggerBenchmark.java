@@ -0,0 +1,44 @@
+package Benchmarks;
+
+import Server.UserLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one UserLogger.log call costs the caller with every core logging at
+ * once. Writes to user_log.txt in the working directory. Under the default
+ * BLOCK overflow policy a caller waits for room once the ring is full, so
+ * a sustained run measures how fast the writer drains it; run with
+ * -jvmArgs -Dblackjack.userLog.overflow=DROP for the caller's side alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class UserLoggerBenchmark {
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        UserLogger.flush();
+    }
+
+    @Benchmark
+    public void log() {
+        UserLogger.log("bench", "LOGIN");
+    }
+}